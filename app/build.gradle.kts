@@ -27,6 +27,9 @@ plugins {
     jacoco
 
     id("net.henryhc.fork.org.openjfx.javafxplugin")
+
+    // Microbenchmarks under src/jmh, run with `gradlew jmh`.
+    id("me.champeau.jmh") version "0.6.6"
 }
 
 repositories {
@@ -65,6 +68,11 @@ checkstyle {
     toolVersion = "9.0"
 }
 
+jmh {
+    jvmArgsAppend.add("--enable-preview")
+    profilers.add("gc")
+}
+
 tasks {
     withType<JavaCompile> {
         options.compilerArgs = listOf("--enable-preview")
@@ -0,0 +1,70 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of replaying a sequence of moves by {@link GameController#processMove(Direction, int)}
+ * against {@link GameController#processMoves(int, List)}.
+ *
+ * <p>
+ * The game is recreated for every iteration, since the move stack of the player grows with every move.
+ * </p>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BatchMoveBenchmark.BATCH_SIZE)
+public class BatchMoveBenchmark {
+
+    /**
+     * The number of moves replayed by each invocation.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    /**
+     * The number of columns of the corridor of the game board.
+     */
+    @Param({"64", "2000"})
+    public int size;
+
+    private GameController controller;
+    private int playerId;
+    private final List<Direction> directions = new ArrayList<>(BATCH_SIZE);
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final GameBoard gameBoard = BenchmarkBoards.load(BenchmarkBoards.corridor(1, size, size), true)[0].getGameBoard();
+        controller = new GameController(gameBoard.getPlayer().getGameState());
+        playerId = gameBoard.getPlayer().getId();
+
+        directions.clear();
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            directions.add(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT);
+        }
+    }
+
+    @Benchmark
+    public MoveResult eachMove() {
+        MoveResult result = null;
+        for (final var direction : directions) {
+            result = controller.processMove(direction, playerId);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MoveResult[] batch() {
+        return controller.processMoves(playerId, directions);
+    }
+}
@@ -0,0 +1,117 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the move throughput of {@link GameController#processMove(Direction, int)} with and without a
+ * {@link MoveJournal}, when each of several players in different regions of one game board is driven by its own thread.
+ *
+ * <p>
+ * Each player slides back and forth between its starting cell and a stop cell in its own region. Since the record of
+ * each move is appended under the region locks of the move, the moves of the players are still committed in parallel
+ * while journaled, and the throughput with a journal is expected to stay close to that without one.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(ConcurrentMoveJournalBenchmark.NUM_PLAYERS)
+public class ConcurrentMoveJournalBenchmark {
+
+    /**
+     * The number of players, each of which is moved by its own thread.
+     */
+    static final int NUM_PLAYERS = 4;
+
+    /**
+     * The interval in milliseconds to force the journal, or {@code -1} to process the moves without a journal.
+     */
+    @Param({"-1", "10"})
+    public long syncIntervalMillis;
+
+    private GameController controller;
+    private int[] playerIds;
+    private Path file;
+    private MoveJournal journal;
+
+    /**
+     * The number of threads which have picked a player.
+     */
+    private final AtomicInteger numThreads = new AtomicInteger();
+
+    /**
+     * The player moved by a thread.
+     */
+    @State(Scope.Thread)
+    public static class PlayerSlot {
+
+        private int playerId;
+        private Direction direction = Direction.RIGHT;
+
+        @Setup(Level.Iteration)
+        public void setUp(final ConcurrentMoveJournalBenchmark benchmark) {
+            playerId = benchmark.playerIds[benchmark.numThreads.getAndIncrement() % NUM_PLAYERS];
+            direction = Direction.RIGHT;
+        }
+    }
+
+    /**
+     * Creates a game board of 4 by 4 regions, with a player in the top-left corner of every other region of the first
+     * and third bands of rows.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        final var size = PackedBoard.TILE_SIZE * 4;
+        final var corridorLength = PackedBoard.TILE_SIZE - 1;
+        final var builder = new PackedBoard.Builder(size, size);
+        for (int i = 0; i < NUM_PLAYERS; ++i) {
+            final var row = (i / 2) * PackedBoard.TILE_SIZE * 2;
+            final var col = (i % 2) * PackedBoard.TILE_SIZE * 2;
+            builder.set(row, col, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+            builder.set(row, col + corridorLength, PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+        }
+        builder.set(1, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+
+        final var gameBoard = new GameBoard(builder.build());
+        final var players = gameBoard.getPlayers();
+        final var gameStates = new GameState[players.size()];
+        playerIds = new int[players.size()];
+        for (int i = 0; i < gameStates.length; ++i) {
+            gameStates[i] = new GameState(gameBoard, players.get(i));
+            playerIds[i] = players.get(i).getId();
+        }
+        controller = new GameController(gameStates);
+        numThreads.set(0);
+
+        file = Files.createTempFile("concurrent-move-journal-benchmark", ".journal");
+        if (syncIntervalMillis >= 0) {
+            journal = MoveJournal.create(file, controller, syncIntervalMillis);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public MoveResult processMove(final PlayerSlot slot) {
+        final var result = controller.processMove(slot.direction, slot.playerId);
+        slot.direction = slot.direction == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+        return result;
+    }
+}
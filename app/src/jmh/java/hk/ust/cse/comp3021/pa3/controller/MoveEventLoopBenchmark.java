@@ -0,0 +1,99 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the latency distribution of moves processed by {@link GameController#processMove(Direction, int)} on the
+ * calling threads against moves submitted to a {@link MoveEventLoop}, when several threads each move their own player
+ * on the same game board.
+ *
+ * <p>
+ * The game is recreated for every iteration, since the move stacks of the players grow with every move.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(MoveEventLoopBenchmark.NUM_PLAYERS)
+public class MoveEventLoopBenchmark {
+
+    /**
+     * The number of players, each moved by its own thread.
+     */
+    static final int NUM_PLAYERS = 4;
+
+    /**
+     * The number of columns of the game board.
+     */
+    @Param({"64"})
+    public int size;
+
+    private GameController controller;
+    private MoveEventLoop eventLoop;
+    private final AtomicInteger nextPlayerIndex = new AtomicInteger();
+
+    /**
+     * The player moved by each thread.
+     */
+    @State(Scope.Thread)
+    public static class PlayerState {
+
+        private int playerId;
+        private Direction direction = Direction.RIGHT;
+
+        @Setup
+        public void setUp(final MoveEventLoopBenchmark benchmark) {
+            playerId = benchmark.nextPlayerIndex.getAndIncrement() % NUM_PLAYERS;
+        }
+
+        /**
+         * @return The direction of the next move, alternating between both ends of the row of the player.
+         */
+        private Direction nextDirection() {
+            final var current = direction;
+            direction = direction == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+            return current;
+        }
+    }
+
+    /**
+     * Creates a game with a player at the start of each row.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final var builder = new PackedBoard.Builder(NUM_PLAYERS, size);
+        for (int r = 0; r < NUM_PLAYERS; ++r) {
+            builder.set(r, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        }
+        builder.set(0, size / 2, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        final var gameBoard = new GameBoard(builder.build());
+
+        final var gameStates = gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player))
+                .toArray(GameState[]::new);
+        controller = new GameController(gameStates);
+        eventLoop = new MoveEventLoop(controller);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        eventLoop.close();
+    }
+
+    @Benchmark
+    public MoveResult direct(final PlayerState player) {
+        return controller.processMove(player.nextDirection(), player.playerId);
+    }
+
+    @Benchmark
+    public MoveResult eventLoop(final PlayerState player) {
+        return eventLoop.submit(player.nextDirection(), player.playerId).join();
+    }
+}
@@ -0,0 +1,77 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of appending each move processed by {@link GameController#processMove(Direction, int)} to a
+ * {@link MoveJournal}, against processing the moves without a journal.
+ *
+ * <p>
+ * The game and the journal are recreated for every iteration, since the move stack of the player and the journal grow
+ * with every move.
+ * </p>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(MoveJournalBenchmark.NUM_MOVES)
+public class MoveJournalBenchmark {
+
+    /**
+     * The number of moves processed by each invocation.
+     */
+    static final int NUM_MOVES = 1000;
+
+    /**
+     * The interval in milliseconds to force the journal, or {@code -1} to process the moves without a journal.
+     */
+    @Param({"-1", "10"})
+    public long syncIntervalMillis;
+
+    private GameController controller;
+    private int playerId;
+    private Path file;
+    private MoveJournal journal;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        final GameBoard gameBoard = BenchmarkBoards.load(BenchmarkBoards.corridor(1, 64, 8), true)[0].getGameBoard();
+        controller = new GameController(gameBoard.getPlayer().getGameState());
+        playerId = gameBoard.getPlayer().getId();
+
+        file = Files.createTempFile("move-journal-benchmark", ".journal");
+        if (syncIntervalMillis >= 0) {
+            journal = MoveJournal.create(file, controller, syncIntervalMillis);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public MoveResult processMoves() {
+        MoveResult result = null;
+        for (int i = 0; i < NUM_MOVES; ++i) {
+            result = controller.processMove(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT, playerId);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Position;
+import hk.ust.cse.comp3021.pa3.model.SlideResolver;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the move throughput and allocation of {@link MoveKernel} against
+ * {@link GameBoardController#tryMove(Position, Direction, int)}.
+ *
+ * <p>
+ * The {@code gc.alloc.rate.norm} metric of {@link #kernelTryMove()} is expected to be ~0 bytes per operation.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoveKernelBenchmark {
+
+    /**
+     * The number of rows and columns of the game board.
+     */
+    @Param({"500", "2000"})
+    public int size;
+
+    private GameBoardController controller;
+    private MoveKernel kernel;
+    private Position origin;
+    private int originIndex;
+    private int playerId;
+
+    @Setup
+    public void setUp() {
+        final GameBoard gameBoard = BenchmarkBoards.load(BenchmarkBoards.corridor(size, size, 64), true)[0].getGameBoard();
+        gameBoard.setSlideResolver(SlideResolver.JUMP_TABLE);
+        gameBoard.getSlideTable();
+        controller = new GameBoardController(gameBoard);
+        kernel = new MoveKernel(gameBoard);
+        origin = gameBoard.getPlayer().getOwner().getPosition();
+        originIndex = gameBoard.getPackedBoard().indexOf(origin);
+        playerId = gameBoard.getPlayer().getId();
+    }
+
+    @Benchmark
+    public MoveResult controllerTryMove() {
+        return controller.tryMove(origin, Direction.RIGHT, playerId);
+    }
+
+    @Benchmark
+    public int kernelTryMove() {
+        kernel.tryMove(originIndex, Direction.RIGHT, playerId);
+        return kernel.getNumCollectedGems();
+    }
+}
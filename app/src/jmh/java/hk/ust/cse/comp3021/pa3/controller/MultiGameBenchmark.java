@@ -0,0 +1,67 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the move throughput of {@link GameBoardController#makeMove(Direction, int)} when each thread plays its own
+ * game.
+ *
+ * <p>
+ * Since each game board has its own lock, the throughput of {@link #multipleGames()} is expected to scale with the
+ * number of threads, compared to {@link #singleGame()}.
+ * </p>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiGameBenchmark {
+
+    /**
+     * The number of columns of the corridor of each game board.
+     */
+    @Param({"64"})
+    public int size;
+
+    private GameBoardController controller;
+    private int playerId;
+    private Direction direction = Direction.RIGHT;
+
+    @Setup
+    public void setUp() {
+        final GameBoard gameBoard = BenchmarkBoards.load(BenchmarkBoards.corridor(1, size, size), true)[0].getGameBoard();
+        controller = new GameBoardController(gameBoard);
+        playerId = gameBoard.getPlayer().getId();
+    }
+
+    /**
+     * Slides the player to the other end of the corridor.
+     *
+     * @return The result of the move.
+     */
+    private MoveResult move() {
+        final var result = controller.makeMove(direction, playerId);
+        direction = direction == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+        return result;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MoveResult singleGame() {
+        return move();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public MoveResult multipleGames() {
+        return move();
+    }
+}
@@ -0,0 +1,79 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Position;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of moves while robots query the game board by
+ * {@link GameBoardController#tryMove(Position, Direction, int)}, which reads the game board optimistically.
+ *
+ * <p>
+ * The throughput of {@link #move()} in the {@code readHeavy} group is expected to be close to that of
+ * {@link #moveAlone()}, since queries do not block moves.
+ * </p>
+ */
+@State(Scope.Group)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OptimisticReadBenchmark {
+
+    /**
+     * The number of rows and columns of the game board.
+     */
+    @Param({"500"})
+    public int size;
+
+    private GameBoardController controller;
+    private Position origin;
+    private int playerId;
+    private Direction direction = Direction.RIGHT;
+
+    @Setup
+    public void setUp() {
+        final GameBoard gameBoard = BenchmarkBoards.load(BenchmarkBoards.corridor(size, size, 64), true)[0].getGameBoard();
+        gameBoard.getSlideTable();
+        controller = new GameBoardController(gameBoard);
+        origin = gameBoard.getPlayer().getOwner().getPosition();
+        playerId = gameBoard.getPlayer().getId();
+    }
+
+    /**
+     * Slides the player to the other end of the corridor.
+     *
+     * @return The result of the move.
+     */
+    private MoveResult slide() {
+        final var result = controller.makeMove(direction, playerId);
+        direction = direction == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+        return result;
+    }
+
+    @Benchmark
+    @Group("alone")
+    public MoveResult moveAlone() {
+        return slide();
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public MoveResult move() {
+        return slide();
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(3)
+    public MoveResult query() {
+        return controller.tryMove(origin, Direction.RIGHT, playerId);
+    }
+}
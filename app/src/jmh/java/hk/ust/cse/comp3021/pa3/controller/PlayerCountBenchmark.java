@@ -0,0 +1,65 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link GameController#processMove(Direction, int)} for different numbers of players on one game
+ * board, with the players taking turns.
+ *
+ * <p>
+ * Each player slides back and forth along its own row between its starting cell and a stop cell next to a gem, so the
+ * game never ends. Since the state of each player is kept in arrays indexed by player id, and a snapshot of the game
+ * board does not copy anything per player, the cost is expected to stay flat as the number of players grows.
+ * </p>
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerCountBenchmark {
+
+    /**
+     * The number of columns of each row of the game board.
+     */
+    private static final int NUM_COLS = 16;
+
+    @Param({"2", "8", "64", "256", "1024"})
+    public int numPlayers;
+
+    private GameController controller;
+    private int[] playerIds;
+    private int turn = 0;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final var sb = new StringBuilder();
+        sb.append(numPlayers).append('\n').append(NUM_COLS).append('\n').append(-1).append('\n');
+        for (int r = 0; r < numPlayers; ++r) {
+            sb.append('P').append(".".repeat(NUM_COLS - 3)).append("SG\n");
+        }
+
+        controller = new GameController(BenchmarkBoards.load(sb.toString(), false));
+        final var players = controller.getPlayers();
+        playerIds = new int[players.length];
+        for (int i = 0; i < players.length; ++i) {
+            playerIds[i] = players[i].getId();
+        }
+        turn = 0;
+    }
+
+    @Benchmark
+    public MoveResult processMove() {
+        final var playerId = playerIds[turn % playerIds.length];
+        final var direction = (turn / playerIds.length) % 2 == 0 ? Direction.RIGHT : Direction.LEFT;
+        ++turn;
+
+        return controller.processMove(direction, playerId);
+    }
+}
@@ -0,0 +1,119 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.PackedBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the move throughput of two players sliding back and forth in different regions of a large game board, each
+ * driven by its own thread.
+ *
+ * <p>
+ * The slides of the players cross disjoint regions of the game board, so the throughput of each player in the
+ * {@code corners} group, with the players in opposite corners, and in the {@code bands} group, with the players in the
+ * first columns of the bands of rows 0 and 2, is expected to be close to that of {@link #alone()}. The slides end at
+ * stop cells, so only the regions up to the stop cells are locked, even though the rest of each row is empty.
+ * </p>
+ */
+@State(Scope.Group)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RegionLockBenchmark {
+
+    /**
+     * The number of rows and columns of the game board.
+     */
+    @Param({"2000"})
+    public int size;
+
+    private GameBoardController controller;
+    private int topLeftId;
+    private int bottomRightId;
+    private int thirdBandId;
+    private Direction topLeftDirection = Direction.RIGHT;
+    private Direction bottomRightDirection = Direction.LEFT;
+    private Direction thirdBandDirection = Direction.RIGHT;
+
+    /**
+     * Creates a game board with a player in the top-left and bottom-right corners and in the first column of the third
+     * band of rows, each of which can slide between its starting cell and a stop cell in the same row.
+     */
+    @Setup
+    public void setUp() {
+        final var corridorLength = PackedBoard.TILE_SIZE - 1;
+        final var builder = new PackedBoard.Builder(size, size);
+        builder.set(0, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        builder.set(0, corridorLength / 2, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        builder.set(0, corridorLength, PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+        builder.set(size - 1, size - 1, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        builder.set(size - 1, size - 1 - corridorLength, PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+        final var thirdBandRow = PackedBoard.TILE_SIZE * 2;
+        builder.set(thirdBandRow, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        builder.set(thirdBandRow, corridorLength, PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+
+        final var gameBoard = new GameBoard(builder.build());
+        controller = new GameBoardController(gameBoard);
+        topLeftId = gameBoard.getPlayerAt(0).getId();
+        bottomRightId = gameBoard.getPlayerAt(size * size - 1).getId();
+        thirdBandId = gameBoard.getPlayerAt(thirdBandRow * size).getId();
+    }
+
+    private MoveResult moveTopLeft() {
+        final var result = controller.makeMove(topLeftDirection, topLeftId);
+        topLeftDirection = topLeftDirection == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+        return result;
+    }
+
+    private MoveResult moveBottomRight() {
+        final var result = controller.makeMove(bottomRightDirection, bottomRightId);
+        bottomRightDirection = bottomRightDirection == Direction.LEFT ? Direction.RIGHT : Direction.LEFT;
+        return result;
+    }
+
+    private MoveResult moveThirdBand() {
+        final var result = controller.makeMove(thirdBandDirection, thirdBandId);
+        thirdBandDirection = thirdBandDirection == Direction.RIGHT ? Direction.LEFT : Direction.RIGHT;
+        return result;
+    }
+
+    @Benchmark
+    @Group("alone")
+    public MoveResult alone() {
+        return moveTopLeft();
+    }
+
+    @Benchmark
+    @Group("corners")
+    @GroupThreads(1)
+    public MoveResult topLeft() {
+        return moveTopLeft();
+    }
+
+    @Benchmark
+    @Group("corners")
+    @GroupThreads(1)
+    public MoveResult bottomRight() {
+        return moveBottomRight();
+    }
+
+    @Benchmark
+    @Group("bands")
+    @GroupThreads(1)
+    public MoveResult firstBand() {
+        return moveTopLeft();
+    }
+
+    @Benchmark
+    @Group("bands")
+    @GroupThreads(1)
+    public MoveResult thirdBand() {
+        return moveThirdBand();
+    }
+}
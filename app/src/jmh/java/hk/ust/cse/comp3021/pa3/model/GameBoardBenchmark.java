@@ -0,0 +1,106 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa3.util.BenchmarkBoards;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory footprint and move throughput of a {@link GameBoard} backed by {@link Cell} instances against
+ * one which only keeps its {@link PackedBoard}, and the move throughput of each {@link SlideResolver}.
+ *
+ * <p>
+ * The memory footprint is reported by the {@code gc.alloc.rate.norm} metric of {@link #load()}, i.e. the number of
+ * bytes allocated to load the game board.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GameBoardBenchmark {
+
+    /**
+     * The number of rows and columns of the game board.
+     */
+    @Param({"500", "2000"})
+    public int size;
+
+    /**
+     * Whether the game board only keeps its packed representation.
+     */
+    @Param({"false", "true"})
+    public boolean packed;
+
+    /**
+     * The strategy used to resolve slides.
+     */
+    @Param({"SCAN", "JUMP_TABLE", "BITBOARD"})
+    public SlideResolver resolver;
+
+    private String source;
+    private GameBoard gameBoard;
+    private GameBoardController controller;
+    private Position origin;
+    private int playerId;
+
+    @Setup
+    public void setUp() {
+        source = BenchmarkBoards.corridor(size, size, 64);
+        gameBoard = BenchmarkBoards.load(source, packed)[0].getGameBoard();
+        gameBoard.setSlideResolver(resolver);
+        gameBoard.getSlideTable();
+        controller = new GameBoardController(gameBoard);
+        origin = gameBoard.getPlayer().getOwner().getPosition();
+        playerId = gameBoard.getPlayer().getId();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameBoard load() {
+        return BenchmarkBoards.load(source, packed)[0].getGameBoard();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public MoveResult tryMove() {
+        return controller.tryMove(origin, Direction.RIGHT, playerId);
+    }
+
+    /**
+     * Slides through the corridor by walking the {@link Cell} instances, as done before the introduction of
+     * {@link PackedBoard}.
+     *
+     * @return The number of gems collected by the slide.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int tryMoveObjectGraph() {
+        var numGems = 0;
+        var pos = origin;
+        while (true) {
+            final var next = pos.offsetByOrNull(Direction.RIGHT.getOffset(), gameBoard.getNumRows(), gameBoard.getNumCols());
+            if (next == null || !(gameBoard.getCell(next) instanceof EntityCell entityCell)) {
+                break;
+            }
+            if (entityCell.getEntity() instanceof Player p && p.getId() != playerId) {
+                break;
+            }
+            pos = next;
+            if (entityCell instanceof StopCell) {
+                break;
+            }
+            if (entityCell.getEntity() instanceof Mine) {
+                return -1;
+            }
+            if (entityCell.getEntity() instanceof Gem) {
+                ++numGems;
+            }
+        }
+        return numGems;
+    }
+}
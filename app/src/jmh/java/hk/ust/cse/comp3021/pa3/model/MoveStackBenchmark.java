@@ -0,0 +1,68 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory footprint and the throughput of pushing moves to a {@link MoveStack}, and popping them again.
+ *
+ * <p>
+ * The memory footprint is reported by the {@code gc.alloc.rate.norm} metric of {@link #fill()}, i.e. the number of
+ * bytes allocated to retain {@link MoveStackBenchmark#NUM_MOVES} moves. The moves are created before the benchmark, so
+ * only the bytes retained by the stack are counted.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoveStackBenchmark {
+
+    /**
+     * The number of moves pushed by each invocation.
+     */
+    static final int NUM_MOVES = 100_000;
+
+    /**
+     * The number of columns of the game board.
+     */
+    private static final int NUM_COLS = 500;
+
+    private final MoveResult[] moves = new MoveResult[NUM_MOVES];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < NUM_MOVES; ++i) {
+            final var row = i % NUM_COLS;
+            moves[i] = new MoveResult.Valid.Alive(
+                    new Position(row, NUM_COLS - 1),
+                    new Position(row, 0),
+                    i % 8 == 0 ? List.of(new Position(row, NUM_COLS / 2)) : List.of(),
+                    List.of()
+            );
+        }
+    }
+
+    @Benchmark
+    public MoveStack fill() {
+        final var moveStack = new MoveStack(NUM_COLS);
+        for (final var move : moves) {
+            moveStack.push(move);
+        }
+        return moveStack;
+    }
+
+    @Benchmark
+    public int fillAndDrain() {
+        final var moveStack = fill();
+        var numGems = 0;
+        while (!moveStack.isEmpty()) {
+            numGems += ((MoveResult.Valid.Alive) moveStack.pop()).collectedGems.size();
+        }
+        return numGems;
+    }
+}
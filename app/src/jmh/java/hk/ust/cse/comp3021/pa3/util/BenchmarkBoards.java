@@ -0,0 +1,68 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Generated game boards for benchmarking.
+ */
+public final class BenchmarkBoards {
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Generates the serialized form of a game board with a single corridor along the top row, and walls everywhere
+     * else.
+     *
+     * <p>
+     * The player starts at the left end of the corridor, and a gem is placed every {@code gemInterval} cells along the
+     * corridor, including the right end.
+     * </p>
+     *
+     * @param numRows     The number of rows of the game board.
+     * @param numCols     The number of columns of the game board.
+     * @param gemInterval The distance between two gems in the corridor.
+     * @return The serialized game board, with unlimited lives.
+     */
+    @NotNull
+    public static String corridor(final int numRows, final int numCols, final int gemInterval) {
+        final var sb = new StringBuilder(numRows * (numCols + 1) + 16);
+        sb.append(numRows).append('\n').append(numCols).append('\n').append('\n');
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                if (r != 0) {
+                    sb.append('W');
+                } else if (c == 0) {
+                    sb.append('P');
+                } else if (c == numCols - 1 || c % gemInterval == 0) {
+                    sb.append('G');
+                } else {
+                    sb.append('.');
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Loads a serialized game board.
+     *
+     * @param source The serialized game board.
+     * @param packed Whether the game board should only keep its packed representation.
+     * @return The game states of all players in the game board.
+     */
+    @NotNull
+    public static GameState[] load(@NotNull final String source, final boolean packed) {
+        try (var reader = new BufferedReader(new StringReader(source))) {
+            return GameStateSerializer.loadFrom(reader, packed ? 0 : Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
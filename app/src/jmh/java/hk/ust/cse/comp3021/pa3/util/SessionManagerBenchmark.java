@@ -0,0 +1,84 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of moves per second made by a {@link SessionManager} hosting a number of concurrent sessions of
+ * a sample puzzle, with the same number of carrier threads regardless of the number of sessions.
+ *
+ * <p>
+ * The moves per second are reported by the {@code moves} counter.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class SessionManagerBenchmark {
+
+    /**
+     * The number of sessions opened by each invocation.
+     */
+    @Param({"10", "1000", "10000"})
+    public int numSessions;
+
+    /**
+     * The file name of the puzzle under the {@code puzzles} directory of the repository.
+     */
+    @Param({"10-test-tie.multiplayer.game"})
+    public String puzzle;
+
+    private String source;
+    private SessionManager sessionManager;
+
+    /**
+     * The number of moves made by each thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class MoveCounters {
+
+        public long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            moves = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        source = Files.readString(Paths.get("..", "puzzles", puzzle));
+        sessionManager = new SessionManager(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionManager.close();
+    }
+
+    @Benchmark
+    public long hostSessions(final MoveCounters counters) {
+        final var numMovesBefore = sessionManager.getNumMoves();
+        final var sessions = new CompletableFuture<?>[numSessions];
+        for (int i = 0; i < numSessions; ++i) {
+            final var controller = new GameController(BenchmarkBoards.load(source, false));
+            sessions[i] = sessionManager.open(controller, Robot.Strategy.Smart, Robot.Strategy.Random).getWinners();
+        }
+        CompletableFuture.allOf(sessions).join();
+
+        final var numMoves = sessionManager.getNumMoves() - numMovesBefore;
+        counters.moves += numMoves;
+        return numMoves;
+    }
+}
@@ -0,0 +1,95 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of moves per second made by a {@link Simulator} on the sample puzzles, either one game after
+ * another on a single thread, or {@link SimulatorBenchmark#NUM_GAMES_PER_BATCH} games at a time on a worker pool.
+ *
+ * <p>
+ * The moves per second are reported by the {@code moves} counter. Each game is loaded from the serialized puzzle,
+ * which is included in the measurement.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SimulatorBenchmark {
+
+    /**
+     * The number of games played by each invocation of {@link #workerPool(MoveCounters)}.
+     */
+    static final int NUM_GAMES_PER_BATCH = 64;
+
+    /**
+     * The maximum number of moves made in each game.
+     */
+    private static final int MAX_MOVES_PER_GAME = 10_000;
+
+    /**
+     * The file name of the puzzle under the {@code puzzles} directory of the repository.
+     */
+    @Param({"01-simple.game", "04-random.game", "08-test-robot.game", "10-test-tie.multiplayer.game"})
+    public String puzzle;
+
+    @Param({"Random", "Smart"})
+    public Robot.Strategy strategy;
+
+    private Simulator simulator;
+    private ExecutorService executor;
+
+    /**
+     * The number of moves made by each thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class MoveCounters {
+
+        public long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            moves = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        final var source = Files.readString(Paths.get("..", "puzzles", puzzle));
+        simulator = new Simulator(() -> new GameController(BenchmarkBoards.load(source, false)), MAX_MOVES_PER_GAME,
+                strategy);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Simulator.Report singleThread(final MoveCounters counters) {
+        final var report = simulator.run(1);
+        counters.moves += report.numMoves();
+        return report;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Simulator.Report workerPool(final MoveCounters counters) {
+        final var report = simulator.run(NUM_GAMES_PER_BATCH, executor);
+        counters.moves += report.numMoves();
+        return report;
+    }
+}
@@ -7,7 +7,9 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Controller for {@link GameBoard}.
@@ -19,11 +21,29 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class GameBoardController {
 
-    private static Lock lock = new ReentrantLock();
-
     @NotNull
     private final GameBoard gameBoard;
 
+    /**
+     * The lock of {@link GameBoardController#gameBoard} for exclusive access, shared by all controllers of the same game
+     * board.
+     */
+    @NotNull
+    private final Lock lock;
+
+    /**
+     * The stamped lock of {@link GameBoardController#gameBoard}, whose write mode is {@link GameBoardController#lock},
+     * and whose read mode is held while a move is committed.
+     */
+    @NotNull
+    private final StampedLock stampedLock;
+
+    /**
+     * The region locks of {@link GameBoardController#gameBoard}, shared by all controllers of the same game board.
+     */
+    @NotNull
+    private final RegionLocks regionLocks;
+
     /**
      * Creates an instance.
      *
@@ -31,6 +51,9 @@ public class GameBoardController {
      */
     public GameBoardController(@NotNull final GameBoard gameBoard) {
         this.gameBoard = Objects.requireNonNull(gameBoard);
+        this.lock = gameBoard.getLock();
+        this.stampedLock = gameBoard.getStampedLock();
+        this.regionLocks = gameBoard.getRegionLocks();
     }
 
     /**
@@ -41,13 +64,16 @@ public class GameBoardController {
      * @param playerId The id of the player to kick out.
      */
     public synchronized void kickOut(int playerId) {
-        var playerList = gameBoard.getPlayers();
-        for (var player : playerList) {
-            if (player.getId() == playerId) {
-                gameBoard.getPlayers().removeIf(e -> e.getId() == playerId);
-                player.getOwner().setEntity(null);
-                return;
+        final var mask = regionLocks.allMask();
+        regionLocks.lock(mask);
+        lock.lock();
+        try {
+            if (gameBoard.removePlayer(playerId)) {
+                gameBoard.snapshot();
             }
+        } finally {
+            lock.unlock();
+            regionLocks.unlock(mask);
         }
     }
 
@@ -77,41 +103,163 @@ public class GameBoardController {
      * alive. If the player dies after moving or the move is invalid, the game board should remain in the same state as
      * before this method was called.
      * </p>
+     * <p>
+     * Only the region locks of the cells the player can slide over are held while resolving and committing the move,
+     * so that moves in disjoint regions of the game board proceed in parallel. The move is committed under the read
+     * mode of the stamped lock of the game board, which only excludes the operations needing exclusive access to the
+     * game board, and a snapshot of the game board is then published by {@link GameBoard#publishSnapshotIfStale()}.
+     * </p>
      *
      * @param direction Direction to move the player in.
      * @return An instance of {@link MoveResult} representing the result of this action.
      */
     @Nullable
     public MoveResult makeMove(@NotNull final Direction direction, int playerID) {
-        lock.lock();
+        return makeMove(direction, playerID, null);
+    }
+
+    /**
+     * Same as {@link GameBoardController#makeMove(Direction, int)}, but lets the caller inspect the result of the move
+     * before it is committed.
+     *
+     * <p>
+     * {@code beforeCommit} is called while the region locks of the cells the player can slide over are still held, so
+     * that the calls for moves crossing overlapping regions are in the order the moves are committed, e.g. to append
+     * the moves to a {@link MoveJournal}. Moves crossing disjoint regions commute, so their order does not matter.
+     * </p>
+     *
+     * @param direction    Direction to move the player in.
+     * @param playerID     The id of the player.
+     * @param beforeCommit Called with the result of the move before it is committed, which returns {@code false} to
+     *                     discard the move instead. May be {@code null}.
+     * @return An instance of {@link MoveResult} representing the result of this action, or {@code null} if the player
+     * is not on the game board or the move is discarded.
+     */
+    @Nullable
+    MoveResult makeMove(@NotNull final Direction direction, int playerID,
+                        @Nullable final Predicate<MoveResult> beforeCommit) {
         Objects.requireNonNull(direction);
 
+        final var player = gameBoard.getPlayer(playerID);
+        while (true) {
+            final var playerOwner = player.getOwner();
+            if (playerOwner == null) {
+                return null;
+            }
 
-        var playerOwner = gameBoard.getPlayer(playerID).getOwner();
-        if (playerOwner == null) {
+            final var origPosition = playerOwner.getPosition();
+            final var mask = lockMaskOf(origPosition, direction);
+            regionLocks.lock(mask);
+            try {
+                // The player may have been moved or kicked out before its regions are locked
+                if (player.getOwner() != playerOwner) {
+                    continue;
+                }
+
+                final var tryMoveResult = resolveMove(origPosition, direction, playerID);
+                if (beforeCommit != null && !beforeCommit.test(tryMoveResult)) {
+                    return null;
+                }
+                if (tryMoveResult instanceof MoveResult.Valid.Alive alive) {
+                    final var stamp = stampedLock.readLock();
+                    regionLocks.beginWrite(mask);
+                    try {
+                        commitMove(alive, player);
+                        gameBoard.markSnapshotStale();
+                    } finally {
+                        regionLocks.endWrite(mask);
+                        stampedLock.unlockRead(stamp);
+                    }
+                    gameBoard.publishSnapshotIfStale();
+                }
+                return tryMoveResult;
+            } finally {
+                regionLocks.unlock(mask);
+            }
+        }
+    }
+
+
+    /**
+     * Applies the changes of a move to the game board.
+     *
+     * @param alive  The move to apply.
+     * @param player The player making the move.
+     */
+    private void commitMove(@NotNull final MoveResult.Valid.Alive alive, @NotNull final Player player) {
+        // Clear all outstanding entities that the player would've picked up
+        for (@NotNull final var gemPos : alive.collectedGems) {
+            gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_NONE);
+        }
+        for (@NotNull final var extraLifePos : alive.collectedExtraLives) {
+            gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_NONE);
+        }
+
+        // Move the player directly over
+        assert alive.newPosition != null;
+        gameBoard.getEntityCell(alive.newPosition).setEntity(player);
+    }
+
+    /**
+     * Runs an action with exclusive access to the game board, i.e. while holding all region locks and the lock of the
+     * game board, and takes a snapshot of the game board afterwards.
+     *
+     * <p>
+     * This is used to apply a batch of moves by {@link GameBoardController#applyMove(Direction, int)} and
+     * {@link GameBoardController#applyKickOut(int)} under a single lock acquisition.
+     * </p>
+     *
+     * @param action The action to run.
+     * @param <T>    The type of the result of the action.
+     * @return The result of the action.
+     */
+    <T> T runExclusively(@NotNull final Supplier<T> action) {
+        final var mask = regionLocks.allMask();
+        regionLocks.lock(mask);
+        lock.lock();
+        try {
+            final var result = action.get();
+            gameBoard.snapshot();
+            return result;
+        } finally {
             lock.unlock();
-            return null;
+            regionLocks.unlock(mask);
         }
+    }
 
-        final var origPosition = playerOwner.getPosition();
-        final var tryMoveResult = tryMove(origPosition, direction, playerID);
-        if (tryMoveResult instanceof MoveResult.Valid.Alive alive) {
-            // Clear all outstanding entities that the player would've picked up
-            for (@NotNull final var gemPos : alive.collectedGems) {
-                gameBoard.getEntityCell(gemPos).setEntity(null);
-            }
-            for (@NotNull final var extraLifePos : alive.collectedExtraLives) {
-                gameBoard.getEntityCell(extraLifePos).setEntity(null);
-            }
+    /**
+     * Same as {@link GameBoardController#makeMove(Direction, int)}, but does not lock or take a snapshot of the game
+     * board. Must be called within {@link GameBoardController#runExclusively(Supplier)}.
+     *
+     * @param direction Direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the result of this action, or {@code null} if the player
+     * is not on the game board.
+     */
+    @Nullable
+    MoveResult applyMove(@NotNull final Direction direction, final int playerID) {
+        final var player = gameBoard.getPlayer(playerID);
+        final var playerOwner = player.getOwner();
+        if (playerOwner == null) {
+            return null;
+        }
 
-            // Move the player directly over
-            assert alive.newPosition != null;
-            gameBoard.getEntityCell(alive.newPosition).setEntity(gameBoard.getPlayer(playerID));
+        final var result = resolveMove(playerOwner.getPosition(), direction, playerID);
+        if (result instanceof MoveResult.Valid.Alive alive) {
+            commitMove(alive, player);
         }
-        lock.unlock();
-        return tryMoveResult;
+        return result;
     }
 
+    /**
+     * Same as {@link GameBoardController#kickOut(int)}, but does not lock or take a snapshot of the game board. Must be
+     * called within {@link GameBoardController#runExclusively(Supplier)}.
+     *
+     * @param playerId The id of the player to kick out.
+     */
+    void applyKickOut(final int playerId) {
+        gameBoard.removePlayer(playerId);
+    }
 
     /**
      * Undoes a move by reverting all changes performed by the specified move.
@@ -134,14 +282,23 @@ public class GameBoardController {
             return;
         }
 
-        // Effectively makeMove, but reversed
-        gameBoard.getEntityCell(aliveState.origPosition).setEntity(gameBoard.getPlayer());
+        final var mask = regionLocks.allMask();
+        regionLocks.lock(mask);
+        lock.lock();
+        try {
+            // Effectively makeMove, but reversed
+            gameBoard.getEntityCell(aliveState.origPosition).setEntity(gameBoard.getPlayer());
 
-        for (@NotNull final var gemPos : aliveState.collectedGems) {
-            gameBoard.getEntityCell(gemPos).setEntity(new Gem());
-        }
-        for (@NotNull final var extraLifePos : aliveState.collectedExtraLives) {
-            gameBoard.getEntityCell(extraLifePos).setEntity(new ExtraLife());
+            for (@NotNull final var gemPos : aliveState.collectedGems) {
+                gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_GEM);
+            }
+            for (@NotNull final var extraLifePos : aliveState.collectedExtraLives) {
+                gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_EXTRA_LIFE);
+            }
+            gameBoard.snapshot();
+        } finally {
+            lock.unlock();
+            regionLocks.unlock(mask);
         }
     }
 
@@ -153,6 +310,11 @@ public class GameBoardController {
      * Note that this method does <b>NOT</b> actually move the player. It just tries to move the player and return
      * the state of the player as-if it has been moved.
      * </p>
+     * <p>
+     * The game board is read optimistically, and the read is only retried under the region locks of the cells the
+     * player can slide over and the read lock of the game board if a move is committed in those regions meanwhile.
+     * This method therefore never blocks moves.
+     * </p>
      *
      * @param position  The original position of the player.
      * @param direction The direction to move the player in.
@@ -161,79 +323,337 @@ public class GameBoardController {
      */
     @NotNull
     public MoveResult tryMove(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
-        lock.lock();
         Objects.requireNonNull(position);
         Objects.requireNonNull(direction);
 
+        final var mask = lockMaskOf(position, direction);
+        final var optimisticStamp = stampedLock.tryOptimisticRead();
+        final var regionStamp = regionLocks.tryOptimisticRead(mask);
+        if (optimisticStamp != 0 && regionStamp != 0) {
+            MoveResult result;
+            try {
+                result = resolveMove(position, direction, playerID);
+            } catch (RuntimeException e) {
+                // A concurrent commit may be observed halfway, so failures are only reported if the read is consistent
+                result = null;
+            }
+            if (result != null && stampedLock.validate(optimisticStamp) && regionLocks.validate(mask, regionStamp)) {
+                return result;
+            }
+        }
+
+        regionLocks.lock(mask);
+        final var stamp = stampedLock.readLock();
+        try {
+            return resolveMove(position, direction, playerID);
+        } finally {
+            stampedLock.unlockRead(stamp);
+            regionLocks.unlock(mask);
+            gameBoard.publishSnapshotIfStale();
+        }
+    }
+
+    /**
+     * Tries to move a player from a position in the specified direction as far as possible on a snapshot of the game
+     * board, with the same rules as {@link GameBoardController#tryMove(Position, Direction, int)}.
+     *
+     * <p>
+     * Since the snapshot is immutable, searches trying many moves, e.g. by robots, read one consistent version of the
+     * game board without taking any lock.
+     * </p>
+     *
+     * @param snapshot  The snapshot of the game board.
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the type of the move and the position of the player after
+     * moving on the snapshot.
+     */
+    @NotNull
+    public MoveResult tryMove(@NotNull final BoardSnapshot snapshot,
+                              @NotNull final Position position,
+                              @NotNull final Direction direction,
+                              int playerID) {
+        Objects.requireNonNull(snapshot);
+        Objects.requireNonNull(position);
+        Objects.requireNonNull(direction);
+
+        final var numRows = snapshot.getNumRows();
+        final var numCols = snapshot.getNumCols();
         final var collectedGems = new ArrayList<Position>();
         final var collectedExtraLives = new ArrayList<Position>();
-        Position lastValidPosition = position;
+        int row = position.row();
+        int col = position.col();
         do {
-            final Position newPosition = offsetPosition(lastValidPosition, direction);
-            if (newPosition == null) {
+            final var nextRow = row + direction.getRowOffset();
+            final var nextCol = col + direction.getColOffset();
+            if (nextRow < 0 || nextRow >= numRows || nextCol < 0 || nextCol >= numCols) {
+                break;
+            }
+            final var nextIndex = snapshot.indexOf(nextRow, nextCol);
+            final var cellKind = snapshot.getCellKind(nextIndex);
+            if (cellKind == PackedBoard.CELL_WALL) {
                 break;
             }
 
             // in multiplayer mode, we consider other players as a wall.
-            if (gameBoard.getCell(newPosition) instanceof EntityCell entityCell)
-                if (entityCell.getEntity() instanceof Player otherPlayer)
-                    if (otherPlayer.getId() != playerID)
-                        break;
+            final var entityKind = snapshot.getEntityKind(nextIndex);
+            if (entityKind == PackedBoard.ENTITY_PLAYER) {
+                final var otherPlayer = snapshot.getPlayerAt(nextIndex);
+                if (otherPlayer != null && otherPlayer.getId() != playerID) {
+                    break;
+                }
+            }
+
+            row = nextRow;
+            col = nextCol;
+
+            if (cellKind == PackedBoard.CELL_STOP) {
+                break;
+            }
+
+            if (entityKind == PackedBoard.ENTITY_MINE) {
+                return new MoveResult.Valid.Dead(position, new Position(row, col));
+            }
 
+            if (entityKind == PackedBoard.ENTITY_GEM) {
+                collectedGems.add(new Position(row, col));
+            } else if (entityKind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                collectedExtraLives.add(new Position(row, col));
+            }
+        } while (true);
+
+        if (row == position.row() && col == position.col()) {
+            return new MoveResult.Invalid(position);
+        }
 
-            lastValidPosition = newPosition;
+        return new MoveResult.Valid.Alive(new Position(row, col), position, collectedGems, collectedExtraLives);
+    }
 
-            if (gameBoard.getCell(newPosition) instanceof StopCell) {
+    /**
+     * Computes the region locks guarding the cells a player can slide over from a position in a direction.
+     *
+     * <p>
+     * The slide cannot go past its static stop, i.e. the first wall, stop cell or border of the game board on the way.
+     * Since the kinds of the cells never change, the stop is found before locking, by the {@link SlideTable} if the
+     * slide resolver of the game board uses it, or by walking the cells otherwise.
+     * </p>
+     *
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @return The mask of the region locks to hold while resolving the move.
+     */
+    private long lockMaskOf(@NotNull final Position position, @NotNull final Direction direction) {
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var origIndex = packedBoard.indexOf(position);
+        final var stopIndex = gameBoard.getSlideResolver() == SlideResolver.SCAN
+                ? packedBoard.scanStopIndex(direction, origIndex)
+                : gameBoard.getSlideTable().getStopIndex(direction, origIndex);
+        return regionLocks.maskOf(origIndex, stopIndex);
+    }
+
+    /**
+     * Dispatches {@link GameBoardController#tryMove(Position, Direction, int)} to the slide resolver of the game board.
+     * The caller must either hold the region locks returned by
+     * {@link GameBoardController#lockMaskOf(Position, Direction)}, or validate its read of the game board by
+     * {@link GameBoardController#stampedLock}.
+     *
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the type of the move and the position of the player after
+     * moving.
+     */
+    @NotNull
+    private MoveResult resolveMove(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
+        return switch (gameBoard.getSlideResolver()) {
+            case SCAN -> tryMoveByScan(position, direction, playerID);
+            case JUMP_TABLE -> tryMoveByJumpTable(position, direction, playerID);
+            case BITBOARD -> tryMoveByBitboard(position, direction, playerID);
+        };
+    }
+
+    /**
+     * Implementation of {@link GameBoardController#tryMove(Position, Direction, int)} which walks the packed game board
+     * cell by cell.
+     *
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the type of the move and the position of the player after
+     * moving.
+     */
+    @NotNull
+    private MoveResult tryMoveByScan(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var numRows = packedBoard.getNumRows();
+        final var numCols = packedBoard.getNumCols();
+        final var dRow = direction.getRowOffset();
+        final var dCol = direction.getColOffset();
+        final var stride = dRow * numCols + dCol;
+
+        final var collectedGems = new ArrayList<Position>();
+        final var collectedExtraLives = new ArrayList<Position>();
+        final var origIndex = packedBoard.indexOf(position);
+        int row = position.row();
+        int col = position.col();
+        int index = origIndex;
+        do {
+            final var nextRow = row + dRow;
+            final var nextCol = col + dCol;
+            if (nextRow < 0 || nextRow >= numRows || nextCol < 0 || nextCol >= numCols) {
+                break;
+            }
+            final var nextIndex = index + stride;
+            final var cellKind = packedBoard.getCellKind(nextIndex);
+            if (cellKind == PackedBoard.CELL_WALL) {
                 break;
             }
 
-            if (gameBoard.getCell(newPosition) instanceof EntityCell entityCell) {
-                if (entityCell.getEntity() instanceof Mine) {
-                    lock.unlock();
-                    return new MoveResult.Valid.Dead(position, newPosition);
-                }
+            // in multiplayer mode, we consider other players as a wall.
+            final var entityKind = packedBoard.getEntityKind(nextIndex);
+            if (entityKind == PackedBoard.ENTITY_PLAYER && isOtherPlayerAt(nextIndex, playerID)) {
+                break;
+            }
 
-                if (entityCell.getEntity() instanceof Gem) {
-                    collectedGems.add(newPosition);
-                } else if (entityCell.getEntity() instanceof ExtraLife) {
-                    collectedExtraLives.add(newPosition);
-                }
+            row = nextRow;
+            col = nextCol;
+            index = nextIndex;
+
+            if (cellKind == PackedBoard.CELL_STOP) {
+                break;
+            }
+
+            if (entityKind == PackedBoard.ENTITY_MINE) {
+                return new MoveResult.Valid.Dead(position, new Position(row, col));
+            }
+
+            if (entityKind == PackedBoard.ENTITY_GEM) {
+                collectedGems.add(new Position(row, col));
+            } else if (entityKind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                collectedExtraLives.add(new Position(row, col));
             }
         } while (true);
 
-        lock.unlock();
-        if (lastValidPosition.equals(position)) {
+        if (index == origIndex) {
             return new MoveResult.Invalid(position);
         }
 
-        return new MoveResult.Valid.Alive(lastValidPosition, position, collectedGems, collectedExtraLives);
+        return new MoveResult.Valid.Alive(new Position(row, col), position, collectedGems, collectedExtraLives);
     }
 
     /**
-     * Offsets the {@link Position} in the specified {@link Direction} by one step.
+     * Implementation of {@link GameBoardController#tryMove(Position, Direction, int)} which looks up the static stop of
+     * the slide in the {@link SlideTable} of the game board, and only checks the entities on the way.
      *
-     * @param position  The original position.
-     * @param direction The direction to offset.
-     * @return The given position offset by one in the specified direction. If the new position is outside of the game
-     * board, or contains a non-{@link EntityCell}, returns {@code null}.
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the type of the move and the position of the player after
+     * moving.
      */
-    @Nullable
-    private Position offsetPosition(
-            @NotNull final Position position,
-            @NotNull final Direction direction
-    ) {
-        Objects.requireNonNull(position);
-        Objects.requireNonNull(direction);
+    @NotNull
+    private MoveResult tryMoveByJumpTable(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var stride = direction.getRowOffset() * packedBoard.getNumCols() + direction.getColOffset();
 
-        final var newPos = position.offsetByOrNull(direction.getOffset(), gameBoard.getNumRows(), gameBoard.getNumCols());
+        final var origIndex = packedBoard.indexOf(position);
+        final var stopIndex = gameBoard.getSlideTable().getStopIndex(direction, origIndex);
 
-        if (newPos == null) {
-            return null;
+        final var collectedGems = new ArrayList<Position>();
+        final var collectedExtraLives = new ArrayList<Position>();
+        int index = origIndex;
+        while (index != stopIndex) {
+            final var nextIndex = index + stride;
+
+            // in multiplayer mode, we consider other players as a wall.
+            final var entityKind = packedBoard.getEntityKind(nextIndex);
+            if (entityKind == PackedBoard.ENTITY_PLAYER && isOtherPlayerAt(nextIndex, playerID)) {
+                break;
+            }
+
+            index = nextIndex;
+
+            if (entityKind == PackedBoard.ENTITY_MINE) {
+                return new MoveResult.Valid.Dead(position, packedBoard.positionOf(index));
+            }
+
+            if (entityKind == PackedBoard.ENTITY_GEM) {
+                collectedGems.add(packedBoard.positionOf(index));
+            } else if (entityKind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                collectedExtraLives.add(packedBoard.positionOf(index));
+            }
         }
-        if (!(gameBoard.getCell(newPos) instanceof EntityCell)) {
-            return null;
+
+        if (index == origIndex) {
+            return new MoveResult.Invalid(position);
+        }
+
+        return new MoveResult.Valid.Alive(packedBoard.positionOf(index), position, collectedGems, collectedExtraLives);
+    }
+
+    /**
+     * Implementation of {@link GameBoardController#tryMove(Position, Direction, int)} which looks up the static stop of
+     * the slide in the {@link SlideTable} of the game board, and searches the {@link Bitboards} of the game board for
+     * the entities on the way.
+     *
+     * @param position  The original position of the player.
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player.
+     * @return An instance of {@link MoveResult} representing the type of the move and the position of the player after
+     * moving.
+     */
+    @NotNull
+    private MoveResult tryMoveByBitboard(@NotNull final Position position, @NotNull final Direction direction, int playerID) {
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var bitboards = Objects.requireNonNull(packedBoard.getBitboards());
+        final var stride = direction.getRowOffset() * packedBoard.getNumCols() + direction.getColOffset();
+
+        final var origIndex = packedBoard.indexOf(position);
+        var stopIndex = gameBoard.getSlideTable().getStopIndex(direction, origIndex);
+
+        // in multiplayer mode, we consider other players as a wall.
+        var playerIndex = bitboards.findFirst(PackedBoard.ENTITY_PLAYER, direction, origIndex, stopIndex);
+        while (playerIndex != -1 && !isOtherPlayerAt(playerIndex, playerID)) {
+            playerIndex = bitboards.findFirst(PackedBoard.ENTITY_PLAYER, direction, playerIndex, stopIndex);
+        }
+        if (playerIndex != -1) {
+            stopIndex = playerIndex - stride;
+        }
+
+        if (stopIndex == origIndex) {
+            return new MoveResult.Invalid(position);
+        }
+
+        final var mineIndex = bitboards.findFirst(PackedBoard.ENTITY_MINE, direction, origIndex, stopIndex);
+        if (mineIndex != -1) {
+            return new MoveResult.Valid.Dead(position, packedBoard.positionOf(mineIndex));
         }
 
-        return newPos;
+        final var collectedGems = new ArrayList<Position>();
+        var gemIndex = bitboards.findFirst(PackedBoard.ENTITY_GEM, direction, origIndex, stopIndex);
+        while (gemIndex != -1) {
+            collectedGems.add(packedBoard.positionOf(gemIndex));
+            gemIndex = bitboards.findFirst(PackedBoard.ENTITY_GEM, direction, gemIndex, stopIndex);
+        }
+
+        final var collectedExtraLives = new ArrayList<Position>();
+        var extraLifeIndex = bitboards.findFirst(PackedBoard.ENTITY_EXTRA_LIFE, direction, origIndex, stopIndex);
+        while (extraLifeIndex != -1) {
+            collectedExtraLives.add(packedBoard.positionOf(extraLifeIndex));
+            extraLifeIndex = bitboards.findFirst(PackedBoard.ENTITY_EXTRA_LIFE, direction, extraLifeIndex, stopIndex);
+        }
+
+        return new MoveResult.Valid.Alive(packedBoard.positionOf(stopIndex), position, collectedGems, collectedExtraLives);
+    }
+
+    /**
+     * @param index    The row-major index of a cell occupied by a player.
+     * @param playerID The id of the moving player.
+     * @return {@code true} if the cell is occupied by a player other than the moving player.
+     */
+    private boolean isOtherPlayerAt(final int index, final int playerID) {
+        final var otherPlayer = gameBoard.getPlayerAt(index);
+        return otherPlayer != null && otherPlayer.getId() != playerID;
     }
 }
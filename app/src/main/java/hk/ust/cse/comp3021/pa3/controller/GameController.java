@@ -4,25 +4,44 @@ import hk.ust.cse.comp3021.pa3.model.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Controller for {@link hk.ust.cse.comp3021.pa3.InertiaFxGame}.
  *
  * <p>
- * All game state mutations should be performed by this class.
+ * All game state mutations should be performed by this class. Moves can either be processed on the calling thread, or
+ * submitted to a {@link MoveEventLoop} which processes them on a single writer thread.
  * </p>
  */
 public class GameController {
 
     /**
-     * The mapping from {@link Player#getId()} of the player to his game state.
+     * The game states of all players, in ascending order of {@link Player#getId()}.
      */
     @NotNull
-    private final Map<Integer, GameState> gameStates;
+    private final GameState[] gameStates;
+
+    /**
+     * The game state of each player, indexed by {@link Player#getId()}, or {@code null} for the ids of players which
+     * are not controlled by this instance.
+     */
+    @NotNull
+    private final GameState[] gameStatesById;
+
+    /**
+     * The journal to append the processed moves to, if any.
+     */
+    @Nullable
+    private volatile MoveJournal journal = null;
+
+    /**
+     * The standings of the players, updated after each change to their game states.
+     */
+    @NotNull
+    private final Scoreboard scoreboard;
 
     /**
      * Gets the current {@link GameState} controlled by the controller if the game is single player mode.
@@ -31,11 +50,10 @@ public class GameController {
      * @throws IllegalArgumentException if there are more than one player.
      */
     public @NotNull GameState getGameState() {
-        if (gameStates.size() > 1) {
+        if (gameStates.length > 1) {
             throw new IllegalArgumentException();
         }
-        var iter = gameStates.values().iterator();
-        return iter.next();
+        return gameStates[0];
     }
 
     /**
@@ -45,7 +63,10 @@ public class GameController {
      * @return the game state instance.
      */
     public @NotNull GameState getGameState(int playerID) {
-        var s = gameStates.get(playerID);
+        if (playerID < 0 || playerID >= gameStatesById.length) {
+            throw new IllegalArgumentException();
+        }
+        var s = gameStatesById[playerID];
         if (s == null) {
             throw new IllegalArgumentException();
         }
@@ -56,7 +77,7 @@ public class GameController {
      * @return all game state instances of all players as an array.
      */
     public GameState[] getGameStates() {
-        return gameStates.values().toArray(new GameState[0]);
+        return gameStates.clone();
     }
 
     /**
@@ -66,12 +87,12 @@ public class GameController {
      */
     public GameBoard getGameBoard() {
         // Although there are multiple game state instance, there is only one game board instance that is shared by all game states.
-        assert getGameStates().length > 0;
-        return getGameStates()[0].getGameBoard();
+        assert gameStates.length > 0;
+        return gameStates[0].getGameBoard();
     }
 
     public Player[] getPlayers() {
-        return gameStates.values().stream().map(GameState::getPlayer).toArray(Player[]::new);
+        return Arrays.stream(gameStates).map(GameState::getPlayer).toArray(Player[]::new);
     }
 
     /**
@@ -80,16 +101,68 @@ public class GameController {
      * Each player corresponds to a {@link GameState} instance.
      *
      * @param gameStates An array of instances of {@link GameState} to control.
-     * @throws IllegalArgumentException if the number of {@link GameState} is less than 1.
+     * @throws IllegalArgumentException if the number of {@link GameState} is less than 1, or more than one
+     *                                  {@link GameState} belongs to the same player.
      */
     public GameController(@NotNull final GameState... gameStates) {
         if (gameStates.length <= 0) {
             throw new IllegalArgumentException();
         }
-        this.gameStates = new HashMap<>();
+        this.gameStates = gameStates.clone();
+        Arrays.sort(this.gameStates, Comparator.comparingInt(s -> s.getPlayer().getId()));
+        final var maxPlayerID = this.gameStates[this.gameStates.length - 1].getPlayer().getId();
+        this.gameStatesById = new GameState[Math.max(0, maxPlayerID + 1)];
         for (var s :
-                gameStates) {
-            this.gameStates.put(s.getPlayer().getId(), s);
+                this.gameStates) {
+            final var playerID = s.getPlayer().getId();
+            if (playerID < 0) {
+                throw new IllegalArgumentException();
+            }
+            if (gameStatesById[playerID] != null) {
+                throw new IllegalArgumentException();
+            }
+            gameStatesById[playerID] = s;
+        }
+        this.scoreboard = new Scoreboard(this.gameStates);
+    }
+
+    /**
+     * @return The standings of the players, which are updated by this instance after each move.
+     */
+    @NotNull
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    /**
+     * @return The journal the processed moves are appended to, or {@code null} if the moves are not journaled.
+     */
+    @Nullable
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Starts appending the processed moves to a journal.
+     *
+     * @param journal The journal.
+     * @throws IllegalArgumentException if this instance already has a journal.
+     */
+    synchronized void attachJournal(@NotNull final MoveJournal journal) {
+        if (this.journal != null) {
+            throw new IllegalArgumentException("Controller already has a journal");
+        }
+        this.journal = Objects.requireNonNull(journal);
+    }
+
+    /**
+     * Stops appending the processed moves to a journal.
+     *
+     * @param journal The journal, which is only detached if it is the journal of this instance.
+     */
+    synchronized void detachJournal(@NotNull final MoveJournal journal) {
+        if (this.journal == journal) {
+            this.journal = null;
         }
     }
 
@@ -107,19 +180,92 @@ public class GameController {
      * Processes a Move action performed by the player.
      * DONE modify this method if you need to do thread synchronization.
      *
+     * <p>
+     * Moves of the same player are serialized on its {@link GameState}, while moves of different players only contend
+     * on the region locks of the game board. If the moves are journaled, the record of each move is appended while the
+     * region locks of the move are still held, so that the records of moves crossing overlapping regions are in the
+     * order the moves are committed. Only a move which kicks out the player is processed as a batch of one move by
+     * {@link GameController#processMoves(int[], Direction[])} instead, since kicking out a player needs exclusive
+     * access to the game board.
+     * </p>
+     *
      * @param direction The direction the player wants to move to.
      * @param playerID  ID of the player to move.
      * @return An instance of {@link MoveResult} indicating the result of the action.
      */
-    public synchronized MoveResult processMove(@NotNull final Direction direction, int playerID) {
+    public MoveResult processMove(@NotNull final Direction direction, int playerID) {
         Objects.requireNonNull(direction);
+        final var gameState = this.getGameState(playerID);
+        synchronized (gameState) {
+            final var journal = this.journal;
+            if (journal == null) {
+                return processMove(gameState, gameState.getGameBoardController().makeMove(direction, playerID),
+                        playerID);
+            }
+
+            final var journaling = new JournalingHook(journal, gameState, direction, playerID);
+            final var result = gameState.getGameBoardController().makeMove(direction, playerID, journaling);
+            if (journaling.fatal) {
+                return processMoves(new int[]{playerID}, new Direction[]{direction})[0];
+            }
+            return processMove(gameState, result, playerID);
+        }
+    }
+
+    /**
+     * Appends a move to a journal before it is committed, unless the move would kick out the player.
+     */
+    private static final class JournalingHook implements Predicate<MoveResult> {
 
-        var result = this.getGameState(playerID).getGameBoardController().makeMove(direction, playerID);
+        @NotNull
+        private final MoveJournal journal;
+
+        @NotNull
+        private final GameState gameState;
+
+        @NotNull
+        private final Direction direction;
+
+        private final int playerID;
+
+        /**
+         * Whether the move is discarded, since the player would be kicked out by it.
+         */
+        private boolean fatal = false;
+
+        private JournalingHook(@NotNull final MoveJournal journal, @NotNull final GameState gameState,
+                               @NotNull final Direction direction, final int playerID) {
+            this.journal = journal;
+            this.gameState = gameState;
+            this.direction = direction;
+            this.playerID = playerID;
+        }
+
+        @Override
+        public boolean test(@NotNull final MoveResult result) {
+            if (result instanceof MoveResult.Valid.Dead && gameState.getNumLives() <= 1) {
+                fatal = true;
+                return false;
+            }
+            journal.append(playerID, direction, result);
+            return true;
+        }
+    }
+
+    /**
+     * Implementation of {@link GameController#processMove(Direction, int)}, called with the result of the move on the
+     * game board while holding the monitor of the game state of the player.
+     *
+     * @param gameState The game state of the player.
+     * @param result    The result of the move on the game board.
+     * @param playerID  ID of the player to move.
+     * @return An instance of {@link MoveResult} indicating the result of the action.
+     */
+    private MoveResult processMove(@NotNull final GameState gameState, @Nullable MoveResult result, int playerID) {
         if (result == null) {
             return null;
         }
 
-        var gameState = this.getGameState(playerID);
         if (result instanceof MoveResult.Valid v) {
             gameState.incrementNumMoves();
 
@@ -131,15 +277,180 @@ public class GameController {
                 gameState.incrementNumDeaths();
                 var livesLeft = gameState.decrementNumLives();
                 if (livesLeft == 0) {
-                    this.getGameState(playerID).getGameBoardController().kickOut(playerID);
+                    gameState.getGameBoardController().kickOut(playerID);
                     result = new MoveResult.Valid.KickedOut(v.origPosition);
                 }
             }
+            scoreboard.update(gameState);
         }
 
         return result;
     }
 
+    /**
+     * Processes a sequence of Move actions performed by a player as a batch.
+     *
+     * @param playerID   ID of the player to move.
+     * @param directions The directions the player wants to move to, in order.
+     * @return The result of each move, in the same order as {@code directions}. See
+     * {@link GameController#processMoves(int[], Direction[])}.
+     * @throws IllegalArgumentException if there is no player with {@code playerID}.
+     */
+    @NotNull
+    public MoveResult[] processMoves(final int playerID, @NotNull final List<Direction> directions) {
+        final var playerIDs = new int[directions.size()];
+        Arrays.fill(playerIDs, playerID);
+        return processMoves(playerIDs, directions.toArray(new Direction[0]));
+    }
+
+    /**
+     * Processes a sequence of Move actions performed by any players as a batch.
+     *
+     * <p>
+     * The moves are applied in order with the same rules as {@link GameController#processMove(Direction, int)}, but
+     * the game board is locked and snapshotted only once for the whole batch, and the counters of each
+     * {@link GameState} are updated once at the end of the batch.
+     * </p>
+     *
+     * @param playerIDs  ID of the player of each move.
+     * @param directions The direction of each move.
+     * @return The result of each move, in the same order as the moves. The result of a move is {@code null} if the
+     * player is no longer on the game board, e.g. after being kicked out by an earlier move of the batch.
+     * @throws IllegalArgumentException if the arrays have different lengths, or if there is no player with any of the
+     *                                  IDs.
+     */
+    @NotNull
+    public MoveResult[] processMoves(@NotNull final int[] playerIDs, @NotNull final Direction[] directions) {
+        if (playerIDs.length != directions.length) {
+            throw new IllegalArgumentException();
+        }
+        for (final var direction : directions) {
+            Objects.requireNonNull(direction);
+        }
+        if (directions.length == 0) {
+            return new MoveResult[0];
+        }
+
+        // Lock the game states of all players in the batch in the order of their IDs, to avoid deadlocking with
+        // concurrent batches
+        final var distinctPlayerIDs = Arrays.stream(playerIDs).distinct().sorted().toArray();
+        final var batchStates = new BatchState[distinctPlayerIDs.length];
+        for (int i = 0; i < distinctPlayerIDs.length; ++i) {
+            batchStates[i] = new BatchState(getGameState(distinctPlayerIDs[i]));
+        }
+
+        return synchronizedOn(batchStates, 0, () -> {
+            final var boardController = batchStates[0].gameState.getGameBoardController();
+            final var journal = this.journal;
+            final var results = boardController.runExclusively(() -> {
+                final var batchResults = new MoveResult[directions.length];
+                for (int i = 0; i < directions.length; ++i) {
+                    final var batchState = batchStates[Arrays.binarySearch(distinctPlayerIDs, playerIDs[i])];
+                    batchResults[i] = batchState.applyMove(boardController, directions[i], playerIDs[i]);
+                    if (journal != null) {
+                        journal.append(playerIDs[i], directions[i], batchResults[i]);
+                    }
+                }
+                return batchResults;
+            });
+            for (final var batchState : batchStates) {
+                batchState.commit();
+                scoreboard.update(batchState.gameState);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Runs an action while holding the monitors of the game states of a batch.
+     *
+     * @param batchStates The game states of the batch, in the order to lock them.
+     * @param from        The index of the first game state to lock.
+     * @param action      The action to run.
+     * @return The result of the action.
+     */
+    private static MoveResult[] synchronizedOn(@NotNull final BatchState[] batchStates, final int from,
+                                               @NotNull final Supplier<MoveResult[]> action) {
+        if (from == batchStates.length) {
+            return action.get();
+        }
+        synchronized (batchStates[from].gameState) {
+            return synchronizedOn(batchStates, from + 1, action);
+        }
+    }
+
+    /**
+     * The changes to the counters of a {@link GameState} accumulated during a batch of moves.
+     */
+    private static final class BatchState {
+
+        @NotNull
+        private final GameState gameState;
+
+        /**
+         * The number of lives of the player, including the changes of the batch.
+         */
+        private int numLives;
+
+        private int numMoves = 0;
+        private int numGotGems = 0;
+        private int numExtraLives = 0;
+        private int numDeaths = 0;
+
+        private BatchState(@NotNull final GameState gameState) {
+            this.gameState = gameState;
+            this.numLives = gameState.getNumLives();
+        }
+
+        /**
+         * Applies a move of the player, with the same rules as {@link GameController#processMove(Direction, int)}.
+         *
+         * @param boardController The controller of the game board.
+         * @param direction       The direction the player wants to move to.
+         * @param playerID        ID of the player to move.
+         * @return The result of the move.
+         */
+        @Nullable
+        private MoveResult applyMove(@NotNull final GameBoardController boardController,
+                                     @NotNull final Direction direction, final int playerID) {
+            final var result = boardController.applyMove(direction, playerID);
+            if (!(result instanceof MoveResult.Valid v)) {
+                return result;
+            }
+
+            ++numMoves;
+            if (v instanceof MoveResult.Valid.Alive va) {
+                numExtraLives += va.collectedExtraLives.size();
+                numGotGems += va.collectedGems.size();
+                if (!gameState.hasUnlimitedLives()) {
+                    numLives += va.collectedExtraLives.size();
+                }
+                gameState.getMoveStack().push(va);
+            } else if (v instanceof MoveResult.Valid.Dead) {
+                ++numDeaths;
+                if (!gameState.hasUnlimitedLives()) {
+                    --numLives;
+                }
+                if (numLives == 0) {
+                    boardController.applyKickOut(playerID);
+                    return new MoveResult.Valid.KickedOut(v.origPosition);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Applies the accumulated changes to the game state.
+         */
+        private void commit() {
+            gameState.increaseNumMoves(numMoves);
+            gameState.increaseNumGotGems(numGotGems);
+            gameState.increaseNumLives(numExtraLives);
+            gameState.increaseNumDeaths(numDeaths);
+            gameState.decreaseNumLives(numDeaths);
+        }
+    }
+
     /**
      * Processes an Undo action performed by the player.
      * Undo is only allowed in single player mode.
@@ -148,7 +459,7 @@ public class GameController {
      * @throws IllegalCallerException when the there are more than one player.
      */
     public boolean processUndo() {
-        if (gameStates.size() > 1) {
+        if (gameStates.length > 1) {
             throw new IllegalCallerException();
         }
 
@@ -165,6 +476,12 @@ public class GameController {
         this.getGameState().decreaseNumLives(aliveState.collectedExtraLives.size());
 
         this.getGameState().getGameBoardController().undoMove(aliveState);
+        scoreboard.update(this.getGameState());
+
+        final var journal = this.journal;
+        if (journal != null) {
+            journal.appendUndo(this.getGameState().getPlayer().getId());
+        }
         return true;
     }
 
@@ -172,31 +489,15 @@ public class GameController {
      * DONE Get winners of the game.
      * You can find the winning conditions from README.
      *
+     * <p>
+     * The winners are found from {@link GameController#getScoreboard()} in constant time, instead of computing the score
+     * of every player.
+     * </p>
+     *
      * @return null if the game has not finished yet; otherwise empty array if there is no winners, or non-empty array if there are winners.
      */
     @Nullable
     public Player[] getWinners() {
-        int maxScore = -Integer.MAX_VALUE;
-        for (var gameState : getGameStates()) {
-            if (gameState.hasLost()) continue;
-            if (!gameState.noGemsLeft()) {
-                return null;
-            } else {
-                if (maxScore < gameState.getScore()) {
-                    maxScore = gameState.getScore();
-                }
-            }
-        }
-        if (maxScore == -Integer.MAX_VALUE) {
-            return (new ArrayList<Player>()).toArray(new Player[0]);
-        } else {
-            ArrayList<Player> winners = new ArrayList<>();
-            for (var gameState : getGameStates()) {
-                if (!gameState.hasLost() && gameState.getScore() == maxScore) {
-                    winners.add(gameState.getPlayer());
-                }
-            }
-            return winners.toArray(new Player[0]);
-        }
+        return scoreboard.getWinners();
     }
 }
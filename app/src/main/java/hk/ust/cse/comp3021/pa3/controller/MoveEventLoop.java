@@ -0,0 +1,225 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-writer execution mode for {@link GameController}.
+ *
+ * <p>
+ * Moves are submitted from any number of threads to a lock-free queue, and a single writer thread owned by this
+ * instance drains the queue and applies the moves by {@link GameController#processMove(Direction, int)} in the order
+ * they are submitted. Since the writer thread is the only thread applying moves, the locks taken by the controller are
+ * never contended or handed off between threads, and submitting threads never block on each other.
+ * </p>
+ * <p>
+ * While an instance is running, all moves of the game should be submitted through it, so that the game is only mutated
+ * by the writer thread.
+ * </p>
+ */
+public final class MoveEventLoop implements AutoCloseable {
+
+    /**
+     * The number of instances created, used to name their writer threads.
+     */
+    private static final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * A move submitted to the event loop.
+     *
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player to move.
+     * @param result    The future to complete with the result of the move.
+     */
+    private record MoveCommand(@NotNull Direction direction, int playerID, @NotNull CompletableFuture<MoveResult> result) {
+    }
+
+    @NotNull
+    private final GameController controller;
+
+    /**
+     * Moves which are submitted and not yet applied.
+     */
+    @NotNull
+    private final Queue<MoveCommand> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The writer thread.
+     */
+    @NotNull
+    private final Thread writer;
+
+    /**
+     * Whether the writer thread is about to park or is parked, i.e. needs to be unparked when a move is submitted.
+     */
+    private volatile boolean waiting = false;
+
+    /**
+     * Whether this instance no longer accepts moves.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates an instance and starts its writer thread.
+     *
+     * @param controller The controller to apply the moves with.
+     */
+    public MoveEventLoop(@NotNull final GameController controller) {
+        this.controller = Objects.requireNonNull(controller);
+        this.writer = new Thread(this::run, "move-event-loop-" + count.getAndIncrement());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Submits a move to be applied by the writer thread.
+     *
+     * @param direction The direction to move the player in.
+     * @param playerID  The id of the player to move.
+     * @return A future completed with the result of {@link GameController#processMove(Direction, int)} once the move is
+     * applied, or completed exceptionally with the exception thrown by it, or with a
+     * {@link RejectedExecutionException} if the writer thread stops before applying the move.
+     * @throws RejectedExecutionException if this instance is closed.
+     */
+    @NotNull
+    public CompletableFuture<MoveResult> submit(@NotNull final Direction direction, final int playerID) {
+        Objects.requireNonNull(direction);
+        if (closed) {
+            throw new RejectedExecutionException();
+        }
+
+        final var command = new MoveCommand(direction, playerID, new CompletableFuture<>());
+        queue.offer(command);
+        if (closed && queue.remove(command)) {
+            // The writer thread may have exited before the command is queued
+            throw new RejectedExecutionException();
+        }
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+        return command.result;
+    }
+
+    /**
+     * @return The number of moves which are submitted and not yet applied.
+     */
+    public int getNumPendingMoves() {
+        return queue.size();
+    }
+
+    /**
+     * @return Whether the current thread is the writer thread of this instance.
+     */
+    public boolean isWriterThread() {
+        return Thread.currentThread() == writer;
+    }
+
+    /**
+     * Stops accepting moves, and waits for the writer thread to apply all moves already submitted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        if (isWriterThread()) {
+            return;
+        }
+
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The body of the writer thread.
+     *
+     * <p>
+     * If the writer thread stops because a move throws a {@link VirtualMachineError}, this instance is closed, and the
+     * futures of the moves still queued are completed exceptionally, so that no submitting thread waits for them forever.
+     * </p>
+     */
+    private void run() {
+        Throwable failure = null;
+        try {
+            loop();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            closed = true;
+            MoveCommand command;
+            while ((command = queue.poll()) != null) {
+                command.result.completeExceptionally(new RejectedExecutionException("The writer thread has stopped",
+                        failure));
+            }
+        }
+    }
+
+    /**
+     * The loop of the writer thread.
+     */
+    private void loop() {
+        while (true) {
+            final var command = queue.poll();
+            if (command != null) {
+                apply(command);
+                continue;
+            }
+            if (closed) {
+                break;
+            }
+
+            // Publish the intention to park before checking the queue again, so that no submission is missed
+            waiting = true;
+            if (queue.isEmpty() && !closed) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+
+        // Apply the moves queued while closing
+        MoveCommand command;
+        while ((command = queue.poll()) != null) {
+            apply(command);
+        }
+    }
+
+    /**
+     * Applies a move and completes its future.
+     *
+     * <p>
+     * Anything thrown by the move, including an {@link Error}, fails the future of the move, and the writer thread keeps
+     * applying the moves submitted after it, except that a {@link VirtualMachineError} is rethrown to stop the writer
+     * thread, since the JVM may no longer be able to continue.
+     * </p>
+     *
+     * @param command The move to apply.
+     */
+    private void apply(@NotNull final MoveCommand command) {
+        try {
+            command.result.complete(controller.processMove(command.direction, command.playerID));
+        } catch (Throwable e) {
+            command.result.completeExceptionally(e);
+            if (e instanceof VirtualMachineError) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.Direction;
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Position;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary journal of the moves processed by a {@link GameController}.
+ *
+ * <p>
+ * Once attached to a controller by {@link MoveJournal#create(Path, GameController, long)}, every move which changes
+ * the game, i.e. every {@link MoveResult.Valid} result of {@link GameController#processMove(Direction, int)} or
+ * {@link GameController#processMoves(int[], Direction[])}, and every undo by {@link GameController#processUndo()}, is
+ * appended to the journal. The game can then be rebuilt from its initial game board by
+ * {@link MoveJournal#recover(Path, GameController, long)}, without rewriting the whole game board after every move.
+ * </p>
+ * <p>
+ * The journal starts with a header of {@link MoveJournal#HEADER_SIZE} bytes, holding a magic number and the size of the
+ * game board. Each record is framed by a varint of the length of its payload before it, and the CRC32 of its payload
+ * after it. The payload is a tag byte, holding the kind of the record and the direction of the move, followed by
+ * varints of the player id and, for {@link MoveResult.Valid.Alive} moves, of the number and the row-major indices of
+ * the collected gems and extra lives. The length of a payload is never {@code 0}, so the zero-filled tail of the file
+ * marks the end of the journal.
+ * </p>
+ * <p>
+ * Records are written to a memory-mapped region of the file, so appending a record never enters the kernel. Written
+ * regions are forced to the storage device as a group every {@code syncIntervalMillis} milliseconds by a single
+ * daemon thread shared by all journals, or by {@link MoveJournal#sync()}. Records which are not forced yet survive a
+ * crash of the JVM, but not of the operating system; A record torn by the latter fails its checksum, and is discarded on
+ * recovery along with the records after it.
+ * </p>
+ * <p>
+ * Records are appended by the controller while the region locks of the move are held, or while the game board is
+ * locked exclusively, so that the records of moves crossing overlapping regions of the game board are in the order in
+ * which the moves are committed, even if the moves of different players are processed concurrently. Moves crossing
+ * disjoint regions commute, so replaying their records in any order rebuilds the same game. The journal should be
+ * attached before any move of the game is processed.
+ * </p>
+ */
+public final class MoveJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x494E4A31;
+
+    private static final int VERSION = 2;
+
+    /**
+     * The number of bytes of the header of a journal.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * The number of bytes of the file mapped at once.
+     */
+    static final int REGION_SIZE = 1 << 20;
+
+    /**
+     * The maximum number of bytes of a varint of an {@code int}.
+     */
+    private static final int MAX_VARINT_SIZE = 5;
+
+    /**
+     * The number of bytes of the checksum of a record.
+     */
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+
+    // Kinds of records, stored in the tag byte along with the ordinal of the direction of the move
+    private static final int KIND_ALIVE = 0;
+    private static final int KIND_DEAD = 1;
+    private static final int KIND_KICKED_OUT = 2;
+    private static final int KIND_UNDO = 3;
+    private static final int NUM_KINDS = 4;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The thread forcing the regions written by all journals.
+     */
+    private static final ScheduledExecutorService syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "move-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @NotNull
+    private final GameController controller;
+
+    @NotNull
+    private final FileChannel channel;
+
+    /**
+     * The number of columns of the game board, used to compute the row-major index of a position.
+     */
+    private final int numCols;
+
+    /**
+     * The region of the file being written.
+     */
+    @NotNull
+    private MappedByteBuffer region;
+
+    /**
+     * The offset of the file at which {@link MoveJournal#region} starts.
+     */
+    private long regionStart;
+
+    /**
+     * The offset in {@link MoveJournal#region} up to which the region has been forced.
+     */
+    private int syncedOffset;
+
+    /**
+     * The regions which are completely written but not forced yet.
+     */
+    @NotNull
+    private final List<MappedByteBuffer> retiredRegions = new ArrayList<>();
+
+    /**
+     * The payload of the record being appended, which is written to {@link MoveJournal#region} once its length and
+     * checksum are known.
+     */
+    @NotNull
+    private ByteBuffer payload = ByteBuffer.allocate(64);
+
+    @NotNull
+    private final CRC32 checksum = new CRC32();
+
+    private long numRecords;
+
+    private boolean closed = false;
+
+    /**
+     * The task forcing the written regions periodically, or {@code null} if they are only forced by
+     * {@link MoveJournal#sync()}.
+     */
+    @Nullable
+    private final ScheduledFuture<?> syncTask;
+
+    /**
+     * Creates an instance writing from {@code offset} of the file, and attaches it to {@code controller}.
+     *
+     * @param controller         The controller whose moves are journaled.
+     * @param channel            The channel of the file.
+     * @param offset             The offset of the file to write the next record at.
+     * @param numRecords         The number of records already in the file.
+     * @param syncIntervalMillis The interval to force the written regions, or a non-positive value to only force them
+     *                           by {@link MoveJournal#sync()}.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if {@code controller} already has a journal.
+     */
+    private MoveJournal(@NotNull final GameController controller, @NotNull final FileChannel channel, final long offset,
+                        final long numRecords, final long syncIntervalMillis) throws IOException {
+        this.controller = controller;
+        this.channel = channel;
+        this.numCols = controller.getGameBoard().getNumCols();
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, offset, REGION_SIZE);
+        this.regionStart = offset;
+        this.numRecords = numRecords;
+        controller.attachJournal(this);
+        this.syncTask = syncIntervalMillis > 0
+                ? syncScheduler.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis,
+                TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * Creates a new journal, replacing the file if it exists, and attaches it to {@code controller}.
+     *
+     * @param file               The file of the journal.
+     * @param controller         The controller of a new game, whose moves are journaled.
+     * @param syncIntervalMillis The interval to force the written records to the storage device, or a non-positive
+     *                           value to only force them by {@link MoveJournal#sync()}.
+     * @return The created journal.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if {@code controller} already has a journal.
+     */
+    @NotNull
+    public static MoveJournal create(@NotNull final Path file, @NotNull final GameController controller,
+                                     final long syncIntervalMillis) throws IOException {
+        Objects.requireNonNull(controller);
+        final var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final var gameBoard = controller.getGameBoard();
+            final var header = new DataOutputStream(Channels.newOutputStream(channel));
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(gameBoard.getNumRows());
+            header.writeInt(gameBoard.getNumCols());
+            header.flush();
+            channel.force(true);
+
+            return new MoveJournal(controller, channel, HEADER_SIZE, 0, syncIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuilds a game by replaying the moves of a journal, and attaches the journal to {@code controller} to append
+     * further moves.
+     *
+     * <p>
+     * Replaying stops at the end of the journal, or at the first incomplete or corrupted record, which is discarded
+     * along with the records after it.
+     * </p>
+     *
+     * @param file               The file of the journal.
+     * @param controller         The controller of the game in its initial state, e.g. loaded from the same game file
+     *                           as the journaled game.
+     * @param syncIntervalMillis The interval to force the written records to the storage device, or a non-positive
+     *                           value to only force them by {@link MoveJournal#sync()}.
+     * @return The journal.
+     * @throws IOException              if the file cannot be read or written.
+     * @throws IllegalArgumentException if the journal is not written for a game board of the same size, or
+     *                                  {@code controller} already has a journal.
+     * @throws IllegalStateException    if the result of a replayed move is different from the journaled result.
+     */
+    @NotNull
+    public static MoveJournal recover(@NotNull final Path file, @NotNull final GameController controller,
+                                      final long syncIntervalMillis) throws IOException {
+        if (controller.getJournal() != null) {
+            throw new IllegalArgumentException("Controller already has a journal");
+        }
+
+        final var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final var replay = new Replay(controller, new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), 1 << 16)));
+            replay.run();
+
+            // Discard the incomplete record, if any, so that it is not mistaken as a part of the following records
+            channel.truncate(replay.offset);
+            return new MoveJournal(controller, channel, replay.offset, replay.numRecords, syncIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a move processed by the controller, if it changes the game.
+     *
+     * @param playerID  ID of the player moved.
+     * @param direction The direction of the move.
+     * @param result    The result of the move.
+     */
+    void append(final int playerID, @NotNull final Direction direction, @Nullable final MoveResult result) {
+        final int kind;
+        if (result instanceof MoveResult.Valid.Alive) {
+            kind = KIND_ALIVE;
+        } else if (result instanceof MoveResult.Valid.KickedOut) {
+            kind = KIND_KICKED_OUT;
+        } else if (result instanceof MoveResult.Valid.Dead) {
+            kind = KIND_DEAD;
+        } else {
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (kind == KIND_ALIVE) {
+                final var alive = (MoveResult.Valid.Alive) result;
+                final var numCells = alive.collectedGems.size() + alive.collectedExtraLives.size();
+                beginPayload(1 + MAX_VARINT_SIZE * (3 + numCells));
+                putTag(kind, direction, playerID);
+                putPositions(alive.collectedGems);
+                putPositions(alive.collectedExtraLives);
+            } else {
+                beginPayload(1 + MAX_VARINT_SIZE);
+                putTag(kind, direction, playerID);
+            }
+            writeRecord();
+        }
+    }
+
+    /**
+     * Appends an undo processed by the controller.
+     *
+     * @param playerID ID of the player whose move is undone.
+     */
+    synchronized void appendUndo(final int playerID) {
+        if (closed) {
+            return;
+        }
+        beginPayload(1 + MAX_VARINT_SIZE);
+        putTag(KIND_UNDO, DIRECTIONS[0], playerID);
+        writeRecord();
+    }
+
+    /**
+     * @return The number of records in this journal.
+     */
+    public synchronized long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Forces all records appended so far to the storage device.
+     *
+     * @throws UncheckedIOException if the records cannot be forced.
+     */
+    public void sync() {
+        final List<MappedByteBuffer> retired;
+        final MappedByteBuffer current;
+        final int from;
+        final int to;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            retired = retiredRegions.isEmpty() ? List.of() : List.copyOf(retiredRegions);
+            retiredRegions.clear();
+            current = region;
+            from = syncedOffset;
+            to = region.position();
+            syncedOffset = to;
+        }
+
+        for (final var retiredRegion : retired) {
+            retiredRegion.force();
+        }
+        if (to > from) {
+            current.force(from, to - from);
+        }
+        if (!retired.isEmpty()) {
+            // The file has grown since the last sync
+            try {
+                channel.force(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Forces all records to the storage device, detaches this journal from its controller and closes the file.
+     *
+     * @throws IOException if the records cannot be forced, or a periodic sync has failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        controller.detachJournal(this);
+        try {
+            sync();
+            if (syncTask != null && syncTask.isDone() && !syncTask.isCancelled()) {
+                syncTask.get();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                closed = true;
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps the next region of the file if the current region has less than {@code size} bytes remaining.
+     *
+     * @param size The maximum number of bytes of the next record.
+     */
+    private void ensureCapacity(final int size) {
+        if (region.remaining() >= size) {
+            return;
+        }
+
+        // Regions are retired at the end of their last record, so records never span two regions
+        final var offset = regionStart + region.position();
+        try {
+            final var nextRegion = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.max(REGION_SIZE, size));
+            retiredRegions.add(region);
+            region = nextRegion;
+            regionStart = offset;
+            syncedOffset = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Clears {@link MoveJournal#payload} to encode the payload of the next record.
+     *
+     * @param size The maximum number of bytes of the payload.
+     */
+    private void beginPayload(final int size) {
+        if (payload.capacity() < size) {
+            payload = ByteBuffer.allocate(Math.max(size, payload.capacity() * 2));
+        }
+        payload.clear();
+    }
+
+    /**
+     * Writes the payload encoded in {@link MoveJournal#payload} to the journal as a framed record.
+     */
+    private void writeRecord() {
+        payload.flip();
+        checksum.reset();
+        checksum.update(payload.array(), 0, payload.limit());
+
+        ensureCapacity(MAX_VARINT_SIZE + payload.limit() + CHECKSUM_SIZE);
+        putVarint(region, payload.limit());
+        region.put(payload);
+        region.putInt((int) checksum.getValue());
+        ++numRecords;
+    }
+
+    private void putTag(final int kind, @NotNull final Direction direction, final int playerID) {
+        payload.put((byte) (1 + kind * DIRECTIONS.length + direction.ordinal()));
+        putVarint(payload, (playerID << 1) ^ (playerID >> 31));
+    }
+
+    private void putPositions(@NotNull final List<Position> positions) {
+        putVarint(payload, positions.size());
+        for (final var position : positions) {
+            putVarint(payload, position.row() * numCols + position.col());
+        }
+    }
+
+    private static void putVarint(@NotNull final ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Replays the records of a journal on a controller.
+     */
+    private static final class Replay {
+
+        @NotNull
+        private final GameController controller;
+
+        @NotNull
+        private final DataInputStream input;
+
+        /**
+         * The offset of the file of the end of the last complete record.
+         */
+        private long offset = HEADER_SIZE;
+
+        private long numRecords = 0;
+
+        @NotNull
+        private final CRC32 checksum = new CRC32();
+
+        private Replay(@NotNull final GameController controller, @NotNull final DataInputStream input) {
+            this.controller = controller;
+            this.input = input;
+        }
+
+        /**
+         * Reads the header, and replays all complete records.
+         *
+         * @throws IOException if the file cannot be read.
+         */
+        private void run() throws IOException {
+            final var gameBoard = controller.getGameBoard();
+            try {
+                if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                    throw new IllegalArgumentException("Not a move journal");
+                }
+                if (input.readInt() != gameBoard.getNumRows() || input.readInt() != gameBoard.getNumCols()) {
+                    throw new IllegalArgumentException("Journal of a game board of different size");
+                }
+            } catch (EOFException e) {
+                throw new IllegalArgumentException("Not a move journal", e);
+            }
+
+            while (true) {
+                final var record = readRecord(gameBoard);
+                if (record == null) {
+                    return;
+                }
+                record.replay(controller, numRecords);
+                offset += record.size;
+                ++numRecords;
+            }
+        }
+
+        /**
+         * @param gameBoard The game board of the controller.
+         * @return The next record, or {@code null} if the end of the journal, or an incomplete or corrupted record is
+         * reached.
+         * @throws IOException if the file cannot be read.
+         */
+        @Nullable
+        private Record readRecord(@NotNull final GameBoard gameBoard) throws IOException {
+            final var maxPayloadSize = 1 + MAX_VARINT_SIZE * (3L + (long) gameBoard.getNumRows() * gameBoard.getNumCols());
+            final byte[] payload;
+            final var size = new int[]{0};
+            try {
+                final var length = readVarint(input, size);
+                if (length <= 0 || length > maxPayloadSize) {
+                    return null;
+                }
+                payload = new byte[length];
+                input.readFully(payload);
+                final var expectedChecksum = input.readInt();
+                checksum.reset();
+                checksum.update(payload);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    return null;
+                }
+            } catch (EOFException | IllegalArgumentException e) {
+                return null;
+            }
+
+            final var payloadInput = new DataInputStream(new ByteArrayInputStream(payload));
+            try {
+                final var tag = payloadInput.readUnsignedByte();
+                if (tag <= 0 || tag > NUM_KINDS * DIRECTIONS.length) {
+                    return null;
+                }
+                final var kind = (tag - 1) / DIRECTIONS.length;
+                final var direction = DIRECTIONS[(tag - 1) % DIRECTIONS.length];
+                final var encodedID = readVarint(payloadInput, null);
+                final var playerID = (encodedID >>> 1) ^ -(encodedID & 1);
+
+                List<Position> collectedGems = List.of();
+                List<Position> collectedExtraLives = List.of();
+                if (kind == KIND_ALIVE) {
+                    collectedGems = readPositions(payloadInput, gameBoard);
+                    collectedExtraLives = readPositions(payloadInput, gameBoard);
+                }
+                final var recordSize = size[0] + payload.length + CHECKSUM_SIZE;
+                return new Record(kind, direction, playerID, collectedGems, collectedExtraLives, recordSize);
+            } catch (EOFException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @NotNull
+        private static List<Position> readPositions(@NotNull final DataInput input,
+                                                    @NotNull final GameBoard gameBoard) throws IOException {
+            final var numPositions = readVarint(input, null);
+            if (numPositions < 0 || numPositions > gameBoard.getNumRows() * gameBoard.getNumCols()) {
+                throw new IllegalArgumentException();
+            }
+            final var positions = new ArrayList<Position>(numPositions);
+            for (int i = 0; i < numPositions; ++i) {
+                final var index = readVarint(input, null);
+                positions.add(new Position(index / gameBoard.getNumCols(), index % gameBoard.getNumCols()));
+            }
+            return positions;
+        }
+
+        /**
+         * @param input The input to read from.
+         * @param size  The counter of the bytes read, which is incremented by the size of the varint, or {@code null}.
+         * @return The value of the varint.
+         * @throws IOException if the input cannot be read.
+         */
+        private static int readVarint(@NotNull final DataInput input, @Nullable final int[] size) throws IOException {
+            var value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final var b = input.readUnsignedByte();
+                if (size != null) {
+                    ++size[0];
+                }
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+
+    /**
+     * A record of a journal.
+     *
+     * @param kind                The kind of the record.
+     * @param direction           The direction of the move.
+     * @param playerID            ID of the player.
+     * @param collectedGems       The gems collected by the move, if the player is alive after the move.
+     * @param collectedExtraLives The extra lives collected by the move, if the player is alive after the move.
+     * @param size                The number of bytes of the record.
+     */
+    private record Record(int kind, @NotNull Direction direction, int playerID, @NotNull List<Position> collectedGems,
+                          @NotNull List<Position> collectedExtraLives, int size) {
+
+        /**
+         * Applies this record to a controller.
+         *
+         * @param controller The controller.
+         * @param index      The index of this record in the journal.
+         * @throws IllegalStateException if the result is different from this record.
+         */
+        private void replay(@NotNull final GameController controller, final long index) {
+            if (kind == KIND_UNDO) {
+                if (!controller.processUndo()) {
+                    throw new IllegalStateException("Journal diverges at record " + index);
+                }
+                return;
+            }
+
+            final var result = controller.processMove(direction, playerID);
+            final boolean matches;
+            if (result instanceof MoveResult.Valid.Alive alive) {
+                matches = kind == KIND_ALIVE
+                        && alive.collectedGems.equals(collectedGems)
+                        && alive.collectedExtraLives.equals(collectedExtraLives);
+            } else if (result instanceof MoveResult.Valid.KickedOut) {
+                matches = kind == KIND_KICKED_OUT;
+            } else {
+                matches = kind == KIND_DEAD && result instanceof MoveResult.Valid.Dead;
+            }
+            if (!matches) {
+                throw new IllegalStateException("Journal diverges at record " + index);
+            }
+        }
+    }
+}
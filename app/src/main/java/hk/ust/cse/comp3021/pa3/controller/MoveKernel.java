@@ -0,0 +1,243 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * An allocation-free alternative to {@link GameBoardController#tryMove(Position, Direction, int)}.
+ *
+ * <p>
+ * Cells are addressed by their row-major index in the {@link PackedBoard} of the game board, the stride of each
+ * direction is precomputed, and the static stop of each slide is looked up in the {@link SlideTable} of the game board.
+ * The outcome of the last move is kept in buffers owned by this instance, which are sized for the longest possible
+ * slide, so that no object is allocated per move once the slide table has been computed.
+ * </p>
+ * <p>
+ * Instances are not thread-safe, and the buffers are overwritten by every call to
+ * {@link MoveKernel#tryMove(int, Direction, int)}. Like {@link GameBoardController#tryMove(Position, Direction, int)},
+ * the game board must not be mutated concurrently.
+ * </p>
+ */
+public final class MoveKernel {
+
+    /**
+     * The outcome of a move.
+     */
+    public enum Outcome {
+        /**
+         * The player cannot move in the direction.
+         */
+        INVALID,
+        /**
+         * The player moves and is still alive.
+         */
+        ALIVE,
+        /**
+         * The player moves onto a mine.
+         */
+        DEAD
+    }
+
+    @NotNull
+    private final GameBoard gameBoard;
+
+    @NotNull
+    private final PackedBoard packedBoard;
+
+    /**
+     * The difference between the row-major indices of two adjacent cells along each direction, indexed by the ordinal
+     * of the direction.
+     */
+    @NotNull
+    private final int[] strides;
+
+    /**
+     * The row-major indices of the gems collected by the last move.
+     */
+    @NotNull
+    private final int[] collectedGems;
+
+    /**
+     * The row-major indices of the extra lives collected by the last move.
+     */
+    @NotNull
+    private final int[] collectedExtraLives;
+
+    private int numCollectedGems = 0;
+    private int numCollectedExtraLives = 0;
+    private int origIndex = -1;
+    private int resultIndex = -1;
+    @NotNull
+    private Outcome outcome = Outcome.INVALID;
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameBoard The game board to move the players on.
+     */
+    public MoveKernel(@NotNull final GameBoard gameBoard) {
+        this.gameBoard = Objects.requireNonNull(gameBoard);
+        this.packedBoard = gameBoard.getPackedBoard();
+
+        final var directions = Direction.values();
+        this.strides = new int[directions.length];
+        for (final var direction : directions) {
+            strides[direction.ordinal()] = direction.getRowOffset() * packedBoard.getNumCols() + direction.getColOffset();
+        }
+
+        final var maxSlideLength = Math.max(packedBoard.getNumRows(), packedBoard.getNumCols());
+        this.collectedGems = new int[maxSlideLength];
+        this.collectedExtraLives = new int[maxSlideLength];
+    }
+
+    /**
+     * Tries to move a player from a cell in the specified direction as far as possible, with the same rules as
+     * {@link GameBoardController#tryMove(Position, Direction, int)}. The game board is not modified.
+     *
+     * @param fromIndex The row-major index of the original cell of the player.
+     * @param direction The direction to move the player in.
+     * @param playerId  The id of the player.
+     * @return The outcome of the move. The details of the move are available from the getters of this instance until the
+     * next call.
+     */
+    @NotNull
+    public Outcome tryMove(final int fromIndex, @NotNull final Direction direction, final int playerId) {
+        final var stride = strides[direction.ordinal()];
+        final var stopIndex = gameBoard.getSlideTable().getStopIndex(direction, fromIndex);
+
+        origIndex = fromIndex;
+        numCollectedGems = 0;
+        numCollectedExtraLives = 0;
+
+        int index = fromIndex;
+        while (index != stopIndex) {
+            final var nextIndex = index + stride;
+
+            // in multiplayer mode, we consider other players as a wall.
+            final var entityKind = packedBoard.getEntityKind(nextIndex);
+            if (entityKind == PackedBoard.ENTITY_PLAYER && !isPlayerAt(nextIndex, playerId)) {
+                break;
+            }
+
+            index = nextIndex;
+
+            if (entityKind == PackedBoard.ENTITY_MINE) {
+                return finish(Outcome.DEAD, index);
+            }
+
+            if (entityKind == PackedBoard.ENTITY_GEM) {
+                collectedGems[numCollectedGems++] = index;
+            } else if (entityKind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                collectedExtraLives[numCollectedExtraLives++] = index;
+            }
+        }
+
+        return finish(index == fromIndex ? Outcome.INVALID : Outcome.ALIVE, index);
+    }
+
+    /**
+     * Records the outcome of the move.
+     *
+     * @param outcome     The outcome of the move.
+     * @param resultIndex The row-major index of the cell the player ends on, or the mine the player dies on.
+     * @return {@code outcome}.
+     */
+    @NotNull
+    private Outcome finish(@NotNull final Outcome outcome, final int resultIndex) {
+        this.outcome = outcome;
+        this.resultIndex = resultIndex;
+        return outcome;
+    }
+
+    /**
+     * @param index    The row-major index of a cell occupied by a player.
+     * @param playerId The id of the player.
+     * @return Whether the cell is occupied by the player with the id.
+     */
+    private boolean isPlayerAt(final int index, final int playerId) {
+        final var player = gameBoard.getPlayerAt(index);
+        return player != null && player.getId() == playerId;
+    }
+
+    /**
+     * @return The outcome of the last move.
+     */
+    @NotNull
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The row-major index of the cell the player ends on after the last move, which is the original cell if
+     * the move is invalid, or the cell of the mine if the player dies.
+     */
+    public int getResultIndex() {
+        return resultIndex;
+    }
+
+    /**
+     * @return The number of gems collected by the last move.
+     */
+    public int getNumCollectedGems() {
+        return numCollectedGems;
+    }
+
+    /**
+     * @param i The index of the gem, in the order it is collected.
+     * @return The row-major index of the cell of the gem.
+     * @throws IndexOutOfBoundsException if {@code i} is not less than {@link MoveKernel#getNumCollectedGems()}.
+     */
+    public int getCollectedGem(final int i) {
+        return collectedGems[Objects.checkIndex(i, numCollectedGems)];
+    }
+
+    /**
+     * @return The number of extra lives collected by the last move.
+     */
+    public int getNumCollectedExtraLives() {
+        return numCollectedExtraLives;
+    }
+
+    /**
+     * @param i The index of the extra life, in the order it is collected.
+     * @return The row-major index of the cell of the extra life.
+     * @throws IndexOutOfBoundsException if {@code i} is not less than {@link MoveKernel#getNumCollectedExtraLives()}.
+     */
+    public int getCollectedExtraLife(final int i) {
+        return collectedExtraLives[Objects.checkIndex(i, numCollectedExtraLives)];
+    }
+
+    /**
+     * Converts the last move to a {@link MoveResult}. Unlike {@link MoveKernel#tryMove(int, Direction, int)}, this
+     * method allocates.
+     *
+     * @return The {@link MoveResult} equivalent to the last move.
+     * @throws IllegalStateException if no move has been made.
+     */
+    @NotNull
+    public MoveResult toMoveResult() {
+        if (origIndex == -1) {
+            throw new IllegalStateException();
+        }
+
+        final var origPosition = packedBoard.positionOf(origIndex);
+        return switch (outcome) {
+            case INVALID -> new MoveResult.Invalid(origPosition);
+            case DEAD -> new MoveResult.Valid.Dead(origPosition, packedBoard.positionOf(resultIndex));
+            case ALIVE -> {
+                final var gems = new ArrayList<Position>(numCollectedGems);
+                for (int i = 0; i < numCollectedGems; ++i) {
+                    gems.add(packedBoard.positionOf(collectedGems[i]));
+                }
+                final var extraLives = new ArrayList<Position>(numCollectedExtraLives);
+                for (int i = 0; i < numCollectedExtraLives; ++i) {
+                    extraLives.add(packedBoard.positionOf(collectedExtraLives[i]));
+                }
+                yield new MoveResult.Valid.Alive(packedBoard.positionOf(resultIndex), origPosition, gems, extraLives);
+            }
+        };
+    }
+}
@@ -0,0 +1,188 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.GameBoard;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.model.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The standings of the players of a game, maintained incrementally by {@link GameController}.
+ *
+ * <p>
+ * Instead of computing the score of every player whenever the winners are queried, the controller updates the entry of
+ * a player after each move, batch or undo of the player. The entries are kept ordered, players who have not lost
+ * before players who have, then by descending score, then by ascending id. The number of players who have not lost is
+ * maintained along with the entries. Detecting the end of the game is thus {@code O(1)}, updating the entry of a player
+ * is {@code O(log n)}, and the top {@code k} players are found in {@code O(k)}, for {@code n} players.
+ * </p>
+ * <p>
+ * The standings only reflect the changes to the game states made by the controller.
+ * </p>
+ */
+public final class Scoreboard {
+
+    /**
+     * The standing of a player.
+     */
+    private static final class Entry {
+
+        @NotNull
+        private final GameState gameState;
+
+        private final int playerID;
+
+        private int score;
+
+        private boolean lost;
+
+        private Entry(@NotNull final GameState gameState) {
+            this.gameState = gameState;
+            this.playerID = gameState.getPlayer().getId();
+            this.score = gameState.getScore();
+            this.lost = gameState.hasLost();
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.lost ? 1 : 0)
+            .thenComparing(entry -> entry.score, Comparator.reverseOrder())
+            .thenComparingInt(entry -> entry.playerID);
+
+    @NotNull
+    private final GameBoard gameBoard;
+
+    /**
+     * The entries of the players, indexed by their ids, or {@code null} for the ids of players which are not part of
+     * the standings.
+     */
+    @NotNull
+    private final Entry[] entries;
+
+    /**
+     * The entries of the players in the order of their standings.
+     */
+    @NotNull
+    private final NavigableSet<Entry> standings = new TreeSet<>(ORDER);
+
+    private int numAlivePlayers = 0;
+
+    /**
+     * Creates an instance with the current standings of the players.
+     *
+     * @param gameStates The game states of all players of a game, whose players have distinct, non-negative ids.
+     */
+    Scoreboard(@NotNull final GameState[] gameStates) {
+        this.gameBoard = gameStates[0].getGameBoard();
+        final var maxPlayerID = Arrays.stream(gameStates).mapToInt(s -> s.getPlayer().getId()).max().orElseThrow();
+        this.entries = new Entry[maxPlayerID + 1];
+        for (final var gameState : gameStates) {
+            final var entry = new Entry(gameState);
+            entries[entry.playerID] = entry;
+            standings.add(entry);
+            if (!entry.lost) {
+                ++numAlivePlayers;
+            }
+        }
+    }
+
+    /**
+     * Updates the standing of a player from its game state.
+     *
+     * <p>
+     * This method should be called while holding the monitor of the game state, after the game state is changed.
+     * </p>
+     *
+     * @param gameState The game state of the player.
+     */
+    synchronized void update(@NotNull final GameState gameState) {
+        final var entry = entries[gameState.getPlayer().getId()];
+        assert entry != null && entry.gameState == gameState;
+
+        final var score = gameState.getScore();
+        final var lost = gameState.hasLost();
+        if (score == entry.score && lost == entry.lost) {
+            return;
+        }
+
+        standings.remove(entry);
+        if (lost != entry.lost) {
+            numAlivePlayers += lost ? -1 : 1;
+        }
+        entry.score = score;
+        entry.lost = lost;
+        standings.add(entry);
+    }
+
+    /**
+     * @return The number of players who have not lost.
+     */
+    public synchronized int getNumAlivePlayers() {
+        return numAlivePlayers;
+    }
+
+    /**
+     * @return The number of gems still present in the game board.
+     */
+    public int getNumGemsLeft() {
+        return gameBoard.getNumGems();
+    }
+
+    /**
+     * @return The highest score of the players who have not lost, or {@link Integer#MIN_VALUE} if all players have
+     * lost.
+     */
+    public synchronized int getMaxScore() {
+        return numAlivePlayers == 0 ? Integer.MIN_VALUE : standings.first().score;
+    }
+
+    /**
+     * Gets the players with the highest standings.
+     *
+     * @param k The maximum number of players to get.
+     * @return The top {@code k} players, players who have not lost before players who have, then in descending order of
+     * their scores.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @NotNull
+    public synchronized List<Player> getTopPlayers(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException();
+        }
+        final var players = new ArrayList<Player>(Math.min(k, standings.size()));
+        for (final var entry : standings) {
+            if (players.size() == k) {
+                break;
+            }
+            players.add(entry.gameState.getPlayer());
+        }
+        return players;
+    }
+
+    /**
+     * Gets the winners of the game, as specified by {@link GameController#getWinners()}.
+     *
+     * @return {@code null} if the game has not finished yet; otherwise empty array if there is no winners, or
+     * non-empty array of the players who have not lost with the highest score.
+     */
+    @Nullable
+    public synchronized Player[] getWinners() {
+        if (numAlivePlayers == 0) {
+            return new Player[0];
+        }
+        if (getNumGemsLeft() != 0) {
+            return null;
+        }
+
+        final var maxScore = standings.first().score;
+        final var winners = new ArrayList<Player>();
+        for (final var entry : standings) {
+            if (entry.lost || entry.score != maxScore) {
+                break;
+            }
+            winners.add(entry.gameState.getPlayer());
+        }
+        return winners.toArray(new Player[0]);
+    }
+}
@@ -0,0 +1,195 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Bitsets of the cells occupied by each kind of entity of a {@link PackedBoard}.
+ *
+ * <p>
+ * Each kind of entity is kept in two orientations: A row-major bitset in which each row is a contiguous run of bits,
+ * and a column-major bitset in which each column is a contiguous run of bits. This allows a slide in any
+ * {@link Direction} to be searched for entities with word-level operations.
+ * </p>
+ * <p>
+ * Instances are owned by a {@link PackedBoard} and kept in sync with it whenever the entity on a cell is replaced.
+ * Since a word of a bitset may cover cells of different regions of the board, which are written concurrently under
+ * different {@link RegionLocks} stripes, bits are set and cleared atomically.
+ * </p>
+ */
+public final class Bitboards {
+
+    /**
+     * Atomic access to the words of a bitset.
+     */
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Number of rows in the board.
+     */
+    private final int numRows;
+    /**
+     * Number of columns in the board.
+     */
+    private final int numCols;
+
+    /**
+     * Row-major bitset of each kind of entity, indexed by the {@code PackedBoard.ENTITY_*} kind.
+     */
+    @NotNull
+    private final long[][] rowMajor;
+    /**
+     * Column-major bitset of each kind of entity, indexed by the {@code PackedBoard.ENTITY_*} kind.
+     */
+    @NotNull
+    private final long[][] colMajor;
+
+    /**
+     * Creates an instance with the entities of a board.
+     *
+     * @param packedBoard The board to create the bitsets of.
+     */
+    Bitboards(@NotNull final PackedBoard packedBoard) {
+        Objects.requireNonNull(packedBoard);
+
+        this.numRows = packedBoard.getNumRows();
+        this.numCols = packedBoard.getNumCols();
+
+        final var numWords = (packedBoard.size() + Long.SIZE - 1) / Long.SIZE;
+        this.rowMajor = new long[PackedBoard.ENTITY_PLAYER + 1][numWords];
+        this.colMajor = new long[PackedBoard.ENTITY_PLAYER + 1][numWords];
+
+        for (int i = 0; i < packedBoard.size(); ++i) {
+            set(i, packedBoard.getEntityKind(i));
+        }
+    }
+
+    /**
+     * Updates the bitsets after the entity on a cell is replaced.
+     *
+     * @param index   The row-major index of the cell.
+     * @param oldKind The {@code PackedBoard.ENTITY_*} kind of the entity previously on the cell.
+     * @param newKind The {@code PackedBoard.ENTITY_*} kind of the entity now on the cell.
+     */
+    void replace(final int index, final byte oldKind, final byte newKind) {
+        clear(index, oldKind);
+        set(index, newKind);
+    }
+
+    /**
+     * @param index      The row-major index of the cell.
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity to add to the cell.
+     */
+    private void set(final int index, final byte entityKind) {
+        if (entityKind == PackedBoard.ENTITY_NONE) {
+            return;
+        }
+
+        final var colMajorBit = toColMajor(index);
+        WORDS.getAndBitwiseOr(rowMajor[entityKind], index >>> 6, 1L << index);
+        WORDS.getAndBitwiseOr(colMajor[entityKind], colMajorBit >>> 6, 1L << colMajorBit);
+    }
+
+    /**
+     * @param index      The row-major index of the cell.
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity to remove from the cell.
+     */
+    private void clear(final int index, final byte entityKind) {
+        if (entityKind == PackedBoard.ENTITY_NONE) {
+            return;
+        }
+
+        final var colMajorBit = toColMajor(index);
+        WORDS.getAndBitwiseAnd(rowMajor[entityKind], index >>> 6, ~(1L << index));
+        WORDS.getAndBitwiseAnd(colMajor[entityKind], colMajorBit >>> 6, ~(1L << colMajorBit));
+    }
+
+    /**
+     * Finds the first cell containing an entity of the given kind along a slide.
+     *
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity to find.
+     * @param direction  The direction of the slide.
+     * @param fromIndex  The row-major index of the cell the slide starts from. This cell is not searched.
+     * @param toIndex    The row-major index of the last cell of the slide, which must be on the same row or column as
+     *                   {@code fromIndex} in the given direction.
+     * @return The row-major index of the first cell after {@code fromIndex} up to and including {@code toIndex}
+     * containing an entity of {@code entityKind}, or {@code -1} if there is none.
+     */
+    public int findFirst(final byte entityKind, @NotNull final Direction direction, final int fromIndex, final int toIndex) {
+        if (fromIndex == toIndex) {
+            return -1;
+        }
+
+        return switch (direction) {
+            case RIGHT -> nextSetBit(rowMajor[entityKind], fromIndex + 1, toIndex);
+            case LEFT -> prevSetBit(rowMajor[entityKind], toIndex, fromIndex - 1);
+            case DOWN -> fromColMajor(nextSetBit(colMajor[entityKind], toColMajor(fromIndex) + 1, toColMajor(toIndex)));
+            case UP -> fromColMajor(prevSetBit(colMajor[entityKind], toColMajor(toIndex), toColMajor(fromIndex) - 1));
+        };
+    }
+
+    /**
+     * @param index The row-major index of a cell.
+     * @return The column-major index of the cell.
+     */
+    private int toColMajor(final int index) {
+        return (index % numCols) * numRows + index / numCols;
+    }
+
+    /**
+     * @param bit The column-major index of a cell, or {@code -1}.
+     * @return The row-major index of the cell, or {@code -1} if {@code bit} is {@code -1}.
+     */
+    private int fromColMajor(final int bit) {
+        return bit < 0 ? -1 : (bit % numRows) * numCols + bit / numRows;
+    }
+
+    /**
+     * @param words The bitset.
+     * @param lo    The lowest bit to search, inclusive.
+     * @param hi    The highest bit to search, inclusive.
+     * @return The lowest set bit in {@code [lo, hi]}, or {@code -1} if there is none.
+     */
+    private static int nextSetBit(@NotNull final long[] words, final int lo, final int hi) {
+        final var hiWord = hi >>> 6;
+
+        int w = lo >>> 6;
+        long word = words[w] & (-1L << lo);
+        while (true) {
+            if (word != 0) {
+                final var bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                return bit <= hi ? bit : -1;
+            }
+            if (++w > hiWord) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * @param words The bitset.
+     * @param lo    The lowest bit to search, inclusive.
+     * @param hi    The highest bit to search, inclusive.
+     * @return The highest set bit in {@code [lo, hi]}, or {@code -1} if there is none.
+     */
+    private static int prevSetBit(@NotNull final long[] words, final int lo, final int hi) {
+        final var loWord = lo >>> 6;
+
+        int w = hi >>> 6;
+        long word = words[w] & (-1L >>> (63 - (hi & 63)));
+        while (true) {
+            if (word != 0) {
+                final var bit = (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+                return bit >= lo ? bit : -1;
+            }
+            if (--w < loWord) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+}
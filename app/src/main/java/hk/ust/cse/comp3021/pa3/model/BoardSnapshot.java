@@ -0,0 +1,217 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable view of the cells and entities of a {@link GameBoard} at the time it is taken.
+ *
+ * <p>
+ * Snapshots share the tiles of cell kinds, entity kinds and player ids with the {@link PackedBoard} they are taken
+ * from, and the cells of the players as a dense array indexed by player id with the {@link GameBoard}. Taking a snapshot
+ * costs O(1). The first write to a tile after a snapshot copies the tile, the first write to a band of tiles copies the
+ * references to its tiles, and the first write to the game board copies the references to the bands and the cells of
+ * the players; See {@link PackedBoard} for the cost of each. Snapshots can therefore be read by any thread without
+ * holding the locks of the game board.
+ * </p>
+ */
+public final class BoardSnapshot {
+
+    /**
+     * Number of rows in the board.
+     */
+    private final int numRows;
+    /**
+     * Number of columns in the board.
+     */
+    private final int numCols;
+    /**
+     * Number of columns of tiles in the board.
+     */
+    private final int numTileCols;
+
+    /**
+     * Kind of each cell, in tiles ordered by row-major order.
+     */
+    @NotNull
+    private final byte[][] cellTiles;
+    /**
+     * Kind of the entity on each cell, indexed by the row and then the column of the tile.
+     */
+    @NotNull
+    private final byte[][][] entityTiles;
+    /**
+     * Players on the cells of each tile, indexed by the row and then the column of the tile.
+     */
+    @NotNull
+    private final int[][][] playerTiles;
+
+    /**
+     * Number of entities of each kind on the board, indexed by the {@code ENTITY_*} kind.
+     */
+    @NotNull
+    private final int[] entityCounts;
+
+    /**
+     * Instances of {@link Player} registered to the board, indexed by their id. Only the first
+     * {@link BoardSnapshot#numPlayers} slots belong to this snapshot.
+     */
+    @NotNull
+    private final Player[] players;
+
+    /**
+     * The row-major index of the cell each player is on, indexed by the id of the player, or {@code -1} if the player
+     * is not on the board.
+     */
+    @NotNull
+    private final int[] playerCells;
+
+    /**
+     * Number of players registered to the board.
+     */
+    private final int numPlayers;
+
+    /**
+     * The Zobrist hash of the placement of entities on the board.
+     */
+    private final long zobristHash;
+
+    /**
+     * Creates an instance.
+     *
+     * @param packedBoard The board to take the snapshot of.
+     * @param players     The players registered to the board, indexed by their id, which must not be modified by the
+     *                    game board below {@code numPlayers}.
+     * @param playerCells The row-major index of the cell each player is on, indexed by the id of the player, which
+     *                    must not be modified by the game board afterwards.
+     * @param numPlayers  The number of players registered to the board.
+     * @param zobristHash The Zobrist hash of the placement of entities on the board.
+     */
+    BoardSnapshot(@NotNull final PackedBoard packedBoard,
+                  @NotNull final Player[] players,
+                  @NotNull final int[] playerCells,
+                  final int numPlayers,
+                  final long zobristHash) {
+        this.numRows = packedBoard.getNumRows();
+        this.numCols = packedBoard.getNumCols();
+        this.numTileCols = packedBoard.getNumTileCols();
+        this.cellTiles = packedBoard.getCellTiles();
+        this.entityTiles = packedBoard.shareEntityTiles();
+        this.playerTiles = packedBoard.getPlayerTiles();
+        this.entityCounts = packedBoard.copyEntityCounts();
+        this.players = players;
+        this.playerCells = playerCells;
+        this.numPlayers = numPlayers;
+        this.zobristHash = zobristHash;
+    }
+
+    /**
+     * @return The number of rows in the board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns in the board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The number of cells in the board.
+     */
+    public int size() {
+        return numRows * numCols;
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The row-major index of the cell.
+     */
+    public int indexOf(final int r, final int c) {
+        return r * numCols + c;
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The position of the cell.
+     */
+    @NotNull
+    public Position positionOf(final int index) {
+        return new Position(index / numCols, index % numCols);
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@code PackedBoard.CELL_*} kind of the cell.
+     */
+    public byte getCellKind(final int index) {
+        final var r = index / numCols;
+        final var c = index - r * numCols;
+        return cellTiles[PackedBoard.tileIndexOf(r, c, numTileCols)][PackedBoard.offsetInTile(r, c)];
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@code PackedBoard.ENTITY_*} kind of the entity on the cell.
+     */
+    public byte getEntityKind(final int index) {
+        final var r = index / numCols;
+        final var c = index - r * numCols;
+        return entityTiles[r >>> PackedBoard.TILE_SHIFT][c >>> PackedBoard.TILE_SHIFT][PackedBoard.offsetInTile(r, c)];
+    }
+
+    /**
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entities.
+     * @return The number of entities of the given kind on the board.
+     */
+    public int getEntityCount(final byte entityKind) {
+        return entityCounts[entityKind];
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@link Player} on the cell, or {@code null} if the cell is not occupied by a player.
+     */
+    @Nullable
+    public Player getPlayerAt(final int index) {
+        if (getEntityKind(index) != PackedBoard.ENTITY_PLAYER) {
+            return null;
+        }
+        final var r = index / numCols;
+        final var c = index - r * numCols;
+        final var playerTile = playerTiles[r >>> PackedBoard.TILE_SHIFT][c >>> PackedBoard.TILE_SHIFT];
+        return players[PackedBoard.findPlayerId(playerTile, PackedBoard.offsetInTile(r, c))];
+    }
+
+    /**
+     * @return The number of players registered to the board when this snapshot is taken, including those kicked out of
+     * the game.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * @param id The id of the player.
+     * @return The row-major index of the cell the player is on, or {@code -1} if the player is not on the board.
+     * @throws IllegalArgumentException if the player with the id does not exist.
+     */
+    public int getPlayerCell(final int id) {
+        if (id < 0 || id >= numPlayers) {
+            throw new IllegalArgumentException();
+        }
+        return playerCells[id];
+    }
+
+    /**
+     * @return The Zobrist hash of the placement of entities on the board, as returned by
+     * {@link GameBoard#getZobristHash()} when this snapshot is taken.
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+}
@@ -27,6 +27,12 @@ public sealed class EntityCell extends Cell permits StopCell {
     @Nullable
     Entity entity = null;
 
+    /**
+     * The game board which this cell belongs to, or {@code null} if this cell is not part of a game board.
+     */
+    @Nullable
+    GameBoard board = null;
+
     /**
      * Creates an instance of {@link EntityCell} at the given game board position.
      *
@@ -89,6 +95,11 @@ public sealed class EntityCell extends Cell permits StopCell {
             this.entity.setOwner(this);
         }
 
+        // Keep the packed representation of the game board in sync with us
+        if (board != null) {
+            board.onEntityChanged(this);
+        }
+
         return prevEntity;
     }
 
@@ -4,6 +4,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * The main game board of the game.
@@ -24,16 +30,144 @@ public final class GameBoard {
     private final int numCols;
 
     /**
-     * 2D array representing each cell in the game board.
+     * 2D array representing each cell in the game board, or {@code null} if this game board only keeps its packed
+     * representation.
      */
-    @NotNull
+    @Nullable
     private final Cell[][] board;
 
     /**
-     * The instance of {@link Player} on this game board.
+     * The packed representation of the cells and entities in the game board.
      */
     @NotNull
-    private final List<Player> players;
+    private final PackedBoard packedBoard;
+
+    /**
+     * The strategy used to resolve slides on this game board.
+     */
+    @NotNull
+    private volatile SlideResolver slideResolver = SlideResolver.SCAN;
+
+    /**
+     * The table of static slide stops of this game board, or {@code null} if it has not been computed yet.
+     */
+    @Nullable
+    private volatile SlideTable slideTable = null;
+
+    /**
+     * All instances of {@link Player} which have been on this game board, including those kicked out of the game, in
+     * the order they are registered.
+     */
+    @NotNull
+    private final List<Player> players = new ArrayList<>();
+
+    /**
+     * Instances of {@link Player} which are still on this game board, in the order they are registered.
+     */
+    @NotNull
+    private final List<Player> activePlayers = new ArrayList<>();
+
+    /**
+     * Read-only view of {@link GameBoard#activePlayers}.
+     */
+    @NotNull
+    private final List<Player> activePlayersView = Collections.unmodifiableList(activePlayers);
+
+    /**
+     * All instances of {@link Player} in {@link GameBoard#players}, indexed by their id.
+     *
+     * <p>
+     * Slots below {@link GameBoard#nextPlayerId} are never rewritten, and the array is replaced rather than written
+     * when it grows, so it is shared with the snapshots taken from this game board without copying.
+     * </p>
+     */
+    @NotNull
+    private Player[] playersById = new Player[0];
+
+    /**
+     * The row-major index of the cell each player in {@link GameBoard#players} is on, indexed by the id of the player,
+     * or {@code -1} if the player is not on this game board.
+     *
+     * <p>
+     * This array is shared with the snapshots taken from this game board, and copied on the first write after a
+     * snapshot is taken, so that taking a snapshot does not copy anything per player. Moves in different regions of the
+     * game board write the cells of different players concurrently, so it is only written while holding the monitor of
+     * this game board.
+     * </p>
+     */
+    @NotNull
+    private int[] playerCells = new int[0];
+
+    /**
+     * Whether {@link GameBoard#playerCells} is shared with a snapshot, and must be copied before it is written.
+     */
+    private boolean playerCellsShared = false;
+
+    /**
+     * The id to assign to the next player registered to this game board.
+     */
+    private int nextPlayerId = 0;
+
+    /**
+     * The lock guarding the commit of moves on this game board, whose stamp doubles as the version of the game board.
+     */
+    @NotNull
+    private final StampedLock stampedLock = new StampedLock();
+
+    /**
+     * The write mode of {@link GameBoard#stampedLock}.
+     */
+    @NotNull
+    private final Lock lock = stampedLock.asWriteLock();
+
+    /**
+     * The lock shared by the robots playing on this game board.
+     */
+    @NotNull
+    private final Lock robotLock = new ReentrantLock();
+
+    /**
+     * The locks guarding the cells of each region of this game board.
+     */
+    @NotNull
+    private final RegionLocks regionLocks;
+
+    /**
+     * The Zobrist hash of the placement of entities on this game board, which is updated by moves in different regions
+     * of the game board concurrently.
+     */
+    @NotNull
+    private final AtomicLong zobristHash = new AtomicLong();
+
+    /**
+     * Whether {@link GameBoard#zobristHash} is checked against {@link GameBoard#computeZobristHash()} on every update.
+     */
+    private volatile boolean verifyZobristHash = false;
+
+    /**
+     * The row-major indices of the cells which initially hold a {@link Gem} or an {@link ExtraLife}, in increasing
+     * order.
+     */
+    @NotNull
+    private final int[] pooledEntityIndices;
+
+    /**
+     * The instance of {@link Gem} or {@link ExtraLife} initially on each cell of
+     * {@link GameBoard#pooledEntityIndices}, which is reused whenever a collectible is restored on the cell.
+     */
+    @NotNull
+    private final Entity[] pooledEntities;
+
+    /**
+     * The latest snapshot taken by {@link GameBoard#snapshot()}.
+     */
+    @NotNull
+    private volatile BoardSnapshot latestSnapshot;
+
+    /**
+     * Whether a move has been committed since {@link GameBoard#latestSnapshot} was taken.
+     */
+    private volatile boolean snapshotStale = false;
 
     /**
      * Creates an instance using the provided creation parameters.
@@ -51,6 +185,21 @@ public final class GameBoard {
      *                                  </ul>
      */
     public GameBoard(final int numRows, final int numCols, @NotNull final Cell[][] cells) {
+        this(numRows, numCols, cells, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an instance using the provided creation parameters.
+     *
+     * @param numRows  The number of rows in the game board.
+     * @param numCols  The number of columns in the game board.
+     * @param cells    The initial values of cells.
+     * @param executor The executor to check the reachability of gems from each group of players on, e.g. a
+     *                 {@link ForkJoinPool} with the desired parallelism.
+     * @throws IllegalArgumentException if the parameters are invalid, as described in
+     *                                  {@link GameBoard#GameBoard(int, int, Cell[][])}.
+     */
+    public GameBoard(final int numRows, final int numCols, @NotNull final Cell[][] cells, @NotNull final Executor executor) {
         this.numRows = numRows;
         this.numCols = numCols;
         this.board = Objects.requireNonNull(cells);
@@ -62,204 +211,580 @@ public final class GameBoard {
             throw new IllegalArgumentException();
         }
 
-        this.players = getPlayers();
-
-        if (getNumGems() == 0) {
-            throw new IllegalArgumentException();
+        this.packedBoard = PackedBoard.of(numRows, numCols, cells);
+        this.regionLocks = new RegionLocks(packedBoard);
+        final var numCollectibles = getNumGems() + getNumExtraLives();
+        this.pooledEntityIndices = new int[numCollectibles];
+        this.pooledEntities = new Entity[numCollectibles];
+        var numPooledEntities = 0;
+        for (final var row : cells) {
+            for (final var cell : row) {
+                if (cell instanceof EntityCell ec) {
+                    ec.board = this;
+                    final var entity = ec.getEntity();
+                    if (entity instanceof Player player) {
+                        registerPlayer(packedBoard.indexOf(ec.getPosition()), player);
+                    } else if (entity instanceof Gem || entity instanceof ExtraLife) {
+                        pooledEntityIndices[numPooledEntities] = packedBoard.indexOf(ec.getPosition());
+                        pooledEntities[numPooledEntities++] = entity;
+                    }
+                }
+            }
         }
-        if (!isAllGemsReachable()) {
+        if (players.isEmpty()) {
             throw new IllegalArgumentException();
         }
+
+        zobristHash.set(computeZobristHash());
+        validate(executor);
+        latestSnapshot = newSnapshot();
+    }
+
+    /**
+     * Creates an instance which only keeps the packed representation of the game board.
+     *
+     * <p>
+     * Instances of {@link Cell} are not stored by this game board; They are instead created on demand when requested
+     * by {@link GameBoard#getCell(int, int)} and its related methods, and any mutation performed through these cells
+     * is written back to the game board. The only exception is the cell owning a {@link Player}, which is kept as the
+     * owner of the player until the player moves away.
+     * </p>
+     *
+     * @param numRows     The number of rows in the game board.
+     * @param numCols     The number of columns in the game board.
+     * @param cellKinds   The {@code PackedBoard.CELL_*} kind of each cell in row-major order. The array is copied into
+     *                    tiles.
+     * @param entityKinds The {@code PackedBoard.ENTITY_*} kind of the entity on each cell in row-major order. The
+     *                    array is copied into tiles. A new {@link Player} is created for each
+     *                    {@link PackedBoard#ENTITY_PLAYER}.
+     * @throws IllegalArgumentException if any of the following are true:
+     *                                  <ul>
+     *                                      <li>The length of {@code cellKinds} or {@code entityKinds} is not equal to
+     *                                      {@code numRows * numCols}</li>
+     *                                      <li>There is an entity on a wall, or a non-player entity on a stop cell</li>
+     *                                      <li>There is no player in {@code entityKinds}</li>
+     *                                      <li>There are no gems in {@code entityKinds}</li>
+     *                                      <li>There are some gems which cannot be reached by the player</li>
+     *                                  </ul>
+     */
+    public GameBoard(final int numRows,
+                     final int numCols,
+                     @NotNull final byte[] cellKinds,
+                     @NotNull final byte[] entityKinds
+    ) {
+        this(numRows, numCols, cellKinds, entityKinds, ForkJoinPool.commonPool());
     }
 
     /**
-     * Checks that a single player exists on the game board, and returns the instance of the player.
+     * Creates an instance which only keeps the packed representation of the game board.
      *
-     * @return The single instance of player on the game board.
-     * @throws IllegalArgumentException if the game board has zero, or more than one player entities.
+     * @param numRows     The number of rows in the game board.
+     * @param numCols     The number of columns in the game board.
+     * @param cellKinds   The {@code PackedBoard.CELL_*} kind of each cell in row-major order.
+     * @param entityKinds The {@code PackedBoard.ENTITY_*} kind of the entity on each cell in row-major order.
+     * @param executor    The executor to check the reachability of gems from each group of players on, e.g. a
+     *                    {@link ForkJoinPool} with the desired parallelism.
+     * @throws IllegalArgumentException if the parameters are invalid, as described in
+     *                                  {@link GameBoard#GameBoard(int, int, byte[], byte[])}.
      */
-    @NotNull
-    public List<Player> getPlayers() {
-        var players = new ArrayList<Player>();
-        for (final var row : board) {
-            for (final var cell : row) {
-                if (cell instanceof EntityCell ec && ec.getEntity() instanceof Player p) {
-                    players.add(p);
-                }
+    public GameBoard(final int numRows,
+                     final int numCols,
+                     @NotNull final byte[] cellKinds,
+                     @NotNull final byte[] entityKinds,
+                     @NotNull final Executor executor
+    ) {
+        this(PackedBoard.of(numRows, numCols, cellKinds, entityKinds), executor);
+    }
+
+    /**
+     * Creates an instance which only keeps the packed representation of the game board, adopting a board created by
+     * {@link PackedBoard.Builder}.
+     *
+     * <p>
+     * This avoids allocating arrays covering the whole board, so that the memory usage of very large but sparsely
+     * populated boards scales with their populated area.
+     * </p>
+     *
+     * @param packedBoard The cell and entity kinds of the game board. A new {@link Player} is created for each
+     *                    {@link PackedBoard#ENTITY_PLAYER}.
+     * @throws IllegalArgumentException if {@code packedBoard} is already owned by another game board, or is invalid as
+     *                                  described in {@link GameBoard#GameBoard(int, int, byte[], byte[])}.
+     */
+    public GameBoard(@NotNull final PackedBoard packedBoard) {
+        this(packedBoard, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an instance which only keeps the packed representation of the game board, adopting a board created by
+     * {@link PackedBoard.Builder}.
+     *
+     * @param packedBoard The cell and entity kinds of the game board.
+     * @param executor    The executor to check the reachability of gems from each group of players on, e.g. a
+     *                    {@link ForkJoinPool} with the desired parallelism.
+     * @throws IllegalArgumentException if the parameters are invalid, as described in
+     *                                  {@link GameBoard#GameBoard(PackedBoard)}.
+     */
+    public GameBoard(@NotNull final PackedBoard packedBoard, @NotNull final Executor executor) {
+        packedBoard.adopt();
+        this.numRows = packedBoard.getNumRows();
+        this.numCols = packedBoard.getNumCols();
+        this.board = null;
+        this.packedBoard = packedBoard;
+        this.regionLocks = new RegionLocks(packedBoard);
+        // Cells of packed boards are created on demand together with their entities, which therefore cannot be pooled;
+        // Collectibles are restored by setCollectible instead, which only writes their kinds
+        this.pooledEntityIndices = new int[0];
+        this.pooledEntities = new Entity[0];
+
+        for (int i = 0; i < packedBoard.size(); ++i) {
+            final var cellKind = packedBoard.getCellKind(i);
+            final var entityKind = packedBoard.getEntityKind(i);
+            if (entityKind == PackedBoard.ENTITY_NONE) {
+                continue;
+            }
+            if (cellKind == PackedBoard.CELL_WALL) {
+                throw new IllegalArgumentException();
+            }
+            if (cellKind == PackedBoard.CELL_STOP && entityKind != PackedBoard.ENTITY_PLAYER) {
+                throw new IllegalArgumentException();
+            }
+
+            if (entityKind == PackedBoard.ENTITY_PLAYER) {
+                final var position = packedBoard.positionOf(i);
+                final var player = new Player();
+                final var owner = cellKind == PackedBoard.CELL_STOP
+                        ? new StopCell(position, player)
+                        : new EntityCell(position, player);
+                owner.board = this;
+                registerPlayer(i, player);
             }
         }
+        if (players.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
 
-        if (players.size() == 0) {
+        zobristHash.set(computeZobristHash());
+        validate(executor);
+        latestSnapshot = newSnapshot();
+    }
+
+    /**
+     * Checks that the game board is playable.
+     *
+     * @param executor The executor to check the reachability of gems from each group of players on.
+     * @throws IllegalArgumentException if there are no gems in the game board, or some gems cannot be reached by the
+     *                                  players.
+     */
+    private void validate(@NotNull final Executor executor) {
+        if (getNumGems() == 0) {
             throw new IllegalArgumentException();
         }
+        if (!isAllGemsReachable(executor)) {
+            throw new IllegalArgumentException();
+        }
+    }
 
-        return players;
+    /**
+     * Updates the packed representation of the game board after the entity of a cell is replaced.
+     *
+     * <p>
+     * This method is called by {@link EntityCell#setEntity(Entity)} of the cells belonging to this game board.
+     * </p>
+     *
+     * @param cell The cell whose entity has been replaced.
+     */
+    void onEntityChanged(@NotNull final EntityCell cell) {
+        final var entity = cell.getEntity();
+        onEntityChanged(packedBoard.indexOf(cell.getPosition()), PackedBoard.entityKindOf(entity), entity);
     }
 
     /**
-     * Retrieves the instance of {@link EntityCell} by a position with an offset.
+     * Updates the packed representation of the game board after the entity of a cell is replaced.
      *
-     * @param pos    Position.
-     * @param offset Positional offset to apply.
-     * @return An instance of {@link EntityCell}, or {@code null} if the resulting position does not contain an entity
-     * cell.
+     * @param index         The row-major index of the cell.
+     * @param newEntityKind The {@code PackedBoard.ENTITY_*} kind of the new entity of the cell.
+     * @param entity        The new entity of the cell, which is only needed if it is a {@link Player}.
      */
-    @Nullable
-    private Position getEntityCellByOffset(@NotNull final Position pos, @NotNull final PositionOffset offset) {
-        final var newPos = pos.offsetByOrNull(offset, getNumRows(), getNumCols());
-        if (newPos == null) {
-            return null;
+    private void onEntityChanged(final int index, final byte newEntityKind, @Nullable final Entity entity) {
+        final var oldEntityKind = packedBoard.getEntityKind(index);
+
+        var oldPlayerId = 0;
+        if (oldEntityKind == PackedBoard.ENTITY_PLAYER) {
+            oldPlayerId = packedBoard.getPlayerId(index);
+            clearPlayerCell(oldPlayerId, index);
         }
-        if (getCell(newPos) instanceof Wall) {
-            return null;
+        var newPlayerId = 0;
+        if (entity instanceof Player player) {
+            if (hasPlayer(player)) {
+                packedBoard.setPlayerId(index, player.getId());
+                setPlayerCell(player.getId(), index);
+            } else {
+                registerPlayer(index, player);
+            }
+            newPlayerId = player.getId();
         }
 
-        return newPos;
+        packedBoard.setEntityKind(index, newEntityKind);
+
+        final var hash = zobristHash.accumulateAndGet(
+                zobristKeyOf(index, oldEntityKind, oldPlayerId) ^ zobristKeyOf(index, newEntityKind, newPlayerId),
+                (h, key) -> h ^ key);
+        if (verifyZobristHash && hash != computeZobristHash()) {
+            throw new IllegalStateException("Zobrist hash is out of sync at index " + index);
+        }
     }
 
     /**
-     * Gets all {@link Position} of cells which the player can stop on from the cell of the {@code initialPosition}.
+     * Takes an immutable snapshot of the cells and entities of this game board, and publishes it as the latest
+     * snapshot.
      *
      * <p>
-     * A cell is "stoppable" iff the player can stop on the cell with any combination of valid moves.
+     * This method must be called while holding {@link GameBoard#getLock()}, which excludes all moves being committed,
+     * so that the snapshot does not capture a move halfway. The returned snapshot shares its storage with this game board until the next write, so taking one after
+     * every move is cheap.
      * </p>
      *
-     * @param initialPosition The starting position to get all stoppable cells.
-     * @return {@link List} of all positions stoppable from {@code initialPosition}.
+     * @return The snapshot of this game board.
      */
     @NotNull
-    private List<Position> getAllStoppablePositions(@NotNull final Position initialPosition) {
-        Objects.requireNonNull(initialPosition);
+    public BoardSnapshot snapshot() {
+        snapshotStale = false;
+        final var snapshot = newSnapshot();
+        latestSnapshot = snapshot;
+        return snapshot;
+    }
 
-        final List<Position> allStoppablePos = new ArrayList<>();
-        final List<Position> posToTraverse = new ArrayList<>();
+    /**
+     * Marks the latest snapshot as stale. This method is called by a move committed under the read mode of
+     * {@link GameBoard#getStampedLock()}, before the read mode is released.
+     */
+    public void markSnapshotStale() {
+        snapshotStale = true;
+    }
 
-        posToTraverse.add(initialPosition);
+    /**
+     * Takes a snapshot if the latest one is stale, unless {@link GameBoard#getStampedLock()} is held in any mode.
+     *
+     * <p>
+     * This method is called after releasing the read mode of {@link GameBoard#getStampedLock()}. If the lock is still
+     * held, its holder calls this method or {@link GameBoard#snapshot()} after this call, so the latest snapshot
+     * eventually includes every committed move without moves in disjoint regions waiting for each other.
+     * </p>
+     */
+    public void publishSnapshotIfStale() {
+        if (!snapshotStale) {
+            return;
+        }
+        final var stamp = stampedLock.tryWriteLock();
+        if (stamp == 0) {
+            return;
+        }
+        try {
+            snapshot();
+        } finally {
+            stampedLock.unlockWrite(stamp);
+        }
+    }
 
-        while (!posToTraverse.isEmpty()) {
-            final var nextPos = posToTraverse.remove(posToTraverse.size() - 1);
+    /**
+     * @return A new snapshot of this game board, sharing the tiles of entity kinds and the cells of the players.
+     */
+    @NotNull
+    private BoardSnapshot newSnapshot() {
+        playerCellsShared = true;
+        return new BoardSnapshot(packedBoard, playersById, playerCells, nextPlayerId, zobristHash.get());
+    }
 
-            if (!(getCell(nextPos) instanceof EntityCell)) {
-                continue;
-            }
-            if (allStoppablePos.contains(nextPos)) {
-                continue;
-            }
-            allStoppablePos.add(nextPos);
-
-            for (@NotNull final var dir : Direction.values()) {
-                for (int i = 0; i < Math.max(getNumRows(), getNumCols()); ++i) {
-                    final var posOffset = new PositionOffset(dir.getRowOffset() * i, dir.getColOffset() * i);
-                    final var posToAdd = getEntityCellByOffset(nextPos, posOffset);
-
-                    if (posToAdd == null) {
-                        final var maxDist = i - 1;
-                        if (maxDist > 0) {
-                            final var posOffsetBeforeThis = new PositionOffset(
-                                    dir.getRowOffset() * maxDist,
-                                    dir.getColOffset() * maxDist
-                            );
-                            final var posBeforeThis = getEntityCellByOffset(nextPos, posOffsetBeforeThis);
-
-                            if (posBeforeThis != null && !posToTraverse.contains(posBeforeThis)) {
-                                posToTraverse.add(posBeforeThis);
-                            }
-                        }
-
-                        break;
-                    }
+    /**
+     * Sets the cell a player is on in {@link GameBoard#playerCells}.
+     *
+     * @param id    The id of the player.
+     * @param index The row-major index of the cell the player is on.
+     */
+    private synchronized void setPlayerCell(final int id, final int index) {
+        getWritablePlayerCells(id)[id] = index;
+    }
 
-                    if (getCell(posToAdd) instanceof StopCell || isBorderCell(posToAdd, dir)) {
-                        posToTraverse.add(posToAdd);
-                    }
-                }
-            }
+    /**
+     * Marks a player as not on this game board in {@link GameBoard#playerCells}, unless it has already moved to
+     * another cell.
+     *
+     * @param id    The id of the player.
+     * @param index The row-major index of the cell the player has left.
+     */
+    private synchronized void clearPlayerCell(final int id, final int index) {
+        if (playerCells[id] == index) {
+            getWritablePlayerCells(id)[id] = -1;
         }
+    }
 
-        return Collections.unmodifiableList(allStoppablePos);
+    /**
+     * Returns {@link GameBoard#playerCells} after copying it if it is shared with a snapshot, or growing it if it does
+     * not have a slot for a player id.
+     *
+     * @param id The id of the player to write the cell of.
+     * @return The array which can be written in place.
+     */
+    @NotNull
+    private int[] getWritablePlayerCells(final int id) {
+        if (id >= playerCells.length) {
+            final var oldLength = playerCells.length;
+            playerCells = Arrays.copyOf(playerCells, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(playerCells, oldLength, playerCells.length, -1);
+            playerCellsShared = false;
+        } else if (playerCellsShared) {
+            playerCells = playerCells.clone();
+            playerCellsShared = false;
+        }
+        return playerCells;
     }
 
     /**
-     * Gets all {@link Position} of cells which are reachable from the cell of the {@code initialPosition}.
+     * Returns the latest snapshot of this game board, which is taken when the game board is created and after each
+     * move made through {@link hk.ust.cse.comp3021.pa3.controller.GameBoardController}. Moves committed concurrently
+     * in disjoint regions may first appear together in one snapshot.
      *
      * <p>
-     * A cell is reachable iff the player can move over the cell with any combination of valid moves.
+     * This method does not block, and may be called from any thread to read a consistent version of the game board.
      * </p>
      *
-     * @param initialPosition The starting position to get all reachable cells.
-     * @return {@link List} of all positions reachable from {@code initialPosition}.
+     * @return The latest snapshot of this game board.
      */
     @NotNull
-    private List<Position> getAllReachablePositions(@NotNull final Position initialPosition) {
-        Objects.requireNonNull(initialPosition);
-
-        final List<Position> allReachablePos = new ArrayList<>();
-        final List<Position> allStoppablePos = getAllStoppablePositions(initialPosition);
+    public BoardSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
 
-        for (@NotNull final var reachablePos : allStoppablePos) {
-            for (@NotNull final var dir : Direction.values()) {
-                for (int i = 0; i < Math.max(getNumRows(), getNumCols()); ++i) {
-                    final var posOffset = new PositionOffset(dir.getRowOffset() * i, dir.getColOffset() * i);
-                    final var posToAdd = getEntityCellByOffset(reachablePos, posOffset);
-                    if (posToAdd == null) {
-                        break;
-                    }
+    /**
+     * Returns the Zobrist hash of the placement of entities on this game board.
+     *
+     * <p>
+     * The hash covers the kind of the entity on each cell, and the id of each {@link Player}. It is updated
+     * incrementally whenever the entity of a cell is replaced, so that data depending on the state of the game board
+     * can be keyed by it without walking the board.
+     * </p>
+     *
+     * @return The Zobrist hash of this game board.
+     */
+    public long getZobristHash() {
+        return zobristHash.get();
+    }
 
-                    if (!allReachablePos.contains(posToAdd)) {
-                        allReachablePos.add(posToAdd);
-                    }
-                }
+    /**
+     * Computes the Zobrist hash of the placement of entities on this game board from scratch.
+     *
+     * @return The Zobrist hash of this game board, which is equal to {@link GameBoard#getZobristHash()} unless the
+     * incremental updates are broken.
+     */
+    public long computeZobristHash() {
+        long hash = 0;
+        for (int i = 0; i < packedBoard.size(); ++i) {
+            final var entityKind = packedBoard.getEntityKind(i);
+            if (entityKind == PackedBoard.ENTITY_NONE) {
+                continue;
             }
+
+            final var playerId = entityKind == PackedBoard.ENTITY_PLAYER ? packedBoard.getPlayerId(i) : 0;
+            hash ^= zobristKeyOf(i, entityKind, playerId);
         }
+        return hash;
+    }
 
-        return Collections.unmodifiableList(allReachablePos);
+    /**
+     * Sets whether the Zobrist hash is recomputed from scratch and compared after every update.
+     *
+     * <p>
+     * The verification walks the whole game board on every update, and is therefore only intended for tests in which
+     * moves are not committed concurrently.
+     * </p>
+     *
+     * @param verify Whether to verify the Zobrist hash. If {@code true}, updates to the entities of this game board
+     *               throw {@link IllegalStateException} when the incremental hash is out of sync.
+     */
+    public void setZobristVerification(final boolean verify) {
+        this.verifyZobristHash = verify;
     }
 
     /**
-     * Checks whether the given cell is a border cell with reference to the direction.
+     * Returns the Zobrist key of an entity on a cell.
+     *
+     * <p>
+     * Instead of storing a table of random keys per cell, the keys are derived by mixing the index, the entity kind and
+     * the player id with the finalizer of SplitMix64, which keeps the memory usage independent of the board size.
+     * </p>
      *
-     * @param cellPos The position of the cell.
-     * @param dir     The direction is moving at.
-     * @return {@code true} if the cell at the specified position is a border cell, i.e. the last cell in the game board
-     * before going out of bounds in the given direction.
+     * @param index      The row-major index of the cell.
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity.
+     * @param playerId   The id of the player if the entity is a player, otherwise {@code 0}.
+     * @return The key to XOR into the hash, which is {@code 0} for {@link PackedBoard#ENTITY_NONE}.
      */
-    private boolean isBorderCell(@NotNull final Position cellPos, @NotNull final Direction dir) {
-        return switch (dir) {
-            case UP -> cellPos.row() == 0;
-            case DOWN -> cellPos.row() == getNumRows() - 1;
-            case LEFT -> cellPos.col() == 0;
-            case RIGHT -> cellPos.col() == getNumCols() - 1;
-        };
+    private static long zobristKeyOf(final int index, final byte entityKind, final int playerId) {
+        if (entityKind == PackedBoard.ENTITY_NONE) {
+            return 0;
+        }
+        return mix64(mix64(((long) index << 3) | entityKind) + playerId);
     }
 
     /**
-     * Checks whether all gems are reachable from the player's initial position.
+     * @param z The value to mix.
+     * @return The finalizer of SplitMix64 applied to {@code z}.
+     */
+    private static long mix64(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Adds a player to the registry of players of this game board, and assigns it the next id of this game board.
      *
-     * @return {@code true} if all gems are reachable.
+     * @param index  The row-major index of the cell the player is on.
+     * @param player The player to add.
      */
-    private boolean isAllGemsReachable() {
-        for (var player : players) {
-            if (!isAllGemsReachableFor(player)) {
-                return false;
-            }
+    private void registerPlayer(final int index, @NotNull final Player player) {
+        final var id = nextPlayerId;
+        if (id == playersById.length) {
+            playersById = Arrays.copyOf(playersById, Math.max(1, id * 2));
+        }
+        player.assignId(id);
+        playersById[id] = player;
+        setPlayerCell(id, index);
+        ++nextPlayerId;
+        players.add(player);
+        activePlayers.add(player);
+        packedBoard.setPlayerId(index, id);
+    }
+
+    /**
+     * Removes a player from the game board, i.e. clears the cell it is on and excludes it from
+     * {@link GameBoard#getPlayers()}.
+     *
+     * <p>
+     * The player can still be retrieved by {@link GameBoard#getPlayer(int)} after it is removed.
+     * </p>
+     *
+     * @param id The id of the player.
+     * @return {@code true} if the player was on the game board before this method is called.
+     */
+    public boolean removePlayer(final int id) {
+        if (id < 0 || id >= nextPlayerId) {
+            return false;
+        }
+        final var player = playersById[id];
+        if (!activePlayers.remove(player)) {
+            return false;
+        }
+
+        final var owner = player.getOwner();
+        if (owner != null) {
+            owner.setEntity(null);
         }
         return true;
     }
 
-    private boolean isAllGemsReachableFor(Player player) {
-        final var expectedNumOfGems = getNumGems();
-        final var initialPosition = Objects.requireNonNull(player.getOwner()).getPosition();
-        final var playerReachableCells = getAllReachablePositions(initialPosition);
+    /**
+     * Places a collectible on a cell, or clears the cell, e.g. when a move collecting the collectible is made or undone.
+     *
+     * <p>
+     * On a game board created from {@link Cell}s, the entity of the cell is replaced by
+     * {@link EntityCell#setEntity(Entity)}, reusing the pooled instance from
+     * {@link GameBoard#getPooledEntity(Position, byte)}. On a game board which only keeps its packed representation,
+     * the kind of the entity is written to the packed representation directly, without creating a view of the cell or
+     * an instance of the entity, so that neither allocates.
+     * </p>
+     *
+     * @param position   The position of the cell, which must not be occupied by a player.
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity, which is either
+     *                   {@link PackedBoard#ENTITY_NONE}, {@link PackedBoard#ENTITY_GEM} or
+     *                   {@link PackedBoard#ENTITY_EXTRA_LIFE}.
+     * @throws IllegalArgumentException if {@code entityKind} is neither a kind of collectible nor
+     *                                  {@link PackedBoard#ENTITY_NONE}, or the cell is not an entity cell.
+     */
+    public void setCollectible(@NotNull final Position position, final byte entityKind) {
+        if (board != null) {
+            getEntityCell(position).setEntity(entityKind == PackedBoard.ENTITY_NONE
+                    ? null
+                    : getPooledEntity(position, entityKind));
+            return;
+        }
+
+        if (entityKind != PackedBoard.ENTITY_NONE && entityKind != PackedBoard.ENTITY_GEM
+                && entityKind != PackedBoard.ENTITY_EXTRA_LIFE) {
+            throw new IllegalArgumentException();
+        }
+        final var index = packedBoard.indexOf(position);
+        if (packedBoard.getCellKind(index) == PackedBoard.CELL_WALL) {
+            throw new IllegalArgumentException();
+        }
+        onEntityChanged(index, entityKind, null);
+    }
+
+    /**
+     * Returns an entity to restore on a cell, e.g. when a move collecting it is undone.
+     *
+     * <p>
+     * If the cell initially held an entity of the same kind, that instance is reused instead of allocating a new one,
+     * so that restoring collectibles repeatedly does not allocate. The returned instance may still be owned by the
+     * cell, in which case {@link EntityCell#setEntity(Entity)} keeps it in place.
+     * </p>
+     *
+     * @param position   The position of the cell.
+     * @param entityKind The {@code PackedBoard.ENTITY_*} kind of the entity, which is either
+     *                   {@link PackedBoard#ENTITY_GEM} or {@link PackedBoard#ENTITY_EXTRA_LIFE}.
+     * @return An instance of the entity which is not owned by any other cell.
+     * @throws IllegalArgumentException if {@code entityKind} is not a kind of collectible.
+     */
+    @NotNull
+    public Entity getPooledEntity(@NotNull final Position position, final byte entityKind) {
+        if (entityKind != PackedBoard.ENTITY_GEM && entityKind != PackedBoard.ENTITY_EXTRA_LIFE) {
+            throw new IllegalArgumentException();
+        }
 
-        int actualNumOfGems = 0;
-        for (final var pos : playerReachableCells) {
-            final var cell = getCell(pos);
-            if (cell instanceof EntityCell ec && ec.getEntity() instanceof Gem) {
-                ++actualNumOfGems;
+        final var i = Arrays.binarySearch(pooledEntityIndices, packedBoard.indexOf(position));
+        if (i >= 0) {
+            final var entity = pooledEntities[i];
+            final var owner = entity.getOwner();
+            if (PackedBoard.entityKindOf(entity) == entityKind
+                    && (owner == null || owner.getPosition().equals(position))) {
+                return entity;
             }
         }
+        return Objects.requireNonNull(PackedBoard.newEntity(entityKind));
+    }
+
+    /**
+     * Returns the players which are still on the game board.
+     *
+     * <p>
+     * The returned list is a read-only view maintained by this game board, and is therefore not allocated per call.
+     * </p>
+     *
+     * @return The instances of player on the game board, in the order they are registered.
+     * @throws IllegalArgumentException if the game board has no player entities.
+     */
+    @NotNull
+    public List<Player> getPlayers() {
+        if (activePlayers.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+
+        return activePlayersView;
+    }
+
+    /**
+     * Checks whether all gems are reachable from the initial position of each player.
+     *
+     * @param executor The executor to check the reachability of gems from each group of players on.
+     * @return {@code true} if all gems are reachable.
+     */
+    private boolean isAllGemsReachable(@NotNull final Executor executor) {
+        final var startIndices = new int[players.size()];
+        for (int i = 0; i < startIndices.length; ++i) {
+            startIndices[i] = packedBoard.indexOf(Objects.requireNonNull(players.get(i).getOwner()).getPosition());
+        }
 
-        return expectedNumOfGems == actualNumOfGems;
+        return new ReachabilityValidator(packedBoard, executor).isAllGemsReachable(startIndices);
     }
 
     /**
@@ -271,7 +796,16 @@ public final class GameBoard {
      */
     @NotNull
     public Cell[] getRow(final int r) {
-        return board[r];
+        if (board != null) {
+            return board[r];
+        }
+
+        final var row = new Cell[numCols];
+        for (int c = 0; c < getNumCols(); ++c) {
+            row[c] = getCell(r, c);
+        }
+
+        return row;
     }
 
     /**
@@ -301,7 +835,56 @@ public final class GameBoard {
      */
     @NotNull
     public Cell getCell(final int r, final int c) {
-        return board[r][c];
+        if (board != null) {
+            return board[r][c];
+        }
+
+        return createCell(r, c);
+    }
+
+    /**
+     * Creates an instance of {@link Cell} from the packed representation of the game board.
+     *
+     * @param r Row index.
+     * @param c Column index.
+     * @return A new {@link Cell} instance representing the specified location, or the owner of the player if the
+     * location is occupied by a player.
+     */
+    @NotNull
+    private Cell createCell(final int r, final int c) {
+        final var index = packedBoard.indexOf(r, c);
+        final var position = new Position(r, c);
+
+        final var cellKind = packedBoard.getCellKind(index);
+        if (cellKind == PackedBoard.CELL_WALL) {
+            return new Wall(position);
+        }
+
+        final var entityKind = packedBoard.getEntityKind(index);
+        if (entityKind == PackedBoard.ENTITY_PLAYER) {
+            return Objects.requireNonNull(Objects.requireNonNull(getPlayerAt(index)).getOwner());
+        }
+
+        final var cell = cellKind == PackedBoard.CELL_STOP
+                ? new StopCell(position)
+                : new EntityCell(position, PackedBoard.newEntity(entityKind));
+        cell.board = this;
+        return cell;
+    }
+
+    /**
+     * Returns the player on a cell of the game board.
+     *
+     * @param index The row-major index of the cell.
+     * @return The {@link Player} on the cell, or {@code null} if the cell is not occupied by a player.
+     */
+    @Nullable
+    public Player getPlayerAt(final int index) {
+        if (packedBoard.getEntityKind(index) != PackedBoard.ENTITY_PLAYER) {
+            return null;
+        }
+
+        return playersById[packedBoard.getPlayerId(index)];
     }
 
     /**
@@ -355,6 +938,65 @@ public final class GameBoard {
         return getEntityCell(position.row(), position.col());
     }
 
+    /**
+     * @return The packed representation of the cells and entities in this game board.
+     */
+    @NotNull
+    public PackedBoard getPackedBoard() {
+        return packedBoard;
+    }
+
+    /**
+     * @return The strategy used to resolve slides on this game board.
+     */
+    @NotNull
+    public SlideResolver getSlideResolver() {
+        return slideResolver;
+    }
+
+    /**
+     * Sets the strategy used to resolve slides on this game board.
+     *
+     * <p>
+     * The default strategy is {@link SlideResolver#SCAN}, which needs no memory besides the game board. Selecting
+     * another strategy computes the {@link SlideTable} of this game board, and selecting {@link SlideResolver#BITBOARD}
+     * also creates the {@link Bitboards} of this game board, which are kept up to date from then on.
+     * </p>
+     *
+     * @param slideResolver The strategy used to resolve slides on this game board.
+     */
+    public void setSlideResolver(@NotNull final SlideResolver slideResolver) {
+        Objects.requireNonNull(slideResolver);
+
+        if (slideResolver != SlideResolver.SCAN) {
+            getSlideTable();
+        }
+        if (slideResolver == SlideResolver.BITBOARD) {
+            packedBoard.enableBitboards();
+        }
+        this.slideResolver = slideResolver;
+    }
+
+    /**
+     * Returns the table of static slide stops of this game board, computing it once on first use.
+     *
+     * @return The {@link SlideTable} of this game board.
+     */
+    @NotNull
+    public SlideTable getSlideTable() {
+        var table = slideTable;
+        if (table == null) {
+            synchronized (this) {
+                table = slideTable;
+                if (table == null) {
+                    table = SlideTable.of(packedBoard);
+                    slideTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
     /**
      * @return The number of rows of this game board.
      */
@@ -379,29 +1021,21 @@ public final class GameBoard {
             throw new IllegalCallerException();
         }
 
-        var iterator = players.iterator();
-        return iterator.next();
+        return players.get(0);
     }
 
     /**
      * @param id The id of the player.
-     * @return The player instance with the given id.
+     * @return The player instance with the given id, which may have been removed from the game board.
      * @throws IllegalArgumentException if the player with the id does not exist.
      */
     @NotNull
     public Player getPlayer(int id) {
-        Player player = null;
-        for (var p :
-                players) {
-            if (p.getId() == id) {
-                player = p;
-            }
-        }
-        if (player == null) {
+        if (id < 0 || id >= nextPlayerId) {
             throw new IllegalArgumentException();
         }
 
-        return player;
+        return playersById[id];
     }
 
     /**
@@ -411,7 +1045,78 @@ public final class GameBoard {
      * @return true if exists.
      */
     public boolean hasPlayer(Player player) {
-        return this.players.contains(player);
+        if (player == null || player.getId() < 0 || player.getId() >= nextPlayerId) {
+            return false;
+        }
+        return player == playersById[player.getId()];
+    }
+
+    /**
+     * Gets the lock guarding the exclusive access to this game board.
+     *
+     * <p>
+     * Each game board has its own lock, so that moves on different game boards do not contend with each other. The
+     * lock is held by operations which write the whole game board, e.g. undoing a move or kicking out a player, and
+     * while a snapshot is taken, which all exclude the moves being committed. A move only holds the read mode of
+     * {@link GameBoard#getStampedLock()} while it is committed, so that moves in disjoint regions of the game board are
+     * committed concurrently. The lock must be acquired after the {@link GameBoard#getRegionLocks() region locks} of the
+     * cells, and is not reentrant.
+     * </p>
+     *
+     * @return The write mode of {@link GameBoard#getStampedLock()}.
+     */
+    @NotNull
+    public Lock getLock() {
+        return lock;
+    }
+
+    /**
+     * Gets the lock shared by the robots playing on this game board, so that they plan and make their moves one at a
+     * time.
+     *
+     * <p>
+     * This is not {@link GameBoard#getLock()}, since a robot makes its move through the controller while holding it.
+     * Each game board has its own lock, so that robots playing on different game boards do not contend with each other.
+     * </p>
+     *
+     * @return The lock shared by the robots playing on this game board.
+     */
+    @NotNull
+    public Lock getRobotLock() {
+        return robotLock;
+    }
+
+    /**
+     * Gets the stamped lock guarding the access to this game board.
+     *
+     * <p>
+     * Moves being committed hold the read mode of this lock, while operations which need exclusive access to the game
+     * board hold the write mode. Queries which only read the game board, e.g.
+     * {@link hk.ust.cse.comp3021.pa3.controller.GameBoardController#tryMove}, can read optimistically and validate the
+     * stamp, together with a stamp of the {@link GameBoard#getRegionLocks() region locks} they read, afterwards, so that
+     * they neither block nor are blocked by moves unless a move is committed concurrently.
+     * </p>
+     *
+     * @return The stamped lock of this game board.
+     */
+    @NotNull
+    public StampedLock getStampedLock() {
+        return stampedLock;
+    }
+
+    /**
+     * Gets the locks guarding the cells of each region of this game board.
+     *
+     * <p>
+     * A move must hold the region locks of all cells it reads or writes, so that moves in disjoint regions of a large
+     * board can be resolved and committed in parallel.
+     * </p>
+     *
+     * @return The region locks of this game board.
+     */
+    @NotNull
+    public RegionLocks getRegionLocks() {
+        return regionLocks;
     }
 
 
@@ -423,16 +1128,20 @@ public final class GameBoard {
      * @return The number of gems still present in the game board.
      */
     public int getNumGems() {
-        var count = 0;
+        return packedBoard.getEntityCount(PackedBoard.ENTITY_GEM);
+    }
 
-        for (final var row : board) {
-            for (final var cell : row) {
-                if (cell instanceof EntityCell ec && ec.getEntity() instanceof Gem) {
-                    count++;
-                }
-            }
-        }
+    /**
+     * @return The number of extra lives still present in the game board.
+     */
+    public int getNumExtraLives() {
+        return packedBoard.getEntityCount(PackedBoard.ENTITY_EXTRA_LIFE);
+    }
 
-        return count;
+    /**
+     * @return The number of mines present in the game board.
+     */
+    public int getNumMines() {
+        return packedBoard.getEntityCount(PackedBoard.ENTITY_MINE);
     }
 }
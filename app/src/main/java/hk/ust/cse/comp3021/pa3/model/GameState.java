@@ -33,7 +33,7 @@ public class GameState {
      * {@link MoveStack} instance of all moves performed by the player.
      */
     @NotNull
-    private final MoveStack moveStack = new MoveStack();
+    private final MoveStack moveStack;
 
     /**
      * The number of deaths of the player.
@@ -118,6 +118,7 @@ public class GameState {
         this.player = Objects.requireNonNull(player);
         this.numLives = numLives;
         player.setGameState(this);
+        this.moveStack = new MoveStack(this.gameBoard.getNumCols());
 
         this.initialNumOfGems = this.gameBoard.getNumGems();
     }
@@ -203,6 +204,18 @@ public class GameState {
         return (++numMoves);
     }
 
+    /**
+     * Increases the number of moves taken by the player by the specified amount.
+     *
+     * @param delta The number of moves taken.
+     * @return The new number of moves taken by the player.
+     */
+    public int increaseNumMoves(final int delta) {
+        assert delta >= 0;
+        numMoves += delta;
+        return numMoves;
+    }
+
     public int increaseNumGotGems(final int delta) {
         assert delta >= 0;
         numGotGems += delta;
@@ -218,6 +231,18 @@ public class GameState {
         return (++numDeaths);
     }
 
+    /**
+     * Increases the number of deaths of the player by the specified amount.
+     *
+     * @param delta The number of deaths.
+     * @return The new number of deaths of the player.
+     */
+    public int increaseNumDeaths(final int delta) {
+        assert delta >= 0;
+        numDeaths += delta;
+        return numDeaths;
+    }
+
     /**
      * @return The current number of deaths of the player.
      */
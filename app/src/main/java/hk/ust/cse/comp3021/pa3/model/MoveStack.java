@@ -1,9 +1,17 @@
 package hk.ust.cse.comp3021.pa3.model;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -12,14 +20,147 @@ import java.util.Objects;
  * <p>A stack is a data structure which enforces Last-In First-Out (LIFO) ordering of its elements.</p>
  *
  * <p>You can read more about stacks <a href="https://en.wikipedia.org/wiki/Stack_(abstract_data_type)">here</a>.</p>
+ *
+ * <p>
+ * Moves are not retained as {@link MoveResult} instances. Each move is encoded as a fixed header of
+ * {@link MoveStack#HEADER_SIZE} ints, holding the row-major indices of its original and new positions, and the end of
+ * its slice of a shared buffer of the row-major indices of the collected gems and extra lives. A move thus takes 16
+ * bytes plus 4 bytes per collected entity. The {@link MoveResult} of a move is materialized again when it is peeked or
+ * popped, except for the {@link MoveStack#NUM_RECENT_MOVES} most recent moves, which are kept as the pushed instances.
+ * </p>
+ * <p>
+ * At most twice {@link MoveStack#maxInMemoryMoves} of the topmost moves are kept in memory. When that is exceeded, the
+ * oldest half of them is spilled as a block to a temporary file, which is deleted once this stack is unreachable.
+ * When the moves in memory are all popped, the last spilled block is paged back in. The memory taken by a stack thus
+ * stays the same no matter how many moves are pushed, and a block is only read or written once every
+ * {@link MoveStack#maxInMemoryMoves} pushes or pops.
+ * </p>
  */
 public class MoveStack {
 
+    /**
+     * The number of most recently pushed moves which are kept as the pushed instances.
+     */
+    private static final int NUM_RECENT_MOVES = 16;
+
+    /**
+     * The number of columns used to compute row-major indices when the size of the game board is unknown.
+     */
+    private static final int DEFAULT_NUM_COLS = 1 << 16;
+
+    /**
+     * The default number of moves in each block spilled to the temporary file.
+     */
+    static final int DEFAULT_MAX_IN_MEMORY_MOVES = 1 << 14;
+
+    /**
+     * The number of ints after the headers and the cells of each spilled block, holding the number of cells and the
+     * number of moves of the block.
+     */
+    private static final int TRAILER_SIZE = 2;
+
+    /**
+     * Closes, and thus deletes, the temporary file of a stack once the stack is unreachable.
+     */
+    private static final Cleaner cleaner = Cleaner.create();
+
+    /**
+     * The number of ints in the header of each move.
+     */
+    private static final int HEADER_SIZE = 4;
+
+    // Offsets of the fields in the header of each move
+    private static final int ORIG_INDEX = 0;
+    private static final int NEW_INDEX = 1;
+    private static final int CELLS_END = 2;
+    private static final int NUM_GEMS = 3;
+
+    /**
+     * The number of columns used to compute the row-major index of a position.
+     */
+    private final int numCols;
+
+    /**
+     * The number of moves spilled to the temporary file at once, and paged back in at once.
+     */
+    private final int maxInMemoryMoves;
+
+    /**
+     * The headers of the moves in memory, in the order they are pushed.
+     */
+    @NotNull
+    private int[] headers = new int[HEADER_SIZE * 8];
+
+    /**
+     * The row-major indices of the gems followed by the extra lives collected by each move in memory, in the order the
+     * moves are pushed.
+     */
+    @NotNull
+    private int[] cells = new int[16];
+
+    /**
+     * The number of moves in this stack.
+     */
+    private int size = 0;
+
+    /**
+     * The number of moves spilled to the temporary file, which are the bottommost moves of this stack.
+     */
+    private int numSpilledMoves = 0;
+
+    /**
+     * The temporary file of the spilled moves, or {@code null} if no move has been spilled yet.
+     */
+    @Nullable
+    private FileChannel spillFile = null;
+
+    /**
+     * The end of the blocks in {@link MoveStack#spillFile}.
+     */
+    private long spillEnd = 0;
+
+    /**
+     * The pushed instance of each of the most recent moves, indexed by the index of the move modulo
+     * {@link MoveStack#NUM_RECENT_MOVES}, or {@code null} if it has been evicted by a later move.
+     */
     @NotNull
-    private final List<MoveResult> moves = new ArrayList<>();
+    private final MoveResult[] recentMoves = new MoveResult[NUM_RECENT_MOVES];
 
     private int popCount = 0;
 
+    /**
+     * Creates an empty stack, which can hold moves with positions of at most 65535 columns.
+     */
+    public MoveStack() {
+        this(DEFAULT_NUM_COLS);
+    }
+
+    /**
+     * Creates an empty stack for the moves on a game board.
+     *
+     * @param numCols The number of columns of the game board.
+     * @throws IllegalArgumentException if {@code numCols} is not positive.
+     */
+    MoveStack(final int numCols) {
+        this(numCols, DEFAULT_MAX_IN_MEMORY_MOVES);
+    }
+
+    /**
+     * Creates an empty stack for the moves on a game board.
+     *
+     * @param numCols          The number of columns of the game board.
+     * @param maxInMemoryMoves The number of moves spilled to the temporary file at once, such that at most twice the
+     *                         number of moves are kept in memory.
+     * @throws IllegalArgumentException if {@code numCols} or {@code maxInMemoryMoves} is not positive.
+     */
+    MoveStack(final int numCols, final int maxInMemoryMoves) {
+        if (numCols <= 0 || maxInMemoryMoves <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.numCols = numCols;
+        this.maxInMemoryMoves = maxInMemoryMoves;
+    }
+
     /**
      * Pushes a move to this stack.
      *
@@ -29,21 +170,52 @@ public class MoveStack {
      * </p>
      *
      * @param move The move to push into this stack.
+     * @throws IllegalArgumentException if the move is not {@link MoveResult.Valid.Alive}, or if any of its positions is
+     *                                  beyond the columns of this stack.
      */
     public void push(@NotNull final MoveResult move) {
         Objects.requireNonNull(move);
-        if (!(move instanceof MoveResult.Valid.Alive)) {
+        if (!(move instanceof final MoveResult.Valid.Alive alive)) {
             throw new IllegalArgumentException();
         }
 
-        moves.add(move);
+        if (size - numSpilledMoves == 2 * maxInMemoryMoves) {
+            spill();
+        }
+
+        final var i = size - numSpilledMoves;
+        final var start = cellsEnd(i);
+        final var numCells = alive.collectedGems.size() + alive.collectedExtraLives.size();
+        if (cells.length - start < numCells) {
+            cells = Arrays.copyOf(cells, Math.max(cells.length * 2, start + numCells));
+        }
+        var end = start;
+        for (final var position : alive.collectedGems) {
+            cells[end++] = indexOf(position);
+        }
+        for (final var position : alive.collectedExtraLives) {
+            cells[end++] = indexOf(position);
+        }
+
+        if (headers.length < (i + 1) * HEADER_SIZE) {
+            headers = Arrays.copyOf(headers, headers.length * 2);
+        }
+        final var base = i * HEADER_SIZE;
+        headers[base + ORIG_INDEX] = indexOf(alive.origPosition);
+        assert alive.newPosition != null;
+        headers[base + NEW_INDEX] = indexOf(alive.newPosition);
+        headers[base + CELLS_END] = end;
+        headers[base + NUM_GEMS] = alive.collectedGems.size();
+
+        recentMoves[size % NUM_RECENT_MOVES] = move;
+        ++size;
     }
 
     /**
      * @return Whether the stack is currently empty.
      */
     public boolean isEmpty() {
-        return moves.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -53,10 +225,12 @@ public class MoveStack {
      */
     @NotNull
     public MoveResult pop() {
-        assert peek() instanceof MoveResult.Valid.Alive;
+        final var topmostMove = peek();
 
         ++popCount;
-        return moves.remove(moves.size() - 1);
+        --size;
+        recentMoves[size % NUM_RECENT_MOVES] = null;
+        return topmostMove;
     }
 
     /**
@@ -79,9 +253,195 @@ public class MoveStack {
      */
     @NotNull
     public MoveResult peek() {
-        final var topmostMove = moves.get(moves.size() - 1);
+        Objects.checkIndex(size - 1, size);
+        if (size == numSpilledMoves) {
+            pageIn();
+        }
+        final var topmostMove = materialize(size - 1);
         assert topmostMove instanceof MoveResult.Valid.Alive;
 
         return topmostMove;
     }
+
+    /**
+     * @param index The index of a move in this stack, which is in memory unless it is one of the most recent moves.
+     * @return The pushed instance of the move if it is still kept, otherwise a new instance decoded from the move.
+     */
+    @NotNull
+    private MoveResult materialize(final int index) {
+        final var recentMove = recentMoves[index % NUM_RECENT_MOVES];
+        if (recentMove != null) {
+            return recentMove;
+        }
+
+        final var i = index - numSpilledMoves;
+        final var base = i * HEADER_SIZE;
+        final var start = cellsEnd(i);
+        final var end = headers[base + CELLS_END];
+        final var gemsEnd = start + headers[base + NUM_GEMS];
+
+        final var collectedGems = new ArrayList<Position>(gemsEnd - start);
+        for (int j = start; j < gemsEnd; ++j) {
+            collectedGems.add(positionOf(cells[j]));
+        }
+        final var collectedExtraLives = new ArrayList<Position>(end - gemsEnd);
+        for (int j = gemsEnd; j < end; ++j) {
+            collectedExtraLives.add(positionOf(cells[j]));
+        }
+        return new MoveResult.Valid.Alive(positionOf(headers[base + NEW_INDEX]), positionOf(headers[base + ORIG_INDEX]),
+                collectedGems, collectedExtraLives);
+    }
+
+    /**
+     * @param i The index of a move in memory, or the number of moves in memory.
+     * @return The end of the slice of {@link MoveStack#cells} of the move before the {@code i}-th move in memory, i.e.
+     * the start of the slice of the {@code i}-th move.
+     */
+    private int cellsEnd(final int i) {
+        return i == 0 ? 0 : headers[(i - 1) * HEADER_SIZE + CELLS_END];
+    }
+
+    /**
+     * Spills the oldest {@link MoveStack#maxInMemoryMoves} moves in memory to the temporary file as a block.
+     *
+     * <p>
+     * A block is the headers of its moves, followed by their cells and a trailer of {@link MoveStack#TRAILER_SIZE}
+     * ints, so that the last block can be found from the end of the blocks.
+     * </p>
+     */
+    private void spill() {
+        final var numMoves = maxInMemoryMoves;
+        final var numInMemory = size - numSpilledMoves;
+        final var numCells = cellsEnd(numMoves);
+        final var buffer = ByteBuffer.allocate((numMoves * HEADER_SIZE + numCells + TRAILER_SIZE) * Integer.BYTES);
+        buffer.asIntBuffer()
+                .put(headers, 0, numMoves * HEADER_SIZE)
+                .put(cells, 0, numCells)
+                .put(numCells)
+                .put(numMoves);
+
+        try {
+            final var file = spillFile != null ? spillFile : openSpillFile();
+            spillEnd += writeFully(file, buffer, spillEnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Move the remaining moves to the start of the buffers
+        final var totalCells = cellsEnd(numInMemory);
+        System.arraycopy(headers, numMoves * HEADER_SIZE, headers, 0, (numInMemory - numMoves) * HEADER_SIZE);
+        System.arraycopy(cells, numCells, cells, 0, totalCells - numCells);
+        for (int i = 0; i < numInMemory - numMoves; ++i) {
+            headers[i * HEADER_SIZE + CELLS_END] -= numCells;
+        }
+        numSpilledMoves += numMoves;
+    }
+
+    /**
+     * Pages the last spilled block back in, when there is no move in memory.
+     */
+    private void pageIn() {
+        assert size == numSpilledMoves && spillFile != null;
+        try {
+            final var trailer = ByteBuffer.allocate(TRAILER_SIZE * Integer.BYTES);
+            readFully(spillFile, trailer, spillEnd - trailer.capacity());
+            final var numCells = trailer.getInt(0);
+            final var numMoves = trailer.getInt(Integer.BYTES);
+
+            final var buffer = ByteBuffer.allocate((numMoves * HEADER_SIZE + numCells) * Integer.BYTES);
+            final var start = spillEnd - trailer.capacity() - buffer.capacity();
+            readFully(spillFile, buffer, start);
+            buffer.flip();
+
+            if (headers.length < numMoves * HEADER_SIZE) {
+                headers = new int[numMoves * HEADER_SIZE];
+            }
+            if (cells.length < numCells) {
+                cells = new int[numCells];
+            }
+            buffer.asIntBuffer()
+                    .get(headers, 0, numMoves * HEADER_SIZE)
+                    .get(cells, 0, numCells);
+            numSpilledMoves -= numMoves;
+            spillEnd = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the temporary file of the spilled moves, which is deleted when it is closed by {@link MoveStack#cleaner}.
+     *
+     * @return The channel of the file.
+     * @throws IOException if the file cannot be created.
+     */
+    @NotNull
+    private FileChannel openSpillFile() throws IOException {
+        final var file = FileChannel.open(Files.createTempFile("move-stack", ".spill"), StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        cleaner.register(this, () -> {
+            try {
+                file.close();
+            } catch (IOException ignored) {
+            }
+        });
+        spillFile = file;
+        return file;
+    }
+
+    /**
+     * @param file     The file to write to.
+     * @param buffer   The bytes to write.
+     * @param position The position of the file to write at.
+     * @return The number of bytes written.
+     * @throws IOException if the file cannot be written.
+     */
+    private static int writeFully(@NotNull final FileChannel file, @NotNull final ByteBuffer buffer, final long position)
+            throws IOException {
+        var written = 0;
+        while (buffer.hasRemaining()) {
+            written += file.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * @param file     The file to read from.
+     * @param buffer   The buffer to fill.
+     * @param position The position of the file to read at.
+     * @throws IOException if the file cannot be read.
+     */
+    private static void readFully(@NotNull final FileChannel file, @NotNull final ByteBuffer buffer, final long position)
+            throws IOException {
+        var read = 0;
+        while (buffer.hasRemaining()) {
+            final var n = file.read(buffer, position + read);
+            if (n < 0) {
+                throw new IOException("Spilled moves are truncated");
+            }
+            read += n;
+        }
+    }
+
+    /**
+     * @param position The position.
+     * @return The row-major index of the position.
+     * @throws IllegalArgumentException if the position is beyond the columns of this stack, or its index overflows.
+     */
+    private int indexOf(@NotNull final Position position) {
+        final var index = (long) position.row() * numCols + position.col();
+        if (position.col() >= numCols || index > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Position cannot be encoded: " + position);
+        }
+        return (int) index;
+    }
+
+    /**
+     * @param index The row-major index of a position.
+     * @return The position.
+     */
+    @NotNull
+    private Position positionOf(final int index) {
+        return new Position(index / numCols, index % numCols);
+    }
 }
@@ -0,0 +1,944 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A compact representation of the cells and entities of a {@link GameBoard} using primitive arrays.
+ *
+ * <p>
+ * Each cell is addressed by its row-major index, i.e. {@code row * numCols + col}, and costs two bytes: one for the
+ * kind of the cell (see {@code CELL_*}), and one for the kind of the entity residing on it (see {@code ENTITY_*}).
+ * </p>
+ * <p>
+ * Instances are owned by a {@link GameBoard} and kept in sync with it; Mutations should be performed through
+ * {@link EntityCell#setEntity(Entity)} rather than on this class directly.
+ * </p>
+ * <p>
+ * The kinds are stored in tiles of {@link PackedBoard#TILE_SIZE} by {@link PackedBoard#TILE_SIZE} cells. Tiles in
+ * which every cell has the same kind, e.g. empty or walled regions, all share one canonical tile, so the memory usage
+ * scales with the populated area of the board. A canonical tile of entity kinds is materialized on its first write.
+ * The id of the player on each cell is kept in a sparse list per tile, which is only allocated for the tiles players
+ * have been on.
+ * </p>
+ * <p>
+ * The tiles of entity kinds and player ids are shared with the {@link BoardSnapshot} instances taken from this board,
+ * and are addressed through a directory of bands, i.e. rows of tiles. The first write to a tile after a snapshot is
+ * taken copies the tile of entity kinds and the list of players in the tile. The first write to a band after a snapshot
+ * copies the references to the tiles of the band, and the first write to the board after a snapshot copies the
+ * references to the bands. A write therefore copies {@code O(TILE_SIZE^2 + numRows / TILE_SIZE + numCols / TILE_SIZE)}
+ * bytes at most, and nothing once the tile has been written since the last snapshot.
+ * </p>
+ * <p>
+ * A tile is written by the holder of the {@link RegionLocks} stripe guarding it, so that moves in different regions can
+ * write the board concurrently. The state shared by all tiles is therefore either atomic, or written while holding
+ * {@link PackedBoard#tileVersions}.
+ * </p>
+ */
+public final class PackedBoard {
+
+    /**
+     * Kind of an {@link EntityCell} which is not a {@link StopCell}.
+     */
+    public static final byte CELL_EMPTY = 0;
+    /**
+     * Kind of a {@link StopCell}.
+     */
+    public static final byte CELL_STOP = 1;
+    /**
+     * Kind of a {@link Wall}.
+     */
+    public static final byte CELL_WALL = 2;
+
+    /**
+     * Kind of the absence of an entity.
+     */
+    public static final byte ENTITY_NONE = 0;
+    /**
+     * Kind of a {@link Gem}.
+     */
+    public static final byte ENTITY_GEM = 1;
+    /**
+     * Kind of an {@link ExtraLife}.
+     */
+    public static final byte ENTITY_EXTRA_LIFE = 2;
+    /**
+     * Kind of a {@link Mine}.
+     */
+    public static final byte ENTITY_MINE = 3;
+    /**
+     * Kind of a {@link Player}.
+     */
+    public static final byte ENTITY_PLAYER = 4;
+
+    /**
+     * Base-2 logarithm of {@link PackedBoard#TILE_SIZE}.
+     */
+    static final int TILE_SHIFT = 6;
+    /**
+     * Number of rows and columns of cells in each tile.
+     */
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    /**
+     * Mask of the row or column of a cell within its tile.
+     */
+    static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * Canonical tiles in which every cell has the same kind, indexed by the kind. These tiles are shared by all boards
+     * and never written.
+     */
+    @NotNull
+    private static final byte[][] UNIFORM_TILES = new byte[ENTITY_PLAYER + 1][];
+
+    static {
+        for (byte kind = 0; kind < UNIFORM_TILES.length; ++kind) {
+            UNIFORM_TILES[kind] = new byte[TILE_SIZE * TILE_SIZE];
+            Arrays.fill(UNIFORM_TILES[kind], kind);
+        }
+    }
+
+    /**
+     * Number of rows in the board.
+     */
+    private final int numRows;
+    /**
+     * Number of columns in the board.
+     */
+    private final int numCols;
+    /**
+     * Number of columns of tiles in the board.
+     */
+    private final int numTileCols;
+
+    /**
+     * Multiplier and shift which divide a row-major index by {@link PackedBoard#numCols}, since the tiles are addressed
+     * by row and column on every access.
+     *
+     * <p>
+     * With {@code l = ceil(log2(numCols))}, {@code shift = 31 + l} and {@code multiplier = ceil(2^shift / numCols)},
+     * the error {@code multiplier * numCols - 2^shift} is less than {@code 2^l}, so
+     * {@code (index * multiplier) >>> shift} equals {@code index / numCols} for every non-negative {@code int}, and the
+     * product fits in a {@code long}.
+     * </p>
+     */
+    private final long rowMultiplier;
+    /**
+     * See {@link PackedBoard#rowMultiplier}.
+     */
+    private final int rowShift;
+
+    /**
+     * Kind of each cell, in tiles ordered by row-major order. Since the kinds of the cells never change, these tiles are
+     * not split into bands.
+     */
+    @NotNull
+    private final byte[][] cellTiles;
+    /**
+     * Kind of the entity on each cell, indexed by the row and then the column of the tile.
+     */
+    @NotNull
+    private byte[][][] entityTiles;
+    /**
+     * Players on the cells of each tile, indexed by the row and then the column of the tile. Each list is stored as
+     * {@code [count, offset0, id0, offset1, id1, ...]}, where {@code offset} is the index of a cell holding a
+     * {@link PackedBoard#ENTITY_PLAYER} within the tile, and {@code id} is the id of the player. Lists are {@code null}
+     * until a player is placed in the tile, and are copied together with the tiles of entity kinds.
+     */
+    @NotNull
+    private int[][][] playerTiles;
+
+    /**
+     * Whether the directories {@link PackedBoard#entityTiles} and {@link PackedBoard#playerTiles} are shared with a
+     * snapshot, and must be copied before replacing any of their bands. These fields are only written while holding
+     * {@link PackedBoard#tileVersions}, or while no tile is being written.
+     */
+    private boolean entityTilesShared = false;
+
+    /**
+     * The number of snapshots taken from this board.
+     */
+    private int snapshotVersion = 0;
+
+    /**
+     * The value of {@link PackedBoard#snapshotVersion} when each tile of entity kinds was last copied, or {@code -1} if
+     * it is a canonical tile. A tile is shared, and must be copied before it is written, iff its version is not the
+     * current one.
+     */
+    @NotNull
+    private final int[] tileVersions;
+    /**
+     * The value of {@link PackedBoard#snapshotVersion} when each band of {@link PackedBoard#entityTiles} and
+     * {@link PackedBoard#playerTiles} was last copied. A band is shared iff its version is not the current one. Only
+     * accessed while holding {@link PackedBoard#tileVersions}.
+     */
+    @NotNull
+    private final int[] bandVersions;
+
+    /**
+     * Number of entities of each kind on the board, indexed by the {@code ENTITY_*} kind.
+     */
+    @NotNull
+    private final AtomicIntegerArray entityCounts = new AtomicIntegerArray(ENTITY_PLAYER + 1);
+
+    /**
+     * The bitsets of the entities on the board, or {@code null} if they are not enabled.
+     */
+    @Nullable
+    private volatile Bitboards bitboards = null;
+
+    /**
+     * Whether this board is owned by a {@link GameBoard}.
+     */
+    private boolean adopted = false;
+
+    /**
+     * Creates an instance using the tiles of a builder.
+     *
+     * @param builder The builder.
+     */
+    private PackedBoard(@NotNull final Builder builder) {
+        this.numRows = builder.numRows;
+        this.numCols = builder.numCols;
+        this.numTileCols = builder.numTileCols;
+        this.rowShift = Integer.SIZE - 1 + (Integer.SIZE - Integer.numberOfLeadingZeros(numCols - 1));
+        this.rowMultiplier = ((1L << rowShift) + numCols - 1) / numCols;
+        this.cellTiles = builder.cellTiles;
+        final var numTileRows = cellTiles.length / numTileCols;
+        this.entityTiles = new byte[numTileRows][numTileCols][];
+        this.playerTiles = new int[numTileRows][numTileCols][];
+        this.tileVersions = new int[cellTiles.length];
+        this.bandVersions = new int[numTileRows];
+
+        for (int i = 0; i < cellTiles.length; ++i) {
+            final var tile = toCanonicalTile(builder.entityTiles[i], i);
+            cellTiles[i] = toCanonicalTile(cellTiles[i], i);
+            entityTiles[i / numTileCols][i % numTileCols] = tile;
+            if (isUniformTile(tile)) {
+                tileVersions[i] = -1;
+            }
+            countEntities(tile, i);
+        }
+    }
+
+    /**
+     * Creates an instance using the provided arrays.
+     *
+     * @param numRows     The number of rows in the board.
+     * @param numCols     The number of columns in the board.
+     * @param cellKinds   The kind of each cell in row-major order. The array is copied into tiles.
+     * @param entityKinds The kind of the entity on each cell in row-major order. The array is copied into tiles.
+     * @return A new instance with the given cell and entity kinds.
+     * @throws IllegalArgumentException if the length of either array is not {@code numRows * numCols}, or either array
+     *                                  contains an unknown kind.
+     */
+    @NotNull
+    static PackedBoard of(final int numRows,
+                          final int numCols,
+                          @NotNull final byte[] cellKinds,
+                          @NotNull final byte[] entityKinds) {
+        Objects.requireNonNull(cellKinds);
+        Objects.requireNonNull(entityKinds);
+
+        final var builder = new Builder(numRows, numCols);
+        if (cellKinds.length != numRows * numCols || entityKinds.length != numRows * numCols) {
+            throw new IllegalArgumentException();
+        }
+
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                builder.set(r, c, cellKinds[r * numCols + c], entityKinds[r * numCols + c]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates an instance mirroring the given cells.
+     *
+     * @param numRows The number of rows in the board.
+     * @param numCols The number of columns in the board.
+     * @param cells   The cells to mirror.
+     * @return A new instance with the same cell and entity kinds as {@code cells}.
+     */
+    @NotNull
+    static PackedBoard of(final int numRows, final int numCols, @NotNull final Cell[][] cells) {
+        final var builder = new Builder(numRows, numCols);
+
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                final var cell = cells[r][c];
+                final var entityKind = cell instanceof EntityCell ec ? entityKindOf(ec.getEntity()) : ENTITY_NONE;
+                builder.set(r, c, cellKindOf(cell), entityKind);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param cell The cell.
+     * @return The {@code CELL_*} kind of {@code cell}.
+     */
+    static byte cellKindOf(@NotNull final Cell cell) {
+        if (cell instanceof StopCell) {
+            return CELL_STOP;
+        }
+        if (cell instanceof EntityCell) {
+            return CELL_EMPTY;
+        }
+        return CELL_WALL;
+    }
+
+    /**
+     * @param entity The entity, or {@code null}.
+     * @return The {@code ENTITY_*} kind of {@code entity}.
+     */
+    static byte entityKindOf(@Nullable final Entity entity) {
+        if (entity instanceof Gem) {
+            return ENTITY_GEM;
+        }
+        if (entity instanceof ExtraLife) {
+            return ENTITY_EXTRA_LIFE;
+        }
+        if (entity instanceof Mine) {
+            return ENTITY_MINE;
+        }
+        if (entity instanceof Player) {
+            return ENTITY_PLAYER;
+        }
+        return ENTITY_NONE;
+    }
+
+    /**
+     * Creates a new, unowned entity of the given kind.
+     *
+     * @param entityKind The {@code ENTITY_*} kind of the entity.
+     * @return A new instance of the entity, or {@code null} if {@code entityKind} is {@link #ENTITY_NONE}.
+     * @throws IllegalArgumentException if {@code entityKind} is {@link #ENTITY_PLAYER} or not a known kind.
+     */
+    @Nullable
+    static Entity newEntity(final byte entityKind) {
+        return switch (entityKind) {
+            case ENTITY_NONE -> null;
+            case ENTITY_GEM -> new Gem();
+            case ENTITY_EXTRA_LIFE -> new ExtraLife();
+            case ENTITY_MINE -> new Mine();
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Marks this board as owned by a {@link GameBoard}.
+     *
+     * @throws IllegalArgumentException if this board is already owned by another game board.
+     */
+    void adopt() {
+        if (adopted) {
+            throw new IllegalArgumentException();
+        }
+        adopted = true;
+    }
+
+    /**
+     * @return The number of rows in the board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns in the board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The number of cells in the board.
+     */
+    public int size() {
+        return numRows * numCols;
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The row-major index of the cell.
+     */
+    public int indexOf(final int r, final int c) {
+        return r * numCols + c;
+    }
+
+    /**
+     * @param position The position of the cell.
+     * @return The row-major index of the cell.
+     */
+    public int indexOf(@NotNull final Position position) {
+        return indexOf(position.row(), position.col());
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@link Position} of the cell.
+     */
+    @NotNull
+    public Position positionOf(final int index) {
+        return new Position(index / numCols, index % numCols);
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The row of the cell.
+     */
+    private int rowOf(final int index) {
+        return (int) ((index * rowMultiplier) >>> rowShift);
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@code CELL_*} kind of the cell.
+     */
+    public byte getCellKind(final int index) {
+        final var r = rowOf(index);
+        final var c = index - r * numCols;
+        return cellTiles[tileIndexOf(r, c, numTileCols)][offsetInTile(r, c)];
+    }
+
+    /**
+     * Walks the cells from a cell in a direction until the slide is stopped by a wall, a stop cell or the border of the
+     * board.
+     *
+     * <p>
+     * This is the same stop as {@link SlideTable#getStopIndex(Direction, int)}, for boards without a slide table. Since
+     * the kinds of the cells never change during a game, the result does not depend on any lock.
+     * </p>
+     *
+     * @param direction The direction of the slide.
+     * @param index     The row-major index of the cell to slide from.
+     * @return The row-major index of the cell where the slide stops if no entity is in the way. This is {@code index}
+     * if the player cannot move in {@code direction} at all.
+     */
+    public int scanStopIndex(@NotNull final Direction direction, final int index) {
+        if (getCellKind(index) == CELL_WALL) {
+            return index;
+        }
+        final var dRow = direction.getRowOffset();
+        final var dCol = direction.getColOffset();
+        final var stride = dRow * numCols + dCol;
+        var row = rowOf(index);
+        var col = index - row * numCols;
+        var stopIndex = index;
+        while (true) {
+            row += dRow;
+            col += dCol;
+            if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+                return stopIndex;
+            }
+            final var cellKind = getCellKind(stopIndex + stride);
+            if (cellKind == CELL_WALL) {
+                return stopIndex;
+            }
+            stopIndex += stride;
+            if (cellKind == CELL_STOP) {
+                return stopIndex;
+            }
+        }
+    }
+
+    /**
+     * @param index The row-major index of the cell.
+     * @return The {@code ENTITY_*} kind of the entity on the cell.
+     */
+    public byte getEntityKind(final int index) {
+        final var r = rowOf(index);
+        final var c = index - r * numCols;
+        return entityTiles[r >>> TILE_SHIFT][c >>> TILE_SHIFT][offsetInTile(r, c)];
+    }
+
+    /**
+     * Sets the kind of the entity on a cell.
+     *
+     * @param index      The row-major index of the cell.
+     * @param entityKind The new {@code ENTITY_*} kind of the entity on the cell.
+     */
+    void setEntityKind(final int index, final byte entityKind) {
+        final var r = rowOf(index);
+        final var c = index - r * numCols;
+        final var tile = getWritableTile(r >>> TILE_SHIFT, c >>> TILE_SHIFT);
+        final var offset = offsetInTile(r, c);
+        final var oldEntityKind = tile[offset];
+        if (oldEntityKind == ENTITY_PLAYER && entityKind != ENTITY_PLAYER) {
+            removePlayerId(playerTiles[r >>> TILE_SHIFT][c >>> TILE_SHIFT], offset);
+        }
+
+        final var bitboards = this.bitboards;
+        if (bitboards != null) {
+            bitboards.replace(index, oldEntityKind, entityKind);
+        }
+
+        entityCounts.decrementAndGet(oldEntityKind);
+        entityCounts.incrementAndGet(entityKind);
+        tile[offset] = entityKind;
+    }
+
+    /**
+     * @param index The row-major index of a cell holding a {@link PackedBoard#ENTITY_PLAYER}.
+     * @return The id of the player on the cell.
+     */
+    int getPlayerId(final int index) {
+        final var r = rowOf(index);
+        final var c = index - r * numCols;
+        return findPlayerId(playerTiles[r >>> TILE_SHIFT][c >>> TILE_SHIFT], offsetInTile(r, c));
+    }
+
+    /**
+     * Sets the id of the player on a cell, which must be done before the kind of the entity on the cell is set to
+     * {@link PackedBoard#ENTITY_PLAYER}.
+     *
+     * @param index    The row-major index of the cell.
+     * @param playerId The id of the player.
+     */
+    void setPlayerId(final int index, final int playerId) {
+        final var r = rowOf(index);
+        final var c = index - r * numCols;
+        final var tileRow = r >>> TILE_SHIFT;
+        final var tileCol = c >>> TILE_SHIFT;
+        getWritableTile(tileRow, tileCol);
+
+        final var playerTile = playerTiles[tileRow][tileCol];
+        final var newPlayerTile = putPlayerId(playerTile, offsetInTile(r, c), playerId);
+        if (newPlayerTile != playerTile) {
+            synchronized (tileVersions) {
+                unshareBand(tileRow);
+                playerTiles[tileRow][tileCol] = newPlayerTile;
+            }
+        }
+    }
+
+    /**
+     * Returns a tile of entity kinds which is not shared with any snapshot or other board, copying it and its list of
+     * players if necessary.
+     *
+     * @param tileRow The row of the tile.
+     * @param tileCol The column of the tile.
+     * @return The tile which can be written in place.
+     */
+    @NotNull
+    private byte[] getWritableTile(final int tileRow, final int tileCol) {
+        final var tileIndex = tileRow * numTileCols + tileCol;
+        if (tileVersions[tileIndex] == snapshotVersion) {
+            return entityTiles[tileRow][tileCol];
+        }
+
+        final var tile = entityTiles[tileRow][tileCol].clone();
+        final var playerTile = playerTiles[tileRow][tileCol];
+        final var playerTileCopy = playerTile != null ? playerTile.clone() : null;
+        synchronized (tileVersions) {
+            unshareBand(tileRow);
+            entityTiles[tileRow][tileCol] = tile;
+            playerTiles[tileRow][tileCol] = playerTileCopy;
+        }
+        tileVersions[tileIndex] = snapshotVersion;
+        return tile;
+    }
+
+    /**
+     * Copies the directories {@link PackedBoard#entityTiles} and {@link PackedBoard#playerTiles}, and their bands of a
+     * row of tiles, if they are shared with a snapshot. Must be called while holding {@link PackedBoard#tileVersions}.
+     *
+     * @param tileRow The row of the tiles of the band.
+     */
+    private void unshareBand(final int tileRow) {
+        if (entityTilesShared) {
+            entityTiles = entityTiles.clone();
+            playerTiles = playerTiles.clone();
+            entityTilesShared = false;
+        }
+        if (bandVersions[tileRow] != snapshotVersion) {
+            entityTiles[tileRow] = entityTiles[tileRow].clone();
+            playerTiles[tileRow] = playerTiles[tileRow].clone();
+            bandVersions[tileRow] = snapshotVersion;
+        }
+    }
+
+    /**
+     * Shares the current entity kinds and player ids with a snapshot, so that subsequent writes to this board copy the
+     * affected tiles instead of modifying them in place. No tile may be written concurrently.
+     *
+     * @return The tiles of entity kinds, indexed by the row and then the column of the tile, which must not be modified
+     * by the caller.
+     */
+    @NotNull
+    byte[][][] shareEntityTiles() {
+        if (!entityTilesShared) {
+            entityTilesShared = true;
+            ++snapshotVersion;
+        }
+        return entityTiles;
+    }
+
+    /**
+     * @return The lists of players in each tile, indexed by the row and then the column of the tile, which must not be
+     * modified by the caller. They are only shared with a snapshot if {@link PackedBoard#shareEntityTiles()} is called
+     * before and no tile is written in between. See {@link PackedBoard#findPlayerId(int[], int)}.
+     */
+    @NotNull
+    int[][][] getPlayerTiles() {
+        return playerTiles;
+    }
+
+    /**
+     * @param playerTile The list of players in a tile, or {@code null} if no player has been placed in the tile.
+     * @param offset     The index of a cell within the tile.
+     * @return The id of the player on the cell, or {@code -1} if the list has no player on the cell.
+     */
+    static int findPlayerId(@Nullable final int[] playerTile, final int offset) {
+        if (playerTile != null) {
+            final var end = 1 + 2 * playerTile[0];
+            for (int i = 1; i < end; i += 2) {
+                if (playerTile[i] == offset) {
+                    return playerTile[i + 1];
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the id of the player on a cell in the list of players of a tile, which is written in place if it has room.
+     *
+     * @param playerTile The list of players in the tile, or {@code null} if no player has been placed in the tile.
+     * @param offset     The index of the cell within the tile.
+     * @param playerId   The id of the player.
+     * @return The list containing the player, which is a new array if {@code playerTile} is {@code null} or full.
+     */
+    @NotNull
+    private static int[] putPlayerId(@Nullable final int[] playerTile, final int offset, final int playerId) {
+        if (playerTile == null) {
+            return new int[]{1, offset, playerId, 0, 0};
+        }
+
+        final var end = 1 + 2 * playerTile[0];
+        for (int i = 1; i < end; i += 2) {
+            if (playerTile[i] == offset) {
+                playerTile[i + 1] = playerId;
+                return playerTile;
+            }
+        }
+        final var newPlayerTile = end == playerTile.length ? Arrays.copyOf(playerTile, 2 * end - 1) : playerTile;
+        newPlayerTile[end] = offset;
+        newPlayerTile[end + 1] = playerId;
+        ++newPlayerTile[0];
+        return newPlayerTile;
+    }
+
+    /**
+     * Removes the player on a cell from the list of players of a tile in place.
+     *
+     * @param playerTile The list of players in the tile.
+     * @param offset     The index of the cell within the tile.
+     */
+    private static void removePlayerId(@Nullable final int[] playerTile, final int offset) {
+        if (playerTile == null) {
+            return;
+        }
+
+        final var last = 2 * playerTile[0] - 1;
+        for (int i = 1; i <= last; i += 2) {
+            if (playerTile[i] == offset) {
+                playerTile[i] = playerTile[last];
+                playerTile[i + 1] = playerTile[last + 1];
+                --playerTile[0];
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The tiles of cell kinds, which must not be modified by the caller.
+     */
+    @NotNull
+    byte[][] getCellTiles() {
+        return cellTiles;
+    }
+
+    /**
+     * @return The number of columns of tiles in the board.
+     */
+    int getNumTileCols() {
+        return numTileCols;
+    }
+
+    /**
+     * @return A copy of the number of entities of each kind on the board, indexed by the {@code ENTITY_*} kind.
+     */
+    @NotNull
+    int[] copyEntityCounts() {
+        final var counts = new int[entityCounts.length()];
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = entityCounts.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @param entityKind The {@code ENTITY_*} kind of the entities.
+     * @return The number of entities of the given kind on the board.
+     */
+    public int getEntityCount(final byte entityKind) {
+        return entityCounts.get(entityKind);
+    }
+
+    /**
+     * @return The number of tiles of entity kinds which have been materialized, i.e. are not canonical tiles.
+     */
+    public int getNumMaterializedTiles() {
+        int count = 0;
+        for (final var band : entityTiles) {
+            for (final var tile : band) {
+                if (!isUniformTile(tile)) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates the {@link Bitboards} of this board if they do not exist yet. Once created, they are kept in sync with
+     * this board.
+     */
+    synchronized void enableBitboards() {
+        if (bitboards == null) {
+            bitboards = new Bitboards(this);
+        }
+    }
+
+    /**
+     * @return The bitsets of the entities on this board, or {@code null} if they are not enabled.
+     */
+    @Nullable
+    public Bitboards getBitboards() {
+        return bitboards;
+    }
+
+    /**
+     * Replaces a tile by the canonical tile of its kind if all cells of the tile within the board have the same kind.
+     *
+     * @param tile      The tile, or {@code null} if no cell of the tile has been set.
+     * @param tileIndex The index of the tile.
+     * @return The canonical tile or {@code tile}.
+     */
+    @NotNull
+    private byte[] toCanonicalTile(@Nullable final byte[] tile, final int tileIndex) {
+        if (tile == null) {
+            return UNIFORM_TILES[0];
+        }
+
+        final var numTileRowCells = numCellsInTile(numRows, tileIndex / numTileCols);
+        final var numTileColCells = numCellsInTile(numCols, tileIndex % numTileCols);
+        final var kind = tile[0];
+        for (int r = 0; r < numTileRowCells; ++r) {
+            for (int c = 0; c < numTileColCells; ++c) {
+                if (tile[offsetInTile(r, c)] != kind) {
+                    return tile;
+                }
+            }
+        }
+        return UNIFORM_TILES[kind];
+    }
+
+    /**
+     * Adds the entities of a tile to {@link PackedBoard#entityCounts}.
+     *
+     * @param tile      The tile of entity kinds.
+     * @param tileIndex The index of the tile.
+     * @throws IllegalArgumentException if the tile contains an unknown entity kind.
+     */
+    private void countEntities(@NotNull final byte[] tile, final int tileIndex) {
+        final var numTileRowCells = numCellsInTile(numRows, tileIndex / numTileCols);
+        final var numTileColCells = numCellsInTile(numCols, tileIndex % numTileCols);
+
+        if (isUniformTile(tile)) {
+            entityCounts.addAndGet(tile[0], numTileRowCells * numTileColCells);
+            return;
+        }
+        for (int r = 0; r < numTileRowCells; ++r) {
+            for (int c = 0; c < numTileColCells; ++c) {
+                entityCounts.incrementAndGet(tile[offsetInTile(r, c)]);
+            }
+        }
+    }
+
+    /**
+     * @param tile The tile.
+     * @return Whether {@code tile} is a canonical tile.
+     */
+    private static boolean isUniformTile(@NotNull final byte[] tile) {
+        return tile == UNIFORM_TILES[tile[0]];
+    }
+
+    /**
+     * @param numCells  The number of rows or columns of cells in the board.
+     * @param tileIndex The row or column of the tile.
+     * @return The number of rows or columns of cells of the tile within the board.
+     */
+    private static int numCellsInTile(final int numCells, final int tileIndex) {
+        return Math.min(TILE_SIZE, numCells - (tileIndex << TILE_SHIFT));
+    }
+
+    /**
+     * @param numCells The number of rows or columns of cells.
+     * @return The number of rows or columns of tiles covering the cells.
+     */
+    private static int numTilesOf(final int numCells) {
+        return (numCells + TILE_MASK) >>> TILE_SHIFT;
+    }
+
+    /**
+     * @param r           Row index of the cell.
+     * @param c           Column index of the cell.
+     * @param numTileCols The number of columns of tiles in the board.
+     * @return The index of the tile containing the cell.
+     */
+    static int tileIndexOf(final int r, final int c, final int numTileCols) {
+        return (r >>> TILE_SHIFT) * numTileCols + (c >>> TILE_SHIFT);
+    }
+
+    /**
+     * @param r Row index of the cell.
+     * @param c Column index of the cell.
+     * @return The index of the cell within its tile.
+     */
+    static int offsetInTile(final int r, final int c) {
+        return ((r & TILE_MASK) << TILE_SHIFT) | (c & TILE_MASK);
+    }
+
+    /**
+     * A builder of {@link PackedBoard} which only allocates the tiles containing cells which are not empty.
+     *
+     * <p>
+     * Cells which are never set are empty cells without any entity.
+     * </p>
+     */
+    public static final class Builder {
+
+        /**
+         * Number of rows in the board.
+         */
+        private final int numRows;
+        /**
+         * Number of columns in the board.
+         */
+        private final int numCols;
+        /**
+         * Number of columns of tiles in the board.
+         */
+        private final int numTileCols;
+
+        /**
+         * Kind of each cell, in tiles ordered by row-major order. Tiles are {@code null} until a non-empty cell is set.
+         */
+        @NotNull
+        private final byte[][] cellTiles;
+        /**
+         * Kind of the entity on each cell, in tiles ordered by row-major order. Tiles are {@code null} until an entity
+         * is set.
+         */
+        @NotNull
+        private final byte[][] entityTiles;
+
+        /**
+         * Whether {@link Builder#build()} has been called.
+         */
+        private boolean built = false;
+
+        /**
+         * Creates an instance.
+         *
+         * @param numRows The number of rows in the board.
+         * @param numCols The number of columns in the board.
+         * @throws IllegalArgumentException if {@code numRows} or {@code numCols} is not positive, or the board has more
+         *                                  than {@link Integer#MAX_VALUE} cells.
+         */
+        public Builder(final int numRows, final int numCols) {
+            if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException();
+            }
+
+            this.numRows = numRows;
+            this.numCols = numCols;
+            this.numTileCols = numTilesOf(numCols);
+            this.cellTiles = new byte[numTilesOf(numRows) * numTileCols][];
+            this.entityTiles = new byte[cellTiles.length][];
+        }
+
+        /**
+         * Sets the kinds of a cell and the entity on it.
+         *
+         * @param r          Row index.
+         * @param c          Column index.
+         * @param cellKind   The {@code CELL_*} kind of the cell.
+         * @param entityKind The {@code ENTITY_*} kind of the entity on the cell.
+         * @return This builder.
+         * @throws IllegalArgumentException  if either kind is unknown.
+         * @throws IndexOutOfBoundsException if the cell is outside the board.
+         * @throws IllegalStateException     if {@link Builder#build()} has been called.
+         */
+        @NotNull
+        public Builder set(final int r, final int c, final byte cellKind, final byte entityKind) {
+            Objects.checkIndex(r, numRows);
+            Objects.checkIndex(c, numCols);
+            if (cellKind < CELL_EMPTY || cellKind > CELL_WALL || entityKind < ENTITY_NONE || entityKind > ENTITY_PLAYER) {
+                throw new IllegalArgumentException();
+            }
+            if (built) {
+                throw new IllegalStateException();
+            }
+
+            final var tileIndex = tileIndexOf(r, c, numTileCols);
+            final var offset = offsetInTile(r, c);
+            if (cellKind != CELL_EMPTY || cellTiles[tileIndex] != null) {
+                getTile(cellTiles, tileIndex)[offset] = cellKind;
+            }
+            if (entityKind != ENTITY_NONE || entityTiles[tileIndex] != null) {
+                getTile(entityTiles, tileIndex)[offset] = entityKind;
+            }
+            return this;
+        }
+
+        /**
+         * Creates the board. Tiles in which all cells have the same kind are replaced by canonical tiles.
+         *
+         * @return The new instance.
+         * @throws IllegalStateException if this method has been called.
+         */
+        @NotNull
+        public PackedBoard build() {
+            if (built) {
+                throw new IllegalStateException();
+            }
+            built = true;
+
+            return new PackedBoard(this);
+        }
+
+        /**
+         * @param tiles     The tiles.
+         * @param tileIndex The index of the tile.
+         * @return The tile, which is allocated if it is {@code null}.
+         */
+        @NotNull
+        private static byte[] getTile(@NotNull final byte[][] tiles, final int tileIndex) {
+            if (tiles[tileIndex] == null) {
+                tiles[tileIndex] = new byte[TILE_SIZE * TILE_SIZE];
+            }
+            return tiles[tileIndex];
+        }
+    }
+}
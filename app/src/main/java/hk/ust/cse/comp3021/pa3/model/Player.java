@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The player entity on a game board.
@@ -13,7 +14,11 @@ import java.util.Objects;
  * </p>
  */
 public final class Player extends Entity {
-    private static int count = 0;
+    /**
+     * The next id to give a player which is not yet on any {@link GameBoard}. These ids are negative, so that they
+     * never collide with the ids allocated by a game board.
+     */
+    private static final AtomicInteger nextUnregisteredId = new AtomicInteger(-1);
     private static final String[] PLAYER_IMAGES = new String[]{
             "/images/player.png",
             "/images/player2.png",
@@ -21,9 +26,10 @@ public final class Player extends Entity {
 
     /**
      * The id of the player instance.
-     * Each player should have unique id.
+     * Each player should have unique id within its game; It is reassigned when the player is registered to a
+     * {@link GameBoard}.
      */
-    final int id;
+    int id;
 
     /**
      * The game state that this player is associated with.
@@ -31,7 +37,7 @@ public final class Player extends Entity {
     @Nullable
     GameState gameState;
 
-    final String image;
+    String image;
 
     /**
      * Creates an instance of {@link Player}, initially not present on any {@link EntityCell}.
@@ -43,8 +49,21 @@ public final class Player extends Entity {
     public Player(@Nullable EntityCell owner, @Nullable GameState state) {
         super(owner);
         this.gameState = state;
-        id = count++;
-        image = PLAYER_IMAGES[id % PLAYER_IMAGES.length];
+        assignId(nextUnregisteredId.getAndDecrement());
+    }
+
+    /**
+     * Sets the id of this player, and the image corresponding to the id.
+     *
+     * <p>
+     * This method is called by {@link GameBoard} when the player is registered, so that ids are allocated per game.
+     * </p>
+     *
+     * @param id The new id of the player.
+     */
+    void assignId(final int id) {
+        this.id = id;
+        this.image = PLAYER_IMAGES[Math.floorMod(id, PLAYER_IMAGES.length)];
     }
 
     /**
@@ -65,6 +84,18 @@ public final class Player extends Entity {
         return id;
     }
 
+    /**
+     * Get the variant of the image of a player, which distinguishes the players sharing the same image, e.g. by
+     * tinting the image differently.
+     *
+     * @param id The id of the player.
+     * @return {@code 0} for the first players of a game, each having its own image, then {@code 1} for the next players
+     * reusing the same images, and so on.
+     */
+    public static int getImageVariant(final int id) {
+        return Math.floorDiv(id, PLAYER_IMAGES.length);
+    }
+
     /**
      * Get the game state that the player is associated with.
      *
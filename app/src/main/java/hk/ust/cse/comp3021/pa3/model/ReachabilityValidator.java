@@ -0,0 +1,350 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks whether all gems on a {@link PackedBoard} can be reached by each player.
+ *
+ * <p>
+ * A cell is "stoppable" from a starting cell iff a player can stop on the cell with any combination of moves, in
+ * which a move may end on any stop cell it passes over, or on the last cell before a wall or the border of the board.
+ * A cell is reachable iff it shares a horizontal or vertical run of non-wall cells with a stoppable cell. Other
+ * entities on the board, including players and mines, are not considered.
+ * </p>
+ * <p>
+ * Cells are addressed by their row-major index, and all sets of cells are bitsets backed by {@code long[]}, so that no
+ * object is allocated per cell while validating a game board.
+ * </p>
+ * <p>
+ * Players whose starting cells share both their horizontal and vertical runs can reach exactly the same cells, so they
+ * are checked once as a group. Each group is checked by a separate task on an {@link Executor}.
+ * </p>
+ */
+final class ReachabilityValidator {
+
+    /**
+     * The board to validate.
+     */
+    @NotNull
+    private final PackedBoard packedBoard;
+
+    /**
+     * The executor to run the check of each group of players on.
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * Starting cells from which all gems are reachable, used to skip traversing from players in the same component
+     * again.
+     */
+    @NotNull
+    private final List<Integer> successfulStartIndices = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether a starting cell from which some gems are unreachable has been found.
+     */
+    private volatile boolean failed = false;
+
+    /**
+     * Creates an instance.
+     *
+     * @param packedBoard The board to validate.
+     * @param executor    The executor to run the check of each group of players on.
+     */
+    ReachabilityValidator(@NotNull final PackedBoard packedBoard, @NotNull final Executor executor) {
+        this.packedBoard = Objects.requireNonNull(packedBoard);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * @param startIndices The row-major index of the cell of each player.
+     * @return {@code true} if all gems on the board are reachable from every cell in {@code startIndices}.
+     */
+    boolean isAllGemsReachable(@NotNull final int[] startIndices) {
+        // Group the players by the runs containing their starting cells, keeping one starting cell per group
+        final var groups = new LinkedHashMap<Long, Integer>();
+        for (final var startIndex : startIndices) {
+            final long key = ((long) findRunStart(startIndex, 0, 1) << Integer.SIZE) | findRunStart(startIndex, 1, 0);
+            groups.putIfAbsent(key, startIndex);
+        }
+
+        // Without any parallelism in the common pool, CompletableFuture would start a new thread for each task instead
+        if (groups.size() == 1 || (executor == ForkJoinPool.commonPool() && ForkJoinPool.getCommonPoolParallelism() <= 1)) {
+            return groups.values().stream().allMatch(this::isAllGemsReachableFrom);
+        }
+
+        final var tasks = groups.values().stream()
+                .map(startIndex -> CompletableFuture.supplyAsync(() -> isAllGemsReachableFrom(startIndex), executor))
+                .toList();
+        return tasks.stream().allMatch(CompletableFuture::join);
+    }
+
+    /**
+     * @param startIndex The row-major index of the starting cell.
+     * @return {@code true} if all gems on the board are reachable from {@code startIndex}.
+     */
+    private boolean isAllGemsReachableFrom(final int startIndex) {
+        if (failed) {
+            return false;
+        }
+        if (!new Traversal(startIndex).run()) {
+            failed = true;
+            return false;
+        }
+
+        successfulStartIndices.add(startIndex);
+        return true;
+    }
+
+    /**
+     * @param index The row-major index of a non-wall cell.
+     * @param dRow  The row offset of the axis of the run.
+     * @param dCol  The column offset of the axis of the run.
+     * @return The row-major index of the first cell of the run of non-wall cells containing {@code index} along the
+     * axis.
+     */
+    private int findRunStart(final int index, final int dRow, final int dCol) {
+        final var numCols = packedBoard.getNumCols();
+        final var stride = dRow * numCols + dCol;
+
+        int row = index / numCols;
+        int col = index % numCols;
+        int current = index;
+        while (row - dRow >= 0 && col - dCol >= 0 && packedBoard.getCellKind(current - stride) != PackedBoard.CELL_WALL) {
+            row -= dRow;
+            col -= dCol;
+            current -= stride;
+        }
+        return current;
+    }
+
+    /**
+     * A traversal of the stoppable and reachable cells from a single starting cell.
+     *
+     * <p>
+     * Sliding from a cell in either direction along a run of non-wall cells stops at every stop cell and at the end of
+     * the run on that side. Once any cell of a run is stoppable, all stop cells and both ends of the run are therefore
+     * stoppable too, and all cells of the run are reachable. The traversal thus visits each horizontal and vertical run
+     * at most once, and stops as soon as all gems are known to be reachable.
+     * </p>
+     */
+    private final class Traversal {
+
+        /**
+         * The row-major index of the starting cell.
+         */
+        private final int startIndex;
+
+        /**
+         * Cells which are stoppable from the starting cell.
+         */
+        @NotNull
+        private final long[] stoppable = newBitSet();
+
+        /**
+         * Cells of the horizontal runs containing a stoppable cell.
+         */
+        @NotNull
+        private final long[] horizontal = newBitSet();
+
+        /**
+         * Cells of the vertical runs containing a stoppable cell.
+         */
+        @NotNull
+        private final long[] vertical = newBitSet();
+
+        /**
+         * Number of gems which are not yet known to be reachable.
+         */
+        private int numUnreachedGems = packedBoard.getEntityCount(PackedBoard.ENTITY_GEM);
+
+        /**
+         * Stoppable cells which are yet to be visited.
+         */
+        @NotNull
+        private int[] pending = new int[64];
+
+        /**
+         * Number of elements in {@link Traversal#pending}.
+         */
+        private int numPending = 0;
+
+        /**
+         * Creates an instance.
+         *
+         * @param startIndex The row-major index of the starting cell.
+         */
+        private Traversal(final int startIndex) {
+            this.startIndex = startIndex;
+        }
+
+        /**
+         * Finds the stoppable and reachable cells from the starting cell, until all gems are known to be reachable.
+         *
+         * @return {@code true} if all gems are reachable from the starting cell.
+         */
+        private boolean run() {
+            push(startIndex);
+
+            while (numPending > 0 && numUnreachedGems > 0 && !failed) {
+                final var index = pending[--numPending];
+
+                if (!get(horizontal, index)) {
+                    visitRun(horizontal, index, 0, 1);
+                    if (hasVisitedRunsOfSuccessfulStart()) {
+                        return true;
+                    }
+                }
+                if (!get(vertical, index)) {
+                    visitRun(vertical, index, 1, 0);
+                    if (hasVisitedRunsOfSuccessfulStart()) {
+                        return true;
+                    }
+                }
+            }
+
+            return numUnreachedGems == 0;
+        }
+
+        /**
+         * Checks whether this traversal has visited both runs containing the start of a successful traversal.
+         *
+         * <p>
+         * The cells reachable from a starting cell are exactly those reachable from its two runs, so this traversal
+         * can reach everything that traversal can, including all gems.
+         * </p>
+         *
+         * @return {@code true} if the result of a successful traversal can be shared.
+         */
+        private boolean hasVisitedRunsOfSuccessfulStart() {
+            for (final int successfulStartIndex : successfulStartIndices) {
+                if (get(horizontal, successfulStartIndex) && get(vertical, successfulStartIndex)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Marks the run of non-wall cells containing a stoppable cell along an axis as reachable, and its stop cells and
+         * ends as stoppable.
+         *
+         * @param run   The cells of the runs visited along the axis.
+         * @param index The row-major index of the stoppable cell.
+         * @param dRow  The row offset of the axis.
+         * @param dCol  The column offset of the axis.
+         */
+        private void visitRun(@NotNull final long[] run, final int index, final int dRow, final int dCol) {
+            markReachable(run, index);
+            push(visitRay(run, index, -dRow, -dCol));
+            push(visitRay(run, index, dRow, dCol));
+        }
+
+        /**
+         * Marks the non-wall cells after a cell in a direction as reachable, up to the first wall or the border of the
+         * board, and the stop cells among them as stoppable.
+         *
+         * @param run   The cells of the runs visited along the axis of the direction.
+         * @param index The row-major index of the cell.
+         * @param dRow  The row offset of the direction.
+         * @param dCol  The column offset of the direction.
+         * @return The row-major index of the last non-wall cell in the direction.
+         */
+        private int visitRay(@NotNull final long[] run, final int index, final int dRow, final int dCol) {
+            final var numRows = packedBoard.getNumRows();
+            final var numCols = packedBoard.getNumCols();
+            final var stride = dRow * numCols + dCol;
+
+            final var row = index / numCols;
+            final var col = index % numCols;
+            final int numSteps;
+            if (dRow != 0) {
+                numSteps = dRow > 0 ? numRows - 1 - row : row;
+            } else {
+                numSteps = dCol > 0 ? numCols - 1 - col : col;
+            }
+
+            int current = index;
+            for (int i = 0; i < numSteps; ++i) {
+                final var cellKind = packedBoard.getCellKind(current + stride);
+                if (cellKind == PackedBoard.CELL_WALL) {
+                    break;
+                }
+
+                current += stride;
+                markReachable(run, current);
+                if (cellKind == PackedBoard.CELL_STOP) {
+                    push(current);
+                }
+            }
+
+            return current;
+        }
+
+        /**
+         * Marks a cell as stoppable, and schedules it to be visited if it has not been.
+         *
+         * @param index The row-major index of the cell.
+         */
+        private void push(final int index) {
+            if (get(stoppable, index)) {
+                return;
+            }
+            set(stoppable, index);
+
+            if (numPending == pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[numPending++] = index;
+        }
+
+        /**
+         * Marks a cell as reachable along an axis.
+         *
+         * @param run   The cells of the runs visited along the axis.
+         * @param index The row-major index of the cell.
+         */
+        private void markReachable(@NotNull final long[] run, final int index) {
+            if (packedBoard.getEntityKind(index) == PackedBoard.ENTITY_GEM
+                    && !get(horizontal, index) && !get(vertical, index)) {
+                --numUnreachedGems;
+            }
+            set(run, index);
+        }
+    }
+
+    /**
+     * @return A new bitset with a bit for each cell of the board.
+     */
+    @NotNull
+    private long[] newBitSet() {
+        return new long[(packedBoard.size() + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * @param bits  The bitset.
+     * @param index The index of the bit.
+     * @return Whether the bit is set.
+     */
+    private static boolean get(@NotNull final long[] bits, final int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param bits  The bitset.
+     * @param index The index of the bit to set.
+     */
+    private static void set(@NotNull final long[] bits, final int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
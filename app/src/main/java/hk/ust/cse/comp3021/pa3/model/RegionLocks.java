@@ -0,0 +1,246 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks over the regions of a {@link PackedBoard}.
+ *
+ * <p>
+ * The board is divided into regions by bands of {@link PackedBoard#TILE_SIZE} rows and {@link PackedBoard#TILE_SIZE}
+ * columns, and each region is guarded by one of a fixed number of stripes. A set of stripes is represented by a
+ * {@code long} mask, and the stripes in a set are always locked in increasing order, so that threads locking
+ * overlapping sets cannot deadlock.
+ * </p>
+ * <p>
+ * A slide only reads and writes the cells of a straight segment of the board, so moves whose segments cross disjoint
+ * sets of stripes can proceed in parallel. When the board has more regions than stripes, the stripes are laid out as a
+ * grid repeated over the regions, e.g. 8 by 8, so that distant regions share a stripe only if both their bands of rows
+ * and their bands of columns are a multiple of the grid apart. The regions of two different bands of rows within the
+ * grid therefore never share a stripe, and neither do those of two different bands of columns.
+ * </p>
+ * <p>
+ * Each stripe also has a version, which is odd while the cells guarded by the stripe are being written, so that
+ * readers which do not hold the stripes can read the cells optimistically and validate their read afterwards, like the
+ * optimistic reads of {@link java.util.concurrent.locks.StampedLock}.
+ * </p>
+ */
+public final class RegionLocks {
+
+    /**
+     * The maximum number of stripes, such that a set of stripes fits in a {@code long} mask.
+     */
+    public static final int MAX_STRIPES = Long.SIZE;
+
+    /**
+     * The number of rows and columns of the grid of stripes, if the board has enough bands of both rows and columns.
+     */
+    private static final int GRID_SIZE = 8;
+
+    private final int numCols;
+
+    /**
+     * The number of rows of the grid of stripes repeated over the regions.
+     */
+    private final int numStripeRows;
+
+    /**
+     * The number of columns of the grid of stripes repeated over the regions.
+     */
+    private final int numStripeCols;
+
+    /**
+     * The lock of each stripe.
+     */
+    @NotNull
+    private final ReentrantLock[] stripes;
+
+    /**
+     * The version of each stripe, which is incremented when a write to the cells guarded by the stripe begins and when
+     * it ends.
+     */
+    @NotNull
+    private final AtomicLongArray versions;
+
+    /**
+     * Creates an instance.
+     *
+     * @param packedBoard The board to guard.
+     */
+    RegionLocks(@NotNull final PackedBoard packedBoard) {
+        Objects.requireNonNull(packedBoard);
+
+        this.numCols = packedBoard.getNumCols();
+        final var numRegionCols = packedBoard.getNumTileCols();
+        final var numRegionRows = (packedBoard.getNumRows() + PackedBoard.TILE_SIZE - 1) >>> PackedBoard.TILE_SHIFT;
+        if ((long) numRegionRows * numRegionCols <= MAX_STRIPES) {
+            this.numStripeRows = numRegionRows;
+            this.numStripeCols = numRegionCols;
+        } else if (numRegionRows < GRID_SIZE) {
+            this.numStripeRows = numRegionRows;
+            this.numStripeCols = MAX_STRIPES / numRegionRows;
+        } else if (numRegionCols < GRID_SIZE) {
+            this.numStripeRows = MAX_STRIPES / numRegionCols;
+            this.numStripeCols = numRegionCols;
+        } else {
+            this.numStripeRows = GRID_SIZE;
+            this.numStripeCols = GRID_SIZE;
+        }
+
+        this.stripes = new ReentrantLock[numStripeRows * numStripeCols];
+        for (int i = 0; i < stripes.length; ++i) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.versions = new AtomicLongArray(stripes.length);
+    }
+
+    /**
+     * @return The number of stripes.
+     */
+    public int getNumStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * @return The mask of all stripes.
+     */
+    public long allMask() {
+        return stripes.length == MAX_STRIPES ? -1L : (1L << stripes.length) - 1;
+    }
+
+    /**
+     * Computes the set of stripes guarding the cells of a segment of the board.
+     *
+     * @param fromIndex The row-major index of one end of the segment.
+     * @param toIndex   The row-major index of the other end of the segment.
+     * @return The mask of the stripes guarding any cell of the segment.
+     * @throws IllegalArgumentException if the ends are neither in the same row nor in the same column.
+     */
+    public long maskOf(final int fromIndex, final int toIndex) {
+        final var fromRow = fromIndex / numCols;
+        final var fromCol = fromIndex % numCols;
+        final var toRow = toIndex / numCols;
+        final var toCol = toIndex % numCols;
+        if (fromRow != toRow && fromCol != toCol) {
+            throw new IllegalArgumentException("Segment is not straight: " + fromIndex + " to " + toIndex);
+        }
+
+        final var minRegionRow = Math.min(fromRow, toRow) >>> PackedBoard.TILE_SHIFT;
+        final var maxRegionRow = Math.max(fromRow, toRow) >>> PackedBoard.TILE_SHIFT;
+        final var minRegionCol = Math.min(fromCol, toCol) >>> PackedBoard.TILE_SHIFT;
+        final var maxRegionCol = Math.max(fromCol, toCol) >>> PackedBoard.TILE_SHIFT;
+
+        // A segment crossing a whole grid already covers every stripe of its band
+        final var lastRegionRow = Math.min(maxRegionRow, minRegionRow + numStripeRows - 1);
+        final var lastRegionCol = Math.min(maxRegionCol, minRegionCol + numStripeCols - 1);
+        long mask = 0;
+        for (int regionRow = minRegionRow; regionRow <= lastRegionRow; ++regionRow) {
+            for (int regionCol = minRegionCol; regionCol <= lastRegionCol; ++regionCol) {
+                mask |= 1L << stripeOf(regionRow, regionCol);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param regionRow The band of rows of a region.
+     * @param regionCol The band of columns of a region.
+     * @return The index of the stripe guarding the region.
+     */
+    private int stripeOf(final int regionRow, final int regionCol) {
+        return (regionRow % numStripeRows) * numStripeCols + regionCol % numStripeCols;
+    }
+
+    /**
+     * Locks a set of stripes in increasing order, blocking until all of them are acquired.
+     *
+     * @param mask The mask of the stripes to lock.
+     */
+    public void lock(final long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+    }
+
+    /**
+     * Unlocks a set of stripes locked by {@link RegionLocks#lock(long)}.
+     *
+     * @param mask The mask of the stripes to unlock.
+     */
+    public void unlock(final long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].unlock();
+        }
+    }
+
+    /**
+     * Marks the beginning of a write to the cells guarded by a set of stripes, which must be held by the current thread.
+     *
+     * @param mask The mask of the stripes guarding the cells to write.
+     */
+    public void beginWrite(final long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            versions.incrementAndGet(Long.numberOfTrailingZeros(remaining));
+        }
+    }
+
+    /**
+     * Marks the end of a write begun by {@link RegionLocks#beginWrite(long)}.
+     *
+     * @param mask The mask passed to {@link RegionLocks#beginWrite(long)}.
+     */
+    public void endWrite(final long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            versions.incrementAndGet(Long.numberOfTrailingZeros(remaining));
+        }
+    }
+
+    /**
+     * Returns a stamp for reading the cells guarded by a set of stripes without locking them.
+     *
+     * @param mask The mask of the stripes guarding the cells to read.
+     * @return A stamp to pass to {@link RegionLocks#validate(long, long)}, or {@code 0} if any of the cells are being
+     * written.
+     */
+    public long tryOptimisticRead(final long mask) {
+        long stamp = 1;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            final var version = versions.get(Long.numberOfTrailingZeros(remaining));
+            if ((version & 1) != 0) {
+                return 0;
+            }
+            stamp += version;
+        }
+        return stamp;
+    }
+
+    /**
+     * Checks whether none of the cells guarded by a set of stripes have been written since a stamp was issued.
+     *
+     * @param mask  The mask passed to {@link RegionLocks#tryOptimisticRead(long)}.
+     * @param stamp The stamp returned by {@link RegionLocks#tryOptimisticRead(long)}.
+     * @return {@code true} if the reads since the stamp was issued are consistent.
+     */
+    public boolean validate(final long mask, final long stamp) {
+        VarHandle.acquireFence();
+        // Versions only increase, so their sum is only unchanged if every version is unchanged
+        return stamp != 0 && tryOptimisticRead(mask) == stamp;
+    }
+
+    /**
+     * @param mask The mask of a set of stripes.
+     * @return Whether all stripes in the set are held by the current thread.
+     */
+    public boolean isHeldByCurrentThread(final long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            if (!stripes[Long.numberOfTrailingZeros(remaining)].isHeldByCurrentThread()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
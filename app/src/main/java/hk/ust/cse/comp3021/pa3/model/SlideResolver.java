@@ -0,0 +1,24 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+/**
+ * Enumeration of strategies which {@link hk.ust.cse.comp3021.pa3.controller.GameBoardController} uses to resolve how
+ * far a player slides in a move.
+ */
+public enum SlideResolver {
+    /**
+     * Walks the {@link PackedBoard} cell by cell, checking the kind of each cell and its entity.
+     */
+    SCAN,
+
+    /**
+     * Looks up the static stop position of the slide in the {@link SlideTable} of the game board, and only checks the
+     * entities on the cells before it.
+     */
+    JUMP_TABLE,
+
+    /**
+     * Looks up the static stop position of the slide in the {@link SlideTable} of the game board, and searches the
+     * {@link Bitboards} of the game board for the entities before it.
+     */
+    BITBOARD
+}
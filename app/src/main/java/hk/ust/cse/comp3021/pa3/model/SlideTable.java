@@ -0,0 +1,130 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A precomputed table of where a slide stops in each {@link Direction} from each cell of a {@link PackedBoard}.
+ *
+ * <p>
+ * Only the static parts of the game board are considered, i.e. walls, stop cells and the borders of the board, since
+ * these never change during a game. The entities on the cells which are slid over still need to be checked by the
+ * caller.
+ * </p>
+ * <p>
+ * The stop of each cell is stored as the number of cells to its stop in one unsigned byte, i.e. 4 bytes per cell for
+ * all directions. A slide longer than {@link SlideTable#MAX_DISTANCE} cells is stored as {@link SlideTable#CHAIN},
+ * and continues from the cell {@link SlideTable#MAX_DISTANCE} cells away, since every cell it slides over has the same
+ * stop.
+ * </p>
+ */
+public final class SlideTable {
+
+    /**
+     * The largest distance stored in a single entry of the table.
+     */
+    private static final int MAX_DISTANCE = 0xFE;
+
+    /**
+     * The entry of a cell whose stop is more than {@link SlideTable#MAX_DISTANCE} cells away, which is the same as the
+     * stop of the cell {@link SlideTable#MAX_DISTANCE} cells away.
+     */
+    private static final int CHAIN = 0xFF;
+
+    /**
+     * The number of cells from each cell to its stop cell, or {@link SlideTable#CHAIN}, indexed by the ordinal of the
+     * {@link Direction} of the slide.
+     */
+    @NotNull
+    private final byte[][] distances;
+
+    /**
+     * The difference of the row-major indices of two adjacent cells, indexed by the ordinal of the {@link Direction}.
+     */
+    @NotNull
+    private final int[] strides;
+
+    /**
+     * Creates an instance using the provided table.
+     *
+     * @param distances The number of cells from each cell to its stop cell, indexed by the ordinal of the
+     *                  {@link Direction} of the slide.
+     * @param strides   The difference of the row-major indices of two adjacent cells, indexed by the ordinal of the
+     *                  {@link Direction}.
+     */
+    private SlideTable(@NotNull final byte[][] distances, @NotNull final int[] strides) {
+        this.distances = Objects.requireNonNull(distances);
+        this.strides = Objects.requireNonNull(strides);
+    }
+
+    /**
+     * Computes the table of a game board.
+     *
+     * @param packedBoard The packed representation of the game board.
+     * @return A new instance of the table.
+     */
+    @NotNull
+    static SlideTable of(@NotNull final PackedBoard packedBoard) {
+        final var size = packedBoard.size();
+        final var numRows = packedBoard.getNumRows();
+        final var numCols = packedBoard.getNumCols();
+
+        final var distances = new byte[Direction.values().length][];
+        final var strides = new int[Direction.values().length];
+        // The distance of the last visited cell of each column, which is the next cell of the visited cell in the
+        // direction of the slide
+        final var nextDistances = new int[numCols];
+        for (@NotNull final var dir : Direction.values()) {
+            final var dRow = dir.getRowOffset();
+            final var dCol = dir.getColOffset();
+            final var stride = dRow * numCols + dCol;
+            final var dists = new byte[size];
+
+            // Visit the cells against the direction of the slide, so that the stop of the next cell is always known
+            for (int k = 0; k < size; ++k) {
+                final var index = stride > 0 ? size - 1 - k : k;
+                final var row = index / numCols;
+                final var col = index % numCols;
+                var distance = 0;
+
+                final var nextRow = row + dRow;
+                final var nextCol = col + dCol;
+                if (packedBoard.getCellKind(index) != PackedBoard.CELL_WALL
+                        && nextRow >= 0 && nextRow < numRows && nextCol >= 0 && nextCol < numCols) {
+                    switch (packedBoard.getCellKind(index + stride)) {
+                        case PackedBoard.CELL_STOP -> distance = 1;
+                        case PackedBoard.CELL_EMPTY -> distance = 1 + nextDistances[nextCol];
+                        default -> {
+                        }
+                    }
+                }
+                nextDistances[col] = distance;
+                dists[index] = (byte) (distance > MAX_DISTANCE ? CHAIN : distance);
+            }
+            distances[dir.ordinal()] = dists;
+            strides[dir.ordinal()] = stride;
+        }
+
+        return new SlideTable(distances, strides);
+    }
+
+    /**
+     * @param direction The direction of the slide.
+     * @param index     The row-major index of the cell to slide from.
+     * @return The row-major index of the cell where the slide stops if no entity is in the way. This is {@code index}
+     * if the player cannot move in {@code direction} at all.
+     */
+    public int getStopIndex(@NotNull final Direction direction, final int index) {
+        final var dists = distances[direction.ordinal()];
+        final var stride = strides[direction.ordinal()];
+
+        var stopIndex = index;
+        var distance = dists[stopIndex] & 0xFF;
+        while (distance == CHAIN) {
+            stopIndex += MAX_DISTANCE * stride;
+            distance = dists[stopIndex] & 0xFF;
+        }
+        return stopIndex + distance * stride;
+    }
+}
@@ -17,6 +17,11 @@ import java.util.Objects;
  */
 public final class GameStateSerializer {
 
+    /**
+     * The minimum number of cells of a game board to only keep its packed representation when loaded.
+     */
+    static final int PACKED_BOARD_THRESHOLD = 256 * 256;
+
     private GameStateSerializer() {
     }
 
@@ -120,31 +125,81 @@ public final class GameStateSerializer {
      */
     @NotNull
     static GameState[] loadFrom(@NotNull final BufferedReader reader) throws IOException {
+        return loadFrom(reader, PACKED_BOARD_THRESHOLD);
+    }
+
+    /**
+     * Creates an array of {@link GameState} instance by reading from the {@link BufferedReader}.
+     *
+     * <p>
+     * Game boards with at least {@code packedThreshold} cells only keep their packed representation, i.e. no
+     * {@link Cell} instances are created while loading.
+     * </p>
+     *
+     * @param reader          The reader providing the serialized version of the game state.
+     * @param packedThreshold The minimum number of cells of a game board to only keep its packed representation.
+     * @return An array of instances of {@link GameState} created from deserializing {@code reader}.
+     * @throws IOException If an I/O error occurred while reading from {@code reader}.
+     * @apiNote The caller is responsible for closing {@code reader}.
+     * @see GameBoard#GameBoard(PackedBoard)
+     */
+    @NotNull
+    static GameState[] loadFrom(@NotNull final BufferedReader reader, final int packedThreshold) throws IOException {
         Objects.requireNonNull(reader);
 
         final var numRows = Integer.parseInt(reader.readLine());
         final var numCols = Integer.parseInt(reader.readLine());
-        final int numLives;
-        {
-            final String line = reader.readLine();
-            if (line.isBlank()) {
-                numLives = -1;
-            } else {
-                numLives = Integer.parseInt(line);
-            }
-        }
+        final var numLives = readNumLives(reader);
 
-        final var board = new Cell[numRows][numCols];
-        for (int r = 0; r < numRows; r++) {
-            final var line = reader.readLine();
-            for (int c = 0; c < numCols; ++c) {
-                board[r][c] = fromCellChar(line.charAt(c), new Position(r, c));
+        final GameBoard gameBoard;
+        if ((long) numRows * numCols >= packedThreshold) {
+            final var builder = new PackedBoard.Builder(numRows, numCols);
+            for (int r = 0; r < numRows; r++) {
+                final var line = reader.readLine();
+                for (int c = 0; c < numCols; ++c) {
+                    final var ch = line.charAt(c);
+                    builder.set(r, c, toCellKind(ch), toEntityKind(ch));
+                }
+            }
+            gameBoard = new GameBoard(builder.build());
+        } else {
+            final var board = new Cell[numRows][numCols];
+            for (int r = 0; r < numRows; r++) {
+                final var line = reader.readLine();
+                for (int c = 0; c < numCols; ++c) {
+                    board[r][c] = fromCellChar(line.charAt(c), new Position(r, c));
+                }
             }
+            gameBoard = new GameBoard(numRows, numCols, board);
         }
 
-        final var gameBoard = new GameBoard(numRows, numCols, board);
+        return createGameStates(gameBoard, numLives);
+    }
+
+    /**
+     * Reads the number of lives of the players.
+     *
+     * @param reader The reader positioned at the line containing the number of lives.
+     * @return The number of lives, or {@code -1} if the players have unlimited lives.
+     * @throws IOException If an I/O error occurred while reading from {@code reader}.
+     */
+    private static int readNumLives(@NotNull final BufferedReader reader) throws IOException {
+        final String line = reader.readLine();
+        if (line.isBlank()) {
+            return -1;
+        }
+        return Integer.parseInt(line);
+    }
 
-        // Construct a GameState instance for each Player
+    /**
+     * Constructs a {@link GameState} instance for each {@link Player} on the game board.
+     *
+     * @param gameBoard The game board.
+     * @param numLives  The number of lives of each player, or a negative value for unlimited lives.
+     * @return An array of instances of {@link GameState}, one for each player.
+     */
+    @NotNull
+    private static GameState[] createGameStates(@NotNull final GameBoard gameBoard, final int numLives) {
         return gameBoard.getPlayers().stream()
                 .map(player -> numLives < 0 ? new GameState(gameBoard, player) : new GameState(gameBoard, player, numLives))
                 .toArray(GameState[]::new);
@@ -210,4 +265,37 @@ public final class GameStateSerializer {
             default -> throw new IllegalArgumentException("Unknown cell representation: " + c);
         };
     }
+
+    /**
+     * Converts the serialized character representation of a {@link Cell} to its {@code PackedBoard.CELL_*} kind.
+     *
+     * @param c The character representing a cell.
+     * @return The kind of the cell represented by {@code c}.
+     * @throws IllegalArgumentException if {@code c} is not a known representation of a cell.
+     */
+    private static byte toCellKind(final char c) {
+        return switch (c) {
+            case 'W' -> PackedBoard.CELL_WALL;
+            case 'P', 'S' -> PackedBoard.CELL_STOP;
+            case 'L', 'G', 'M', '.' -> PackedBoard.CELL_EMPTY;
+            default -> throw new IllegalArgumentException("Unknown cell representation: " + c);
+        };
+    }
+
+    /**
+     * Converts the serialized character representation of a {@link Cell} to the {@code PackedBoard.ENTITY_*} kind of
+     * its entity.
+     *
+     * @param c The character representing a cell.
+     * @return The kind of the entity in the cell represented by {@code c}.
+     */
+    private static byte toEntityKind(final char c) {
+        return switch (c) {
+            case 'L' -> PackedBoard.ENTITY_EXTRA_LIFE;
+            case 'G' -> PackedBoard.ENTITY_GEM;
+            case 'M' -> PackedBoard.ENTITY_MINE;
+            case 'P' -> PackedBoard.ENTITY_PLAYER;
+            default -> PackedBoard.ENTITY_NONE;
+        };
+    }
 }
@@ -4,9 +4,9 @@ import hk.ust.cse.comp3021.pa3.model.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The Robot is an automated worker that can delegate the movement control of a player.
@@ -20,9 +20,9 @@ public class Robot implements MoveDelegate {
     }
 
     /**
-     * All robots should share one lock, to makeMove
+     * All directions, shared to avoid cloning {@link Direction#values()} on every search.
      */
-    private static Lock lock = new ReentrantLock();
+    private static final List<Direction> DIRECTIONS = List.of(Direction.values());
 
     /**
      * A generator to get the time interval before the robot makes the next move.
@@ -40,13 +40,38 @@ public class Robot implements MoveDelegate {
      */
     private final Strategy strategy;
 
+    /**
+     * The lock shared by all robots playing on the game board of {@link Robot#gameState}.
+     *
+     * <p>
+     * This is not the lock of the game board itself, since the robot calls into the {@link MoveProcessor} while
+     * holding it.
+     * </p>
+     *
+     * @see GameBoard#getRobotLock()
+     */
+    private final Lock lock;
+
     public Robot(GameState gameState) {
         this(gameState, Strategy.Random);
     }
 
     public Robot(GameState gameState, Strategy strategy) {
+        this(gameState, strategy, gameState.getGameBoard().getRobotLock());
+    }
+
+    /**
+     * Creates a robot sharing {@code lock} with the other robots playing on the same game board, instead of
+     * {@link GameBoard#getRobotLock()}.
+     *
+     * @param gameState The game state of the player that the robot delegates.
+     * @param strategy  The strategy of the robot.
+     * @param lock      The lock shared by all robots playing on the game board of {@code gameState}.
+     */
+    Robot(GameState gameState, Strategy strategy, @NotNull Lock lock) {
         this.strategy = strategy;
         this.gameState = gameState;
+        this.lock = lock;
     }
 
     /**
@@ -87,15 +112,24 @@ public class Robot implements MoveDelegate {
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
-                if (strategy == Strategy.Random) {
-                    makeMoveRandomly(processor);
-                } else {
-                    makeMoveSmartly(processor);
-                }
+                step(processor);
             }
         }
     }
 
+    /**
+     * Makes a single move according to {@link Robot#strategy}, without waiting for {@link Robot#timeIntervalGenerator}.
+     *
+     * @param processor The processor to make movements.
+     */
+    void step(@NotNull MoveProcessor processor) {
+        if (strategy == Strategy.Random) {
+            makeMoveRandomly(processor);
+        } else {
+            makeMoveSmartly(processor);
+        }
+    }
+
     /**
      * DONE Start the delegation in a new thread.
      * The delegation should run in a separate thread.
@@ -146,13 +180,20 @@ public class Robot implements MoveDelegate {
         threads.clear();
     }
 
-    private MoveResult tryMove(Direction direction) {
-        var player = gameState.getPlayer();
-        if (player.getOwner() == null) {
+    /**
+     * @param snapshot The snapshot of the game board to plan the move on.
+     * @return The position of the player of this robot on {@code snapshot}, or {@code null} if the player is not on it.
+     */
+    private Position getPosition(@NotNull BoardSnapshot snapshot) {
+        var playerId = gameState.getPlayer().getId();
+        if (playerId >= snapshot.getNumPlayers() || snapshot.getPlayerCell(playerId) < 0) {
             return null;
         }
-        var r = gameState.getGameBoardController().tryMove(player.getOwner().getPosition(), direction, player.getId());
-        return r;
+        return snapshot.positionOf(snapshot.getPlayerCell(playerId));
+    }
+
+    private MoveResult tryMove(BoardSnapshot snapshot, Position position, Direction direction) {
+        return gameState.getGameBoardController().tryMove(snapshot, position, direction, gameState.getPlayer().getId());
     }
 
     /**
@@ -162,23 +203,38 @@ public class Robot implements MoveDelegate {
      * If there is no choice but only have one dying direction to move, the robot will still choose it.
      * If there is no valid direction, i.e. can neither die nor move, the robot do not perform a move.
      * <p>
+     * The directions are tried on the latest snapshot of the game board, so that they are compared on one consistent
+     * version of the game board without blocking the moves of other players.
+     * <p>
      * DONE modify this method if you need to do thread synchronization.
      *
      * @param processor The processor to make movements.
      */
     private void makeMoveRandomly(MoveProcessor processor) {
         lock.lock();
-        var directions = new ArrayList<>(Arrays.asList(Direction.values()));
-        Collections.shuffle(directions);
+        final var snapshot = gameState.getGameBoard().getLatestSnapshot();
+        final var position = getPosition(snapshot);
+        if (position == null) {
+            lock.unlock();
+            return;
+        }
+        // Each alive (or dead) direction replaces the chosen one with probability 1/k, where k is the number of such
+        // directions seen so far, so that the choice is uniform without shuffling a copy of the directions
+        final var random = ThreadLocalRandom.current();
         Direction aliveDirection = null;
         Direction deadDirection = null;
-        for (var direction :
-                directions) {
-            var result = tryMove(direction);
+        var numAliveDirections = 0;
+        var numDeadDirections = 0;
+        for (var direction : DIRECTIONS) {
+            var result = tryMove(snapshot, position, direction);
             if (result instanceof MoveResult.Valid.Alive) {
-                aliveDirection = direction;
+                if (random.nextInt(++numAliveDirections) == 0) {
+                    aliveDirection = direction;
+                }
             } else if (result instanceof MoveResult.Valid.Dead) {
-                deadDirection = direction;
+                if (random.nextInt(++numDeadDirections) == 0) {
+                    deadDirection = direction;
+                }
             }
         }
         if (aliveDirection != null) {
@@ -386,8 +442,8 @@ public class Robot implements MoveDelegate {
     }*/
 
 
-    private ArrayList<Direction> pathToNearestGem(GameBoard board, Position startPos) {
-        var directions = new ArrayList<>(Arrays.asList(Direction.values()));
+    private ArrayList<Direction> pathToNearestGem(BoardSnapshot snapshot, Position startPos) {
+        var directions = DIRECTIONS;
 
         HashSet<Position> vis = new HashSet<>();
         vis.add(startPos);
@@ -401,7 +457,7 @@ public class Robot implements MoveDelegate {
             var currPos = fringe.poll();
             var currPath = paths.poll();
             for (var dire : directions) {
-                var moveResult = gameState.getGameBoardController().tryMove(currPos, dire, gameState.getPlayer().getId());
+                var moveResult = tryMove(snapshot, currPos, dire);
                 if (!(moveResult instanceof MoveResult.Valid.Alive va)) {
                     continue;
                 }
@@ -442,11 +498,14 @@ public class Robot implements MoveDelegate {
      */
     private void makeMoveSmartly(MoveProcessor processor) {
         lock.lock();
-        if (gameState.getPlayer().getOwner() == null) {
+        // The search reads the latest snapshot, so that the whole path is planned on one version of the game board
+        final var snapshot = gameState.getGameBoard().getLatestSnapshot();
+        final var position = getPosition(snapshot);
+        if (position == null) {
             lock.unlock();
             return;
         }
-        List<Direction> path = pathToNearestGem(gameState.getGameBoard(), gameState.getPlayer().getOwner().getPosition());
+        List<Direction> path = pathToNearestGem(snapshot, position);
         if (path != null) {
             processor.move(path.get(0));
             lock.unlock();
@@ -0,0 +1,461 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.GameState;
+import hk.ust.cse.comp3021.pa3.model.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many concurrent games, each played by a {@link Robot} per player, on a fixed number of carrier threads.
+ *
+ * <p>
+ * Unlike {@link Robot#startDelegation(MoveDelegate.MoveProcessor)}, which starts a thread per robot sleeping between
+ * moves, each session is a single task making a single move of one of its robots, which is then scheduled again after an
+ * interval obtained from {@link SessionManager#timeIntervalGenerator}. The robots of a session take turns in a round
+ * robin, so the steps of a session never run concurrently, and a robot never waits for the
+ * {@link hk.ust.cse.comp3021.pa3.model.GameBoard#getRobotLock() lock} shared by the robots of its game board. All tasks
+ * run on a scheduled pool of {@link SessionManager#getNumCarrierThreads()} threads, so the number of threads stays the
+ * same no matter how many sessions are hosted, and a carrier thread is never blocked by one session while the others
+ * are waiting.
+ * </p>
+ * <p>
+ * A session is evicted once its game is over, once it stalls, i.e. every robot which has not lost makes a step without
+ * moving and no move is made in between, or once it is closed.
+ * </p>
+ */
+public class SessionManager implements AutoCloseable {
+
+    private static final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * A game hosted by a {@link SessionManager}.
+     */
+    public final class Session {
+
+        private final int id;
+
+        @NotNull
+        private final GameController controller;
+
+        private final LongAdder numMoves = new LongAdder();
+
+        /**
+         * The robots of this session, in the order they take turns.
+         */
+        @NotNull
+        private final List<SessionRobot> robots = new ArrayList<>();
+
+        /**
+         * The robots which have made a step without moving since the last move made in this session.
+         */
+        @NotNull
+        private final Set<SessionRobot> idleRobots = new HashSet<>();
+
+        /**
+         * The index in {@link Session#robots} of the robot to make the next step.
+         */
+        private int nextRobot = 0;
+
+        /**
+         * The task making the next step of this session.
+         */
+        @NotNull
+        private final Runnable task = this::step;
+
+        private final long startTime = System.nanoTime();
+
+        /**
+         * The time this session is evicted, or {@code 0} if it is still hosted.
+         */
+        private volatile long endTime = 0;
+
+        /**
+         * Completed with the winners once the game is over, or cancelled if this session is closed before that.
+         */
+        @NotNull
+        private final CompletableFuture<Player[]> winners = new CompletableFuture<>();
+
+        /**
+         * Creates an instance.
+         *
+         * @param id         The id of the session.
+         * @param controller The controller of the game.
+         */
+        private Session(final int id, @NotNull final GameController controller) {
+            this.id = id;
+            this.controller = controller;
+        }
+
+        /**
+         * @return The id of this session, which is unique within its {@link SessionManager}.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return The controller of the game of this session.
+         */
+        @NotNull
+        public GameController getController() {
+            return controller;
+        }
+
+        /**
+         * @return The number of moves made in this session.
+         */
+        public long getNumMoves() {
+            return numMoves.sum();
+        }
+
+        /**
+         * @return The number of moves made per second since this session is opened, until it is evicted.
+         */
+        public double getMovesPerSecond() {
+            final var end = endTime != 0 ? endTime : System.nanoTime();
+            return end == startTime ? 0 : getNumMoves() * 1e9 / (end - startTime);
+        }
+
+        /**
+         * @return Whether this session has been evicted.
+         */
+        public boolean isFinished() {
+            return winners.isDone();
+        }
+
+        /**
+         * @return A future completed with the result of {@link GameController#getWinners()} once the game is over, with
+         * an empty array if the game stalls before it is over, completed exceptionally with the exception thrown by a
+         * robot, or cancelled if this session is closed before the game is over.
+         */
+        @NotNull
+        public CompletableFuture<Player[]> getWinners() {
+            return winners;
+        }
+
+        /**
+         * Stops the robots of this session and evicts it, if the game is not over yet.
+         */
+        public void close() {
+            if (evict()) {
+                winners.cancel(false);
+            }
+        }
+
+        /**
+         * Records a step of a robot, like a round of {@link Simulator#play(GameController)}: the game stalls once every
+         * robot which has not lost makes a step without moving, with no move made in between.
+         *
+         * @param robot The robot which has made the step.
+         * @param moved Whether the robot has moved in the step.
+         * @return Whether the game has stalled.
+         */
+        private boolean recordStep(@NotNull final SessionRobot robot, final boolean moved) {
+            if (moved) {
+                idleRobots.clear();
+                return false;
+            }
+
+            idleRobots.add(robot);
+            for (final var other : robots) {
+                if (!other.gameState.hasLost() && !idleRobots.contains(other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Makes a step of the next robot which has not lost, and schedules the next step unless the game is over or
+         * has stalled.
+         */
+        private void step() {
+            if (isFinished()) {
+                return;
+            }
+            try {
+                final var robot = nextRobot();
+                final var moved = robot != null && robot.step();
+
+                final var result = controller.getWinners();
+                if (result != null) {
+                    if (evict()) {
+                        winners.complete(result);
+                    }
+                } else if (robot == null || recordStep(robot, moved)) {
+                    if (evict()) {
+                        winners.complete(new Player[0]);
+                    }
+                } else {
+                    schedule();
+                }
+            } catch (Throwable e) {
+                // Anything thrown by a robot would otherwise be swallowed by the scheduler, leaving the session hosted
+                if (evict()) {
+                    winners.completeExceptionally(e);
+                }
+            }
+        }
+
+        /**
+         * @return The next robot in turn which has not lost, or {@code null} if all robots have lost.
+         */
+        @Nullable
+        private SessionRobot nextRobot() {
+            for (int i = 0; i < robots.size(); ++i) {
+                final var robot = robots.get(nextRobot);
+                nextRobot = (nextRobot + 1) % robots.size();
+                if (!robot.gameState.hasLost()) {
+                    return robot;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Schedules the next step of this session.
+         */
+        private void schedule() {
+            scheduler.schedule(task, timeIntervalGenerator.next(), TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Removes this session from {@link SessionManager#sessions}, before {@link Session#winners} is completed.
+         *
+         * @return {@code true} if this session is evicted by this call, i.e. {@link Session#winners} should be
+         * completed by the caller.
+         */
+        private boolean evict() {
+            if (!sessions.remove(id, this)) {
+                return false;
+            }
+            endTime = System.nanoTime();
+            numEvictedSessions.increment();
+            return true;
+        }
+    }
+
+    /**
+     * A robot of a session, making a single move every time it takes its turn.
+     */
+    private final class SessionRobot {
+
+        @NotNull
+        private final GameState gameState;
+
+        @NotNull
+        private final Robot robot;
+
+        @NotNull
+        private final MoveDelegate.MoveProcessor processor;
+
+        /**
+         * Whether the robot has moved in its current step.
+         */
+        private boolean moved = false;
+
+        /**
+         * Creates an instance.
+         *
+         * @param session   The session of the robot.
+         * @param gameState The game state of the player that the robot delegates.
+         * @param strategy  The strategy of the robot.
+         */
+        private SessionRobot(@NotNull final Session session,
+                             @NotNull final GameState gameState,
+                             @NotNull final Robot.Strategy strategy) {
+            this.gameState = gameState;
+            this.robot = new Robot(gameState, strategy);
+
+            final var playerId = gameState.getPlayer().getId();
+            this.processor = direction -> {
+                session.controller.processMove(direction, playerId);
+                session.numMoves.increment();
+                numMoves.increment();
+                moved = true;
+            };
+        }
+
+        /**
+         * Makes a step of the robot.
+         *
+         * @return Whether the robot has moved in the step.
+         */
+        private boolean step() {
+            moved = false;
+            robot.step(processor);
+            return moved;
+        }
+    }
+
+    /**
+     * The carrier threads running the robots of all sessions.
+     */
+    @NotNull
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * A generator to get the time interval before a robot makes the next move.
+     */
+    @NotNull
+    private final Generator<Long> timeIntervalGenerator;
+
+    /**
+     * The sessions which are not evicted yet, by their ids.
+     */
+    @NotNull
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+
+    private final LongAdder numMoves = new LongAdder();
+
+    private final LongAdder numEvictedSessions = new LongAdder();
+
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Creates an instance whose robots move as fast as possible.
+     *
+     * @param numCarrierThreads The number of threads to run the robots of all sessions on.
+     * @throws IllegalArgumentException if {@code numCarrierThreads} is not positive.
+     */
+    public SessionManager(final int numCarrierThreads) {
+        this(numCarrierThreads, () -> 0L);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param numCarrierThreads     The number of threads to run the robots of all sessions on.
+     * @param timeIntervalGenerator A generator to get the time interval in milliseconds before a robot makes the next
+     *                              move, e.g. {@link Robot#timeIntervalGenerator}.
+     * @throws IllegalArgumentException if {@code numCarrierThreads} is not positive.
+     */
+    public SessionManager(final int numCarrierThreads, @NotNull final Generator<Long> timeIntervalGenerator) {
+        if (numCarrierThreads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.timeIntervalGenerator = Objects.requireNonNull(timeIntervalGenerator);
+
+        final var id = count.getAndIncrement();
+        final var nextThreadId = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(numCarrierThreads, runnable -> {
+            final var thread = new Thread(runnable, "session-manager-" + id + "-carrier-" + nextThreadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Opens a session for a game, and starts its robots.
+     *
+     * @param controller The controller of the game, which should not be played by anything else.
+     * @param strategies The strategies of the robots, where the {@code i}-th player is controlled by the strategy at
+     *                   {@code i} modulo the number of strategies.
+     * @return The opened session.
+     * @throws IllegalArgumentException   if no strategy is provided.
+     * @throws RejectedExecutionException if this instance is closed.
+     */
+    @NotNull
+    public Session open(@NotNull final GameController controller, @NotNull final Robot.Strategy... strategies) {
+        Objects.requireNonNull(controller);
+        if (strategies.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        if (scheduler.isShutdown()) {
+            throw new RejectedExecutionException();
+        }
+
+        final var session = new Session(nextSessionId.getAndIncrement(), controller);
+        sessions.put(session.id, session);
+
+        final var gameStates = controller.getGameStates();
+        try {
+            for (int i = 0; i < gameStates.length; ++i) {
+                session.robots.add(new SessionRobot(session, gameStates[i], strategies[i % strategies.length]));
+            }
+            session.schedule();
+        } catch (RejectedExecutionException e) {
+            // This instance is closed concurrently
+            session.close();
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * @return The sessions which are not evicted yet.
+     */
+    @NotNull
+    public List<Session> getSessions() {
+        return List.copyOf(sessions.values());
+    }
+
+    /**
+     * @return The number of sessions which are not evicted yet.
+     */
+    public int getNumSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * @return The number of sessions which have been evicted.
+     */
+    public long getNumEvictedSessions() {
+        return numEvictedSessions.sum();
+    }
+
+    /**
+     * @return The number of carrier threads of this instance.
+     */
+    public int getNumCarrierThreads() {
+        return scheduler.getCorePoolSize();
+    }
+
+    /**
+     * @return The number of moves made in all sessions, including the evicted ones.
+     */
+    public long getNumMoves() {
+        return numMoves.sum();
+    }
+
+    /**
+     * @return The number of moves made in all sessions per second since this instance is created.
+     */
+    public double getMovesPerSecond() {
+        final var elapsedNanos = System.nanoTime() - startTime;
+        return elapsedNanos == 0 ? 0 : getNumMoves() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Closes all sessions, and waits for the carrier threads to finish the moves in progress.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        for (final var session : sessions.values()) {
+            session.close();
+        }
+
+        boolean interrupted = false;
+        while (!scheduler.isTerminated()) {
+            try {
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
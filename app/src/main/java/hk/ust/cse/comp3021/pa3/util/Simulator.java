@@ -0,0 +1,160 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A headless engine which plays games with {@link Robot} instances as fast as possible, e.g. to evaluate their
+ * strategies.
+ *
+ * <p>
+ * Unlike {@link Robot#startDelegation(MoveDelegate.MoveProcessor)}, the robots are stepped synchronously without
+ * waiting for {@link Robot#timeIntervalGenerator}, and moves are processed by {@link GameController} directly, without
+ * going through any UI component.
+ * </p>
+ *
+ * <p>
+ * Each game is played on a single thread, by stepping the robot of each player who has not lost in turn, until the
+ * game is over, no robot moves in a whole round, or {@link Simulator#maxMovesPerGame} moves have been made. Several
+ * games can be played in parallel on a worker pool by {@link Simulator#run(int, Executor)}.
+ * </p>
+ */
+public class Simulator {
+
+    /**
+     * The statistics of a simulation.
+     *
+     * @param numGames     The number of games played.
+     * @param numMoves     The number of moves made in all games.
+     * @param elapsedNanos The wall-clock time taken to play all games, in nanoseconds.
+     */
+    public record Report(long numGames, long numMoves, long elapsedNanos) {
+
+        /**
+         * @return The number of moves made per second.
+         */
+        public double getMovesPerSecond() {
+            return elapsedNanos == 0 ? 0 : numMoves * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * The factory of the games to play.
+     */
+    @NotNull
+    private final Supplier<GameController> gameFactory;
+
+    /**
+     * The maximum number of moves made in each game, after which the game is abandoned.
+     */
+    private final int maxMovesPerGame;
+
+    /**
+     * The strategies of the robots, where the {@code i}-th player is controlled by the strategy at {@code i} modulo the
+     * number of strategies.
+     */
+    @NotNull
+    private final Robot.Strategy[] strategies;
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameFactory     The factory of the games to play. Each invocation should create a new game.
+     * @param maxMovesPerGame The maximum number of moves made in each game.
+     * @param strategies      The strategies of the robots, where the {@code i}-th player is controlled by the strategy
+     *                        at {@code i} modulo the number of strategies.
+     * @throws IllegalArgumentException if {@code maxMovesPerGame} is not positive, or no strategy is provided.
+     */
+    public Simulator(@NotNull final Supplier<GameController> gameFactory,
+                     final int maxMovesPerGame,
+                     @NotNull final Robot.Strategy... strategies) {
+        if (maxMovesPerGame <= 0 || strategies.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        this.gameFactory = Objects.requireNonNull(gameFactory);
+        this.maxMovesPerGame = maxMovesPerGame;
+        this.strategies = strategies.clone();
+    }
+
+    /**
+     * Plays games one after another on the calling thread.
+     *
+     * @param numGames The number of games to play.
+     * @return The statistics of the simulation.
+     */
+    @NotNull
+    public Report run(final int numGames) {
+        final var startTime = System.nanoTime();
+        long numMoves = 0;
+        for (int i = 0; i < numGames; ++i) {
+            numMoves += play(gameFactory.get());
+        }
+        return new Report(numGames, numMoves, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Plays games in parallel, each as a task of {@code executor}, and waits for all of them.
+     *
+     * @param numGames The number of games to play.
+     * @param executor The executor to play the games.
+     * @return The statistics of the simulation.
+     */
+    @NotNull
+    public Report run(final int numGames, @NotNull final Executor executor) {
+        final var startTime = System.nanoTime();
+        final var games = new ArrayList<CompletableFuture<Long>>(numGames);
+        for (int i = 0; i < numGames; ++i) {
+            games.add(CompletableFuture.supplyAsync(() -> play(gameFactory.get()), executor));
+        }
+        long numMoves = 0;
+        for (final var game : games) {
+            numMoves += game.join();
+        }
+        return new Report(numGames, numMoves, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Plays a game until it is over, no robot moves in a whole round, or {@link Simulator#maxMovesPerGame} moves have
+     * been made.
+     *
+     * @param controller The controller of the game to play.
+     * @return The number of moves made.
+     */
+    public long play(@NotNull final GameController controller) {
+        final var gameStates = controller.getGameStates();
+        final var robots = new Robot[gameStates.length];
+        final var processors = new MoveDelegate.MoveProcessor[gameStates.length];
+        final var numMoves = new long[1];
+        for (int i = 0; i < gameStates.length; ++i) {
+            final var playerId = gameStates[i].getPlayer().getId();
+            robots[i] = new Robot(gameStates[i], strategies[i % strategies.length]);
+            processors[i] = direction -> {
+                controller.processMove(direction, playerId);
+                ++numMoves[0];
+            };
+        }
+
+        var moved = true;
+        while (moved) {
+            moved = false;
+            for (int i = 0; i < robots.length; ++i) {
+                if (numMoves[0] >= maxMovesPerGame || controller.getWinners() != null) {
+                    return numMoves[0];
+                }
+                if (gameStates[i].hasLost()) {
+                    continue;
+                }
+                final var numMovesBeforeStep = numMoves[0];
+                robots[i].step(processors[i]);
+                moved |= numMoves[0] != numMovesBeforeStep;
+            }
+        }
+        return numMoves[0];
+    }
+}
@@ -1,9 +1,11 @@
 package hk.ust.cse.comp3021.pa3.view.controls;
 
 import hk.ust.cse.comp3021.pa3.model.*;
+import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,10 +22,47 @@ public class GameCell extends ImageView {
      * @param cell The {@link Cell} to be displayed.
      */
     public GameCell(Cell cell) {
-        Image image = loadImageForCell(cell);
+        this(getResourceNameByCell(cell),
+                cell instanceof EntityCell entityCell && entityCell.getEntity() instanceof Player player ? player : null);
+    }
+
+    /**
+     * Creates a new instance of {@link GameCell} displaying a cell of a snapshot of the game board.
+     *
+     * @param snapshot The snapshot of the game board.
+     * @param index    The row-major index of the cell to be displayed.
+     */
+    public GameCell(@NotNull BoardSnapshot snapshot, int index) {
+        this(getResourceNameByKind(snapshot, index), snapshot.getPlayerAt(index));
+    }
+
+    /**
+     * @param resourceName The name of the image resource to display.
+     * @param player       The player on the cell, or {@code null} if the cell is not occupied by a player.
+     */
+    private GameCell(@NotNull String resourceName, @Nullable Player player) {
+        Image image = loadImage(resourceName);
         this.setImage(image);
         this.setFitHeight(40);
         this.setFitWidth(40);
+        if (player != null) {
+            final var variant = Player.getImageVariant(player.getId());
+            if (variant != 0) {
+                this.setEffect(new ColorAdjust(hueOf(variant), 0, 0, 0));
+            }
+        }
+    }
+
+    /**
+     * Gets the hue shift of a variant of a player image, so that players sharing the same image can be told apart.
+     * Successive variants are spaced by the golden ratio, so that the shifts stay far apart for any number of variants.
+     *
+     * @param variant The variant of the image, as returned by {@link Player#getImageVariant(int)}.
+     * @return The hue shift in the range of {@link ColorAdjust#setHue(double)}.
+     */
+    private static double hueOf(int variant) {
+        final var fraction = variant * 0.6180339887498949 % 1.0;
+        return fraction * 2 - 1;
     }
 
     /**
@@ -32,15 +71,32 @@ public class GameCell extends ImageView {
     private static final Map<String, Image> IMAGE_CACHE = new HashMap<>();
 
     /**
-     * Loads the image for the specified {@link Cell} with caching mechanism.
+     * The names of the image resources of the entities, indexed by their {@code PackedBoard.ENTITY_*} kind, taken from
+     * an instance of each kind. Players are excluded, since their images depend on the instance.
+     */
+    private static final String[] ENTITY_RESOURCE_NAMES = {
+            null, new Gem().toImage(), new ExtraLife().toImage(), new Mine().toImage()
+    };
+
+    /**
+     * The names of the image resources of the cells, indexed by their {@code PackedBoard.CELL_*} kind, taken from an
+     * instance of each kind.
+     */
+    private static final String[] CELL_RESOURCE_NAMES = {
+            new EntityCell(new Position(0, 0)).toImage(),
+            new StopCell(new Position(0, 0)).toImage(),
+            new Wall(new Position(0, 0)).toImage()
+    };
+
+    /**
+     * Loads the image of a resource with caching mechanism.
      * The same image should be returned when this method is called with two cells with the same type.
      *
-     * @param cell The {@link Cell}
-     * @return The corresponding {@link Image} for the {@link Cell}.
+     * @param resourceName The name of the image resource.
+     * @return The corresponding {@link Image}.
      */
     @NotNull
-    private Image loadImageForCell(Cell cell) {
-        var resourceName = getResourceNameByCell(cell);
+    private Image loadImage(@NotNull String resourceName) {
         return IMAGE_CACHE.computeIfAbsent(resourceName, rn -> {
             var resourceUrl = Objects.requireNonNull(getClass().getResource(rn));
             return new Image(resourceUrl.toExternalForm());
@@ -64,4 +120,24 @@ public class GameCell extends ImageView {
             return cell.toImage();
         }
     }
+
+    /**
+     * Get the name of the image resource based on the kinds of a cell of a snapshot of the game board.
+     *
+     * @param snapshot The snapshot of the game board.
+     * @param index    The row-major index of the cell.
+     * @return The name of the image resource.
+     */
+    @NotNull
+    private static String getResourceNameByKind(@NotNull BoardSnapshot snapshot, int index) {
+        final var player = snapshot.getPlayerAt(index);
+        if (player != null) {
+            return player.toImage();
+        }
+        final var entityKind = snapshot.getEntityKind(index);
+        if (entityKind != PackedBoard.ENTITY_NONE) {
+            return ENTITY_RESOURCE_NAMES[entityKind];
+        }
+        return CELL_RESOURCE_NAMES[snapshot.getCellKind(index)];
+    }
 }
@@ -0,0 +1,169 @@
+package hk.ust.cse.comp3021.pa3.view.events;
+
+import javafx.animation.AnimationTimer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A bus delivering {@link MoveEvent}s from the game engine to the UI, coalesced once per frame.
+ *
+ * <p>
+ * Events can be published from any thread, e.g. the threads of robots, into a lock-free queue, without scheduling
+ * anything on the JavaFX application thread. Once per pulse, an {@link AnimationTimer} drains the events queued so far
+ * and passes them to the handler as a single batch, so that the UI is updated once per frame no matter how fast the
+ * moves are made.
+ * </p>
+ * <p>
+ * The metrics of the bus are written by the JavaFX application thread, but can be read from any thread.
+ * </p>
+ */
+public class MoveEventBus {
+
+    /**
+     * The events which are published but not yet delivered.
+     */
+    @NotNull
+    private final Queue<MoveEvent> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of events in {@link MoveEventBus#queue}, which is counted separately since the size of the queue is
+     * not known in constant time.
+     */
+    @NotNull
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    /**
+     * The handler of each batch of events, which is called on the JavaFX application thread.
+     */
+    @NotNull
+    private final Consumer<List<MoveEvent>> handler;
+
+    @NotNull
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(final long now) {
+            drain();
+        }
+    };
+
+    private volatile int peakQueueDepth = 0;
+    private volatile int lastNumCoalescedEvents = 0;
+    private volatile long numFrames = 0;
+    private volatile long numEvents = 0;
+
+    /**
+     * Creates an instance.
+     *
+     * @param handler The handler of each batch of events, which is called on the JavaFX application thread with the
+     *                events in the order they are published.
+     */
+    public MoveEventBus(@NotNull final Consumer<List<MoveEvent>> handler) {
+        this.handler = Objects.requireNonNull(handler);
+    }
+
+    /**
+     * Publishes an event, to be delivered on the next frame after this bus is started.
+     *
+     * <p>
+     * This method can be called from any thread.
+     * </p>
+     *
+     * @param event The event.
+     */
+    public void publish(@NotNull final MoveEvent event) {
+        queue.offer(Objects.requireNonNull(event));
+        queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Starts delivering the published events on every frame.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops delivering the published events. The events published afterwards are kept until this bus is started again.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Delivers the events published so far to the handler as a single batch.
+     *
+     * <p>
+     * Events published while draining are left for the next frame, so that a frame is never delayed by threads which
+     * keep publishing.
+     * </p>
+     */
+    private void drain() {
+        final var numQueued = queueDepth.get();
+        if (numQueued == 0) {
+            return;
+        }
+
+        final var events = new ArrayList<MoveEvent>(numQueued);
+        for (int i = 0; i < numQueued; ++i) {
+            events.add(queue.poll());
+        }
+        queueDepth.addAndGet(-numQueued);
+
+        peakQueueDepth = Math.max(peakQueueDepth, numQueued);
+        lastNumCoalescedEvents = numQueued;
+        numFrames = numFrames + 1;
+        numEvents = numEvents + numQueued;
+
+        handler.accept(events);
+    }
+
+    /**
+     * @return The number of events which are published but not yet delivered.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return The largest number of events delivered in a single frame.
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    /**
+     * @return The number of events coalesced into the last frame which delivered any event.
+     */
+    public int getLastNumCoalescedEvents() {
+        return lastNumCoalescedEvents;
+    }
+
+    /**
+     * @return The average number of events coalesced into each frame which delivered any event.
+     */
+    public double getAverageNumCoalescedEvents() {
+        final var frames = numFrames;
+        return frames == 0 ? 0 : (double) numEvents / frames;
+    }
+
+    /**
+     * @return The number of frames which delivered any event.
+     */
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    /**
+     * @return The number of events delivered.
+     */
+    public long getNumEvents() {
+        return numEvents;
+    }
+}
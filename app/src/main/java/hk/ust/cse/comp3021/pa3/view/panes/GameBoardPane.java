@@ -32,10 +32,12 @@ public class GameBoardPane extends GridPane implements GameUIComponent {
         this.getChildren().clear();
         // since all gameStates of all players refer to the same gameBoard,
         // we can simply use the first one.
-        var gameBoard = gameStates[0].getGameBoard();
-        for (int x = 0; x < gameBoard.getNumRows(); x++) {
-            for (int y = 0; y < gameBoard.getNumCols(); y++) {
-                var cellControl = new GameCell(gameBoard.getCell(x, y));
+        // The latest snapshot is drawn instead of the live game board, so that moves made meanwhile by other threads
+        // neither block nor tear the drawing.
+        var snapshot = gameStates[0].getGameBoard().getLatestSnapshot();
+        for (int x = 0; x < snapshot.getNumRows(); x++) {
+            for (int y = 0; y < snapshot.getNumCols(); y++) {
+                var cellControl = new GameCell(snapshot, snapshot.indexOf(x, y));
                 this.add(cellControl, y, x);
             }
         }
@@ -7,10 +7,7 @@ import hk.ust.cse.comp3021.pa3.model.Player;
 import hk.ust.cse.comp3021.pa3.util.MoveDelegate;
 import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
 import hk.ust.cse.comp3021.pa3.view.events.MoveEvent;
-import javafx.application.Platform;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.ObjectPropertyBase;
-import javafx.event.EventHandler;
+import hk.ust.cse.comp3021.pa3.view.events.MoveEventBus;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.image.Image;
@@ -18,6 +15,8 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -26,9 +25,14 @@ import java.util.Objects;
  */
 public class GameControlPane extends GridPane implements GameUIComponent {
     /**
-     * The player that this instance corresponds to.
+     * A map for caching the loaded images of the players by their resource names.
      */
-    private final Player player;
+    private static final Map<String, Image> IMAGE_CACHE = new HashMap<>();
+
+    /**
+     * The player that this instance corresponds to, which changes when this instance is reused for another player.
+     */
+    private Player player;
 
     /**
      * Whether this player is allowed to undo movements.
@@ -43,20 +47,21 @@ public class GameControlPane extends GridPane implements GameUIComponent {
 
     private final Button undoButton = new Button("UNDO");
 
+    private final ImageView playerImage = new ImageView();
+
     private GameController gameController;
-    private MoveDelegate moveDelegate;
 
-    private final ObjectProperty<EventHandler<MoveEvent>> moveEvent = new ObjectPropertyBase<>() {
-        @Override
-        public Object getBean() {
-            return GameControlPane.this;
-        }
+    /**
+     * The delegate controlling each player, indexed by the id of the player, or {@code null} if the player is controlled
+     * from the GUI. This array is shared among all {@link GameControlPane} instances, so that a delegation outlives the
+     * instance it is started from.
+     */
+    private final MoveDelegate[] moveDelegates;
 
-        @Override
-        public String getName() {
-            return "onMove";
-        }
-    };
+    /**
+     * The bus to publish the move events to, which is shared among all {@link GameControlPane} instances.
+     */
+    private final MoveEventBus eventBus;
 
     /**
      * Create an instance.
@@ -64,11 +69,29 @@ public class GameControlPane extends GridPane implements GameUIComponent {
      * @param gameController The game controller, which is shared among all {@link GameControlPane} instances.
      * @param player         The player that this instance should correspond to.
      * @param allowUndo      Whether undo is allowed for this player.
+     * @param eventBus       The bus to publish the move events to, which is shared among all {@link GameControlPane}
+     *                       instances.
+     * @param moveDelegates  The delegate controlling each player, indexed by the id of the player, which is shared among
+     *                       all {@link GameControlPane} instances.
      */
-    GameControlPane(GameController gameController, Player player, boolean allowUndo) {
+    GameControlPane(GameController gameController, Player player, boolean allowUndo, MoveEventBus eventBus,
+                    MoveDelegate[] moveDelegates) {
         this.gameController = gameController;
         this.player = player;
         this.allowUndo = allowUndo;
+        this.eventBus = eventBus;
+        this.moveDelegates = moveDelegates;
+    }
+
+    /**
+     * Makes this instance correspond to another player, e.g. when the list cell showing it is reused.
+     * The caller should then enable or disable the move buttons according to the state of the player.
+     *
+     * @param player The player that this instance should correspond to.
+     */
+    public void bind(Player player) {
+        this.player = player;
+        setPlayerImage();
     }
 
     /**
@@ -80,19 +103,10 @@ public class GameControlPane extends GridPane implements GameUIComponent {
     private synchronized void move(@NotNull Direction direction) {
         var result = this.gameController.processMove(direction, player.getId());
         if (result != null) {
-            this.moveEvent.get().handle(new MoveEvent(result, player.getId()));
+            this.eventBus.publish(new MoveEvent(result, player.getId()));
         }
     }
 
-    /**
-     * Sets the {@link EventHandler} for the move event.
-     *
-     * @param handler The handler.
-     */
-    public void setOnMove(EventHandler<MoveEvent> handler) {
-        this.moveEvent.set(handler);
-    }
-
     /**
      * DONE: Delegate the control of movement from the GUI to an automated delegate.
      * Call the {@link MoveDelegate#startDelegation(MoveDelegate.MoveProcessor)} method of the given delegate.
@@ -100,15 +114,20 @@ public class GameControlPane extends GridPane implements GameUIComponent {
      * After delegation, the {@link GameControlPane#upButton}, {@link GameControlPane#downButton},
      * {@link GameControlPane#leftButton}, and {@link GameControlPane#rightButton}
      * should be disabled to disallow the control from GUI, i.e., call {@link GameControlPane#disable()}.
+     * <p>
+     * The moves of the delegate are published to the {@link MoveEventBus} from the thread of the delegate, instead of
+     * scheduling an update of the UI for every move.
      *
      * @param delegate The automated delegate to control the movement.
      */
     public void delegateControl(MoveDelegate delegate) {
-        moveDelegate = delegate;
-        moveDelegate.startDelegation(dire -> {
-            var result = gameController.processMove(dire, player.getId());
+        // the player of this instance may change while the delegate is running
+        final var playerID = player.getId();
+        moveDelegates[playerID] = delegate;
+        delegate.startDelegation(dire -> {
+            var result = gameController.processMove(dire, playerID);
             if (result != null) {
-                Platform.runLater(() -> moveEvent.get().handle(new MoveEvent(result, player.getId())));
+                eventBus.publish(new MoveEvent(result, playerID));
             }
         });
         disable();
@@ -121,10 +140,19 @@ public class GameControlPane extends GridPane implements GameUIComponent {
      * should be enabled to allow control from GUI, i.e., call {@link GameControlPane#enable()}.
      */
     public void revokeControl() {
+        var moveDelegate = moveDelegates[player.getId()];
         if (moveDelegate != null) moveDelegate.stopDelegation();
+        moveDelegates[player.getId()] = null;
         enable();
     }
 
+    /**
+     * @return Whether the player of this instance is controlled by a delegate.
+     */
+    public boolean isDelegated() {
+        return moveDelegates[player.getId()] != null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -185,13 +213,20 @@ public class GameControlPane extends GridPane implements GameUIComponent {
      * Adds the image of the player in the middle of the buttons.
      */
     private void addPlayerImage() {
-        var resourceName = player.toImage();
-        var resourceUrl = Objects.requireNonNull(getClass().getResource(resourceName));
-        var image = new Image(resourceUrl.toExternalForm());
-        var imageView = new ImageView(image);
-        imageView.setFitHeight(50);
-        imageView.setFitWidth(50);
-        this.add(imageView, 1, 1);
+        setPlayerImage();
+        playerImage.setFitHeight(50);
+        playerImage.setFitWidth(50);
+        this.add(playerImage, 1, 1);
+    }
+
+    /**
+     * Shows the image of the current player, loading it with caching mechanism.
+     */
+    private void setPlayerImage() {
+        playerImage.setImage(IMAGE_CACHE.computeIfAbsent(player.toImage(), rn -> {
+            var resourceUrl = Objects.requireNonNull(getClass().getResource(rn));
+            return new Image(resourceUrl.toExternalForm());
+        }));
     }
 
     /**
@@ -219,7 +254,7 @@ public class GameControlPane extends GridPane implements GameUIComponent {
     public void performUndo() {
         var mostRecentMove = gameController.getGameState().getMoveStack().peek();
         this.gameController.processUndo();
-        this.moveEvent.get().handle(new MoveEvent(mostRecentMove, player.getId()));
+        this.eventBus.publish(new MoveEvent(mostRecentMove, player.getId()));
     }
 
     /**
@@ -18,7 +18,8 @@ public class GameStatisticsPane extends GridPane implements GameUIComponent {
      * The {@link GameState} instance that the player owning this instance is associated with.
      * Recall that each {@link hk.ust.cse.comp3021.pa3.model.Player} instance is associated with a {@link GameState} instance.
      */
-    private final GameState gameState;
+    @NotNull
+    private GameState gameState;
 
     private final Label numMovesLabel = new Label();
     private final Label numUndoesLabel = new Label();
@@ -55,6 +56,16 @@ public class GameStatisticsPane extends GridPane implements GameUIComponent {
         }
     }
 
+    /**
+     * Makes this instance display the statistics of another player, e.g. when the list cell showing it is reused.
+     *
+     * @param gameState The game state that the player owning this instance is associated with.
+     */
+    public void bind(@NotNull GameState gameState) {
+        this.gameState = gameState;
+        updateStatistics();
+    }
+
     /**
      * Updates the statistics display with latest {@link GameState}.
      */
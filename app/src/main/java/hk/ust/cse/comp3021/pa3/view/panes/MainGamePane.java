@@ -5,15 +5,22 @@ import hk.ust.cse.comp3021.pa3.controller.GameController;
 import hk.ust.cse.comp3021.pa3.model.GameBoard;
 import hk.ust.cse.comp3021.pa3.model.GameState;
 import hk.ust.cse.comp3021.pa3.model.MoveResult;
+import hk.ust.cse.comp3021.pa3.model.Player;
+import hk.ust.cse.comp3021.pa3.util.MoveDelegate;
 import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
 import hk.ust.cse.comp3021.pa3.view.UIServices;
 import hk.ust.cse.comp3021.pa3.view.events.MoveEvent;
+import hk.ust.cse.comp3021.pa3.view.events.MoveEventBus;
+import javafx.application.Platform;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -27,13 +34,33 @@ public class MainGamePane extends VBox implements GameUIComponent {
     private final GameBoardPane gameBoardPane = new GameBoardPane();
 
     /**
-     * The list of {@link PlayerPane} instances, each of which corresponds to a player.
-     * The length of this list should be equal to the total number of players.
+     * The {@link PlayerPane} instance currently showing each player, indexed by the id of the player.
+     * The slots of the players which are not scrolled into view, and of the ids which do not belong to any player of
+     * the game, are {@code null}.
      */
-    private final List<PlayerPane> playerPanes = new ArrayList<>();
+    private PlayerPane[] playerPanes = new PlayerPane[0];
+
+    /**
+     * The delegate controlling each player, indexed by the id of the player, or {@code null} if the player is
+     * controlled from the GUI. This is shared among all {@link PlayerPane} instances, since a pane is reused for other
+     * players while the delegate of its player keeps running.
+     */
+    private MoveDelegate[] moveDelegates = new MoveDelegate[0];
+
+    /**
+     * The scrollable list of the game states of the players, in ascending order of the ids of the players.
+     * The list is virtualized, i.e. a {@link PlayerPane} is only created for each visible cell of the list and rebound
+     * to the player scrolled into it, so that the cost of layout does not grow with the number of players.
+     */
+    private final ListView<GameState> playerList = new ListView<>();
 
     private final GameController gameController;
 
+    /**
+     * The bus delivering the move events of all players, coalesced once per frame.
+     */
+    private final MoveEventBus eventBus = new MoveEventBus(this::gameMoveHandler);
+
     private final InertiaFxGame game;
 
     /**
@@ -69,22 +96,23 @@ public class MainGamePane extends VBox implements GameUIComponent {
         this.gameBoardPane.initializeComponents();
         this.gameBoardPane.showGameState(gameController.getGameStates());
 
+        // the game states are in ascending order of the ids of the players, so the last one has the largest id
+        var gameStates = gameController.getGameStates();
+        this.playerPanes = new PlayerPane[gameStates[gameStates.length - 1].getPlayer().getId() + 1];
+        this.moveDelegates = new MoveDelegate[playerPanes.length];
+        this.playerList.getItems().addAll(List.of(gameStates));
+        this.playerList.setCellFactory(list -> new PlayerCell());
+
         var operationArea = new HBox();
-        operationArea.getChildren().add(gameBoardPane);
-        for (var s :
-                gameController.getGameStates()) {
-            var playerPane = new PlayerPane(gameController, s, gameController.getGameStates().length == 1);
-            playerPane.initializeComponents();
-            playerPane.setOnMove(this::gameMoveHandler);
-            playerPanes.add(playerPane);
-            operationArea.getChildren().add(playerPane);
-        }
+        operationArea.getChildren().addAll(gameBoardPane, playerList);
         this.getChildren().addAll(
                 gameTitle,
                 operationArea
         );
         VBox.setVgrow(operationArea, Priority.ALWAYS);
         HBox.setHgrow(gameBoardPane, Priority.ALWAYS);
+
+        this.eventBus.start();
     }
 
     /**
@@ -101,12 +129,18 @@ public class MainGamePane extends VBox implements GameUIComponent {
     }
 
     /**
-     * {@link javafx.event.Event} handler for a game move operation triggered by {@link GameControlPane}.
-     * DONE you may or may not need to do thread synchronization in this method.
+     * Handler of the {@link MoveEvent}s published by all {@link GameControlPane} instances during a frame, which is
+     * called by {@link MainGamePane#eventBus} on the JavaFX application thread.
      *
-     * @param e The corresponding {@link MoveEvent}.
+     * <p>
+     * The game board is redrawn, the statistics of each moved player are updated, and the winners are checked only once
+     * for all the events. Dialogs are shown after the frame, since they cannot be shown while an animation is
+     * processed.
+     * </p>
+     *
+     * @param events The events published since the last frame, in the order they are published.
      */
-    private synchronized void gameMoveHandler(MoveEvent e) {
+    private void gameMoveHandler(List<MoveEvent> events) {
         if (gameEnded) {
             return;
         }
@@ -114,10 +148,21 @@ public class MainGamePane extends VBox implements GameUIComponent {
         // update the gameBoardPane with the latest game states.
         this.gameBoardPane.showGameState(gameController.getGameStates());
 
-        // show lose dialog if the move event indicates a player loses and get kicked out of the game board.
-        if (e.getMoveResult() instanceof MoveResult.Valid.KickedOut) {
-            getPlayerPane(e.getPlayerID()).kickOut();
-            UIServices.showLoseDialog(gameController.getGameBoard().getPlayer(e.getPlayerID()));
+        final var movedPlayerIDs = new BitSet(playerPanes.length);
+        final var losers = new ArrayList<Player>();
+        for (var e : events) {
+            movedPlayerIDs.set(e.getPlayerID());
+
+            // the pane of a player who gets kicked out shows it from the game state of the player.
+            if (e.getMoveResult() instanceof MoveResult.Valid.KickedOut) {
+                losers.add(gameController.getGameBoard().getPlayer(e.getPlayerID()));
+            }
+        }
+        for (var playerID = movedPlayerIDs.nextSetBit(0); playerID >= 0; playerID = movedPlayerIDs.nextSetBit(playerID + 1)) {
+            var playerPane = getPlayerPane(playerID);
+            if (playerPane != null) {
+                playerPane.refresh();
+            }
         }
 
         // try to get winners from the game controller
@@ -126,21 +171,57 @@ public class MainGamePane extends VBox implements GameUIComponent {
         // winners == null means the game is still on going.
         if (winners != null) {
             gameEnded = true;
+            this.eventBus.stop();
             // stop all enabled robots if exist
+            for (int i = 0; i < moveDelegates.length; i++) {
+                if (moveDelegates[i] != null) {
+                    moveDelegates[i].stopDelegation();
+                    moveDelegates[i] = null;
+                }
+            }
             for (var playerPane :
                     playerPanes) {
-                playerPane.stopRobot();
+                if (playerPane != null) {
+                    playerPane.refresh();
+                }
             }
+        }
 
-            // show win dialog for every winner.
-            for (var winner :
-                    winners) {
-                UIServices.showWinDialog(winner);
-            }
+        if (!losers.isEmpty() || winners != null) {
+            Platform.runLater(() -> showResultDialogs(losers, winners));
+        }
+    }
+
+    /**
+     * Shows the lose dialog of each player who gets kicked out, then the win dialog of each winner and returns to the
+     * main menu if the game has ended.
+     *
+     * @param losers  The players who get kicked out.
+     * @param winners The winners of the game, or {@code null} if the game is still on going.
+     */
+    private void showResultDialogs(List<Player> losers, Player[] winners) {
+        for (var loser : losers) {
+            UIServices.showLoseDialog(loser);
+        }
+        if (winners == null) {
+            return;
+        }
 
-            // return to main menu
-            if (game != null) game.showMainMenu();
+        // show win dialog for every winner.
+        for (var winner :
+                winners) {
+            UIServices.showWinDialog(winner);
         }
+
+        // return to main menu
+        if (game != null) game.showMainMenu();
+    }
+
+    /**
+     * @return the {@link MoveEventBus} delivering the move events of all players, e.g. to read its metrics.
+     */
+    public MoveEventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -151,16 +232,48 @@ public class MainGamePane extends VBox implements GameUIComponent {
     }
 
     /**
-     * Get the {@link PlayerPane} instance of the player.
-     * t*
+     * Get the {@link PlayerPane} instance currently showing the player.
      *
      * @param playerID The id of the player.
-     * @return The PlayerPane instance.
+     * @return The PlayerPane instance, or {@code null} if the player is not scrolled into view.
+     * @throws IllegalArgumentException if {@code playerID} is out of the range of the ids of the players.
      */
     public PlayerPane getPlayerPane(int playerID) {
-        return this.playerPanes.stream()
-                .filter(p -> p.getPlayer().getId() == playerID)
-                .findFirst()
-                .orElseThrow(IllegalArgumentException::new);
+        if (playerID < 0 || playerID >= playerPanes.length) {
+            throw new IllegalArgumentException();
+        }
+        return playerPanes[playerID];
+    }
+
+    /**
+     * A cell of {@link MainGamePane#playerList}, which creates its {@link PlayerPane} for the first player it shows, and
+     * rebinds the pane to each player it shows afterwards.
+     */
+    private class PlayerCell extends ListCell<GameState> {
+        private PlayerPane playerPane;
+
+        @Override
+        protected void updateItem(GameState item, boolean empty) {
+            super.updateItem(item, empty);
+
+            // the pane no longer shows its previous player
+            if (playerPane != null && playerPanes[playerPane.getPlayer().getId()] == playerPane) {
+                playerPanes[playerPane.getPlayer().getId()] = null;
+            }
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+
+            if (playerPane == null) {
+                playerPane = new PlayerPane(gameController, item, gameController.getGameStates().length == 1, eventBus,
+                        moveDelegates);
+                playerPane.initializeComponents();
+            } else {
+                playerPane.bind(item);
+            }
+            playerPanes[item.getPlayer().getId()] = playerPane;
+            setGraphic(playerPane);
+        }
     }
 }
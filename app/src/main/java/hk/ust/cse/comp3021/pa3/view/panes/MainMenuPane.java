@@ -47,16 +47,13 @@ public class MainMenuPane extends VBox implements GameUIComponent {
 
     /**
      * Event handler for the start game button.
-     * Remember to check the total number of players or game states since in PA3 we only consider at most 2 players.
+     * Any number of players is supported.
      *
      * @param e The {@link ActionEvent} for the button click.
      */
     private void onStartButtonClick(ActionEvent e) {
         var gameStates = UIServices.loadGame(game);
         if (gameStates != null) {
-            if (gameStates.length > 2) {
-                throw new IllegalArgumentException("only support at most 2 players");
-            }
             game.showGamePane(gameStates);
         }
     }
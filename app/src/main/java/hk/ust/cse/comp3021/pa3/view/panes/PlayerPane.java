@@ -3,11 +3,11 @@ package hk.ust.cse.comp3021.pa3.view.panes;
 import hk.ust.cse.comp3021.pa3.controller.GameController;
 import hk.ust.cse.comp3021.pa3.model.GameState;
 import hk.ust.cse.comp3021.pa3.model.Player;
+import hk.ust.cse.comp3021.pa3.util.MoveDelegate;
 import hk.ust.cse.comp3021.pa3.util.Robot;
 import hk.ust.cse.comp3021.pa3.view.GameUIComponent;
-import hk.ust.cse.comp3021.pa3.view.events.MoveEvent;
+import hk.ust.cse.comp3021.pa3.view.events.MoveEventBus;
 import javafx.event.Event;
-import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.control.ToggleButton;
@@ -17,6 +17,12 @@ import javafx.scene.layout.VBox;
 /**
  * Represents a pane corresponding to a player in the GUI.
  * It contains the {@link GameControlPane} and {@link GameStatisticsPane} instances corresponding to the player.
+ *
+ * <p>
+ * An instance can be rebound to another player, e.g. when the list cell showing it is reused, so it keeps no state of
+ * its own about the player; Whether the player is kicked out is read from its {@link GameState}, and whether it is
+ * controlled by a {@link Robot} is kept in the delegates shared among all instances.
+ * </p>
  */
 public class PlayerPane extends VBox implements GameUIComponent {
     /**
@@ -32,20 +38,23 @@ public class PlayerPane extends VBox implements GameUIComponent {
     private final GameStatisticsPane statisticsPane;
     private final Label playerStatus;
 
-    private EventHandler<MoveEvent> moveHandler;
-
     /**
      * Creates an instance.
      *
      * @param gameController The game controller that is shared among all {@link PlayerPane} instance.
      * @param gameState      The game state that belongs to the player corresponding to this instance.
      * @param allowUndo      Whether the player is allowed to undo movements.
+     * @param eventBus       The bus to publish the move events of the player to.
+     * @param moveDelegates  The delegate controlling each player, indexed by the id of the player, which is shared among
+     *                       all {@link PlayerPane} instances.
      */
-    PlayerPane(GameController gameController, GameState gameState, boolean allowUndo) {
+    PlayerPane(GameController gameController, GameState gameState, boolean allowUndo, MoveEventBus eventBus,
+               MoveDelegate[] moveDelegates) {
         super();
         this.playerID = new Label(String.format("Player %d", gameState.getPlayer().getId()));
         this.playerStatus = new Label("Status: Alive");
-        this.controlPane = new GameControlPane(gameController, gameState.getPlayer(), allowUndo);
+        this.controlPane = new GameControlPane(gameController, gameState.getPlayer(), allowUndo, eventBus,
+                moveDelegates);
         this.robotButton = new ToggleButton("Robot Disabled");
         this.statisticsPane = new GameStatisticsPane(gameState);
     }
@@ -58,10 +67,21 @@ public class PlayerPane extends VBox implements GameUIComponent {
         this.setAlignment(Pos.CENTER);
         this.getChildren().addAll(playerID, playerStatus, controlPane, robotButton, statisticsPane);
         controlPane.initializeComponents();
-        controlPane.setOnMove(this::gameMoveHandler);
         robotButton.setOnAction(this::robotButtonAction);
         statisticsPane.initializeComponents();
-        statisticsPane.updateStatistics();
+        refresh();
+    }
+
+    /**
+     * Makes this instance correspond to another player, e.g. when the list cell showing it is reused.
+     *
+     * @param gameState The game state that belongs to the player corresponding to this instance.
+     */
+    public void bind(GameState gameState) {
+        this.playerID.setText(String.format("Player %d", gameState.getPlayer().getId()));
+        controlPane.bind(gameState.getPlayer());
+        statisticsPane.bind(gameState);
+        refresh();
     }
 
     /**
@@ -85,25 +105,31 @@ public class PlayerPane extends VBox implements GameUIComponent {
     }
 
     /**
-     * Mark the player as lost.
-     * Disable the {@link PlayerPane#controlPane} and {@link PlayerPane#robotButton}.
+     * Updates the statistics and the status display of the player with its latest {@link GameState}.
+     * If the player is kicked out, i.e. has lost, the {@link PlayerPane#controlPane} and {@link PlayerPane#robotButton}
+     * are disabled.
      */
-    public void kickOut() {
-        // disable move buttons
-        controlPane.disable();
-        this.robotButton.setDisable(true);
-        playerStatus.setText("Status: Lost");
-    }
-
-    private void gameMoveHandler(MoveEvent e) {
+    public void refresh() {
         statisticsPane.updateStatistics();
-        if (moveHandler != null) {
-            moveHandler.handle(e);
-        }
-    }
 
-    public void setOnMove(EventHandler<MoveEvent> handler) {
-        moveHandler = handler;
+        final var delegated = controlPane.isDelegated();
+        robotButton.setSelected(delegated);
+        robotButton.setText(delegated ? "Robot Enabled" : "Robot Disabled");
+        if (getGameState().hasLost()) {
+            // disable move buttons
+            controlPane.disable();
+            robotButton.setDisable(true);
+            playerStatus.setText("Status: Lost");
+        } else {
+            // the move buttons are only enabled while the player is not controlled by a robot
+            if (delegated) {
+                controlPane.disable();
+            } else {
+                controlPane.enable();
+            }
+            robotButton.setDisable(false);
+            playerStatus.setText("Status: Alive");
+        }
     }
 
     /**
@@ -123,13 +149,4 @@ public class PlayerPane extends VBox implements GameUIComponent {
     public GameState getGameState() {
         return controlPane.getGameState();
     }
-
-    /**
-     * Stop the delegation to the {@link Robot} instance if there is any.
-     */
-    public void stopRobot() {
-        this.robotButton.setSelected(false);
-        this.robotButton.setText("Robot Disabled");
-        this.controlPane.revokeControl();
-    }
 }
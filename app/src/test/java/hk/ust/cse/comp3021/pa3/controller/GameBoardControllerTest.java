@@ -11,7 +11,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -701,6 +705,388 @@ public class GameBoardControllerTest {
         assertTrue(gameBoard.getEntityCell(1, 3).getEntity() instanceof Gem);
     }
 
+    // P.*W.
+    // .X.#L
+    // *.W..
+    // Q...*
+    @ParameterizedTest
+    @EnumSource(value = Direction.class)
+    @Tag("sanity")
+    @DisplayName("Try Move - Jump Table Matches Scan")
+    void testTryMoveResolversAgree(final Direction dir) {
+        final var otherPlayer = new Player();
+        gameBoard = GameBoardUtils.createGameBoard(4, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2, 10, 19 -> new EntityCell(pos, new Gem());
+            case 3, 12 -> new Wall(pos);
+            case 6 -> new EntityCell(pos, new Mine());
+            case 8 -> new StopCell(pos);
+            case 9 -> new EntityCell(pos, new ExtraLife());
+            case 15 -> new EntityCell(pos, otherPlayer);
+            default -> new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+        final var playerId = gameBoard.getPlayers().get(0).getId();
+
+        for (int r = 0; r < gameBoard.getNumRows(); ++r) {
+            for (int c = 0; c < gameBoard.getNumCols(); ++c) {
+                if (gameBoard.getCell(r, c) instanceof Wall) {
+                    continue;
+                }
+                final var position = new Position(r, c);
+
+                gameBoard.setSlideResolver(SlideResolver.SCAN);
+                final var expected = controller.tryMove(position, dir, playerId);
+                for (final var resolver : SlideResolver.values()) {
+                    gameBoard.setSlideResolver(resolver);
+                    final var actual = controller.tryMove(position, dir, playerId);
+
+                    final var message = resolver + " " + position;
+                    assertEquals(expected.getClass(), actual.getClass(), message);
+                    assertEquals(expected.newPosition, actual.newPosition, message);
+                    if (expected instanceof MoveResult.Valid.Alive alive) {
+                        assertEquals(alive.collectedGems, ((MoveResult.Valid.Alive) actual).collectedGems, message);
+                        assertEquals(alive.collectedExtraLives, ((MoveResult.Valid.Alive) actual).collectedExtraLives, message);
+                    }
+                }
+            }
+        }
+    }
+
+    // P.*.#
+    // .....
+    // .....
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make and Undo Move - Bitboards Kept in Sync")
+    void testBitboardMakeAndUndoMove() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            case 4 -> new StopCell(pos);
+            default -> new EntityCell(pos);
+        });
+        gameBoard.setSlideResolver(SlideResolver.BITBOARD);
+        controller = new GameBoardController(gameBoard);
+        final var bitboards = gameBoard.getPackedBoard().getBitboards();
+        assertNotNull(bitboards);
+
+        final var move = controller.makeMove(Direction.RIGHT);
+        assertTrue(move instanceof MoveResult.Valid.Alive);
+        assertEquals(-1, bitboards.findFirst(PackedBoard.ENTITY_GEM, Direction.LEFT, 4, 0));
+        assertEquals(4, bitboards.findFirst(PackedBoard.ENTITY_PLAYER, Direction.RIGHT, 0, 4));
+
+        controller.undoMove(move);
+        assertEquals(2, bitboards.findFirst(PackedBoard.ENTITY_GEM, Direction.LEFT, 4, 0));
+        assertEquals(0, bitboards.findFirst(PackedBoard.ENTITY_PLAYER, Direction.LEFT, 4, 0));
+        assertEquals(-1, bitboards.findFirst(PackedBoard.ENTITY_PLAYER, Direction.RIGHT, 0, 4));
+        assertEquals(new Position(0, 4), controller.tryMove(new Position(0, 0), Direction.RIGHT, gameBoard.getPlayer().getId()).newPosition);
+    }
+
+    // P.*.#
+    // .....
+    // P....
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make, Undo Move and Kick Out - Zobrist Hash Kept in Sync")
+    void testZobristHashMakeAndUndoMove() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            case 4 -> new StopCell(pos);
+            default -> new EntityCell(pos);
+        });
+        gameBoard.setZobristVerification(true);
+        controller = new GameBoardController(gameBoard);
+        final var initialHash = gameBoard.getZobristHash();
+        assertEquals(gameBoard.computeZobristHash(), initialHash);
+
+        final var move = controller.makeMove(Direction.RIGHT);
+        assertTrue(move instanceof MoveResult.Valid.Alive);
+        assertNotEquals(initialHash, gameBoard.getZobristHash());
+
+        controller.undoMove(move);
+        assertEquals(initialHash, gameBoard.getZobristHash());
+
+        final var otherPlayer = new Player();
+        gameBoard.getEntityCell(2, 0).setEntity(otherPlayer);
+        final var multiplayerHash = gameBoard.getZobristHash();
+        assertNotEquals(initialHash, multiplayerHash);
+
+        controller.makeMove(Direction.RIGHT, otherPlayer.getId());
+        assertNotEquals(multiplayerHash, gameBoard.getZobristHash());
+
+        controller.kickOut(otherPlayer.getId());
+        assertEquals(initialHash, gameBoard.getZobristHash());
+    }
+
+    // P*L.
+    @Test
+    @Tag("sanity")
+    @DisplayName("Undo Move - Collectibles Reused")
+    void testUndoMoveReusesCollectibles() {
+        final var gem = new Gem();
+        final var extraLife = new ExtraLife();
+        gameBoard = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 1 -> new EntityCell(pos, gem);
+            case 2 -> new EntityCell(pos, extraLife);
+            default -> new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+
+        for (int i = 0; i < 3; ++i) {
+            final var move = controller.makeMove(Direction.RIGHT);
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            assertNull(gem.getOwner());
+
+            controller.undoMove(move);
+            assertSame(gem, gameBoard.getEntityCell(0, 1).getEntity());
+            assertSame(extraLife, gameBoard.getEntityCell(0, 2).getEntity());
+            assertSame(gameBoard.getEntityCell(0, 1), gem.getOwner());
+            assertEquals(1, gameBoard.getNumGems());
+        }
+    }
+
+    // P.*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make Move - Not Blocked by Another Game")
+    void testMakeMoveNotBlockedByAnotherGame() throws Exception {
+        final var otherGameBoard = GameBoardUtils.createGameBoard(1, 3, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        gameBoard = GameBoardUtils.createGameBoard(1, 3, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+
+        final var otherLock = otherGameBoard.getLock();
+        otherLock.lock();
+        try {
+            final var move = CompletableFuture.supplyAsync(() -> controller.makeMove(Direction.RIGHT))
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            assertEquals(new Position(0, 2), gameBoard.getPlayer().getOwner().getPosition());
+        } finally {
+            otherLock.unlock();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make Move - Not Blocked by Another Region")
+    void testMakeMoveNotBlockedByAnotherRegion() throws Exception {
+        final var size = PackedBoard.TILE_SIZE * 2;
+        final var topLeft = new Position(0, 0);
+        final var bottomRight = new Position(size - 1, size - 1);
+        gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> {
+            if (pos.equals(topLeft) || pos.equals(bottomRight)) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, size / 2))) {
+                return new EntityCell(pos, new Gem());
+            }
+            return new EntityCell(pos);
+        });
+        gameBoard.setZobristVerification(true);
+        controller = new GameBoardController(gameBoard);
+        final var topLeftId = gameBoard.getPlayerAt(gameBoard.getPackedBoard().indexOf(topLeft)).getId();
+        final var bottomRightId = gameBoard.getPlayerAt(gameBoard.getPackedBoard().indexOf(bottomRight)).getId();
+
+        final var regionLocks = gameBoard.getRegionLocks();
+        final var topLeftMask = regionLocks.maskOf(0, 0);
+        regionLocks.lock(topLeftMask);
+        final CompletableFuture<MoveResult> blockedMove;
+        try {
+            // The top row crosses the locked region, the bottom row does not
+            blockedMove = CompletableFuture.supplyAsync(() -> controller.makeMove(Direction.RIGHT, topLeftId));
+            final var move = CompletableFuture.supplyAsync(() -> controller.makeMove(Direction.LEFT, bottomRightId))
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            assertEquals(new Position(size - 1, 0), gameBoard.getPlayer(bottomRightId).getOwner().getPosition());
+
+            Thread.sleep(100);
+            assertFalse(blockedMove.isDone());
+        } finally {
+            regionLocks.unlock(topLeftMask);
+        }
+
+        assertTrue(blockedMove.get(10, TimeUnit.SECONDS) instanceof MoveResult.Valid.Alive);
+        assertEquals(new Position(0, size - 1), gameBoard.getPlayer(topLeftId).getOwner().getPosition());
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make Move - Committed While Another Region Is Being Committed")
+    void testMakeMoveCommittedConcurrently() throws Exception {
+        final var size = PackedBoard.TILE_SIZE * 2;
+        final var topLeft = new Position(0, 0);
+        final var bottomRight = new Position(size - 1, size - 1);
+        gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> {
+            if (pos.equals(topLeft) || pos.equals(bottomRight)) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, size / 2))) {
+                return new EntityCell(pos, new Gem());
+            }
+            return new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var bottomRightId = gameBoard.getPlayerAt(packedBoard.indexOf(bottomRight)).getId();
+
+        // Hold what a move committed in the top-left region holds, as if it were halfway through its commit
+        final var regionLocks = gameBoard.getRegionLocks();
+        final var stampedLock = gameBoard.getStampedLock();
+        final var topLeftMask = regionLocks.maskOf(0, 0);
+        regionLocks.lock(topLeftMask);
+        final var stamp = stampedLock.readLock();
+        regionLocks.beginWrite(topLeftMask);
+        try {
+            final var move = CompletableFuture.supplyAsync(() -> controller.makeMove(Direction.LEFT, bottomRightId))
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            assertEquals(new Position(size - 1, 0), gameBoard.getPlayer(bottomRightId).getOwner().getPosition());
+
+            // The snapshot is left to the move still being committed
+            assertEquals(packedBoard.indexOf(bottomRight), gameBoard.getLatestSnapshot().getPlayerCell(bottomRightId));
+        } finally {
+            regionLocks.endWrite(topLeftMask);
+            stampedLock.unlockRead(stamp);
+            regionLocks.unlock(topLeftMask);
+        }
+        gameBoard.publishSnapshotIfStale();
+
+        assertEquals(packedBoard.indexOf(size - 1, 0), gameBoard.getLatestSnapshot().getPlayerCell(bottomRightId));
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make Move - Only Regions up to the Static Stop Locked")
+    void testMakeMoveLocksUpToStaticStop() throws Exception {
+        final var size = PackedBoard.TILE_SIZE * 2;
+        final var stop = new Position(0, PackedBoard.TILE_SIZE / 2);
+        gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(stop)) {
+                return new StopCell(pos);
+            }
+            return new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+        assertEquals(SlideResolver.SCAN, gameBoard.getSlideResolver());
+        final var playerId = gameBoard.getPlayerAt(0).getId();
+
+        // The region on the other side of the stop cell is not needed by the slide
+        final var regionLocks = gameBoard.getRegionLocks();
+        final var topRightIndex = gameBoard.getPackedBoard().indexOf(0, size - 1);
+        final var topRightMask = regionLocks.maskOf(topRightIndex, topRightIndex);
+        regionLocks.lock(topRightMask);
+        try {
+            final var move = CompletableFuture.supplyAsync(() -> controller.makeMove(Direction.RIGHT, playerId))
+                    .get(10, TimeUnit.SECONDS);
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            assertEquals(stop, move.newPosition);
+        } finally {
+            regionLocks.unlock(topRightMask);
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Make Move - Concurrent Commits in Disjoint Regions Consistent")
+    void testMakeMoveConcurrentCommitsConsistent() throws Exception {
+        // Each player slides between the left and right edges of its own region
+        final var size = PackedBoard.TILE_SIZE * 2;
+        final var starts = new Position[]{
+                new Position(1, 0), new Position(1, size / 2), new Position(size / 2 + 1, 0),
+                new Position(size / 2 + 1, size / 2)
+        };
+        gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> {
+            if (Arrays.asList(starts).contains(pos)) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.col() == size / 2 - 1 && (pos.row() == 1 || pos.row() == size / 2 + 1)) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Gem());
+            }
+            return new EntityCell(pos);
+        });
+        gameBoard.setSlideResolver(SlideResolver.JUMP_TABLE);
+        controller = new GameBoardController(gameBoard);
+
+        final var numMoves = 2000;
+        final var futures = new ArrayList<CompletableFuture<Void>>();
+        for (final var start : starts) {
+            final var playerId = gameBoard.getPlayerAt(gameBoard.getPackedBoard().indexOf(start)).getId();
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < numMoves; ++i) {
+                    final var move = controller.makeMove(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT, playerId);
+                    assertTrue(move instanceof MoveResult.Valid.Alive);
+                }
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        final var snapshot = gameBoard.getLatestSnapshot();
+        for (final var start : starts) {
+            final var index = gameBoard.getPackedBoard().indexOf(start);
+            final var player = gameBoard.getPlayerAt(index);
+            assertNotNull(player);
+            assertEquals(index, snapshot.getPlayerCell(player.getId()));
+        }
+        assertEquals(starts.length, gameBoard.getPackedBoard().getEntityCount(PackedBoard.ENTITY_PLAYER));
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+        assertEquals(gameBoard.getZobristHash(), snapshot.getZobristHash());
+    }
+
+    // P.*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Try Move - Optimistic Read")
+    void testTryMoveOptimisticRead() throws Exception {
+        gameBoard = GameBoardUtils.createGameBoard(1, 3, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        controller = new GameBoardController(gameBoard);
+        final var origin = new Position(0, 0);
+        final var playerId = gameBoard.getPlayer().getId();
+
+        // Moves being resolved do not block queries
+        final var regionLocks = gameBoard.getRegionLocks();
+        regionLocks.lock(regionLocks.allMask());
+        try {
+            final var move = CompletableFuture.supplyAsync(() -> controller.tryMove(origin, Direction.RIGHT, playerId))
+                    .get(10, TimeUnit.SECONDS);
+            assertEquals(new Position(0, 2), move.newPosition);
+        } finally {
+            regionLocks.unlock(regionLocks.allMask());
+        }
+
+        // Queries wait for moves being committed
+        final var lock = gameBoard.getLock();
+        lock.lock();
+        final CompletableFuture<MoveResult> blockedMove;
+        try {
+            blockedMove = CompletableFuture.supplyAsync(() -> controller.tryMove(origin, Direction.RIGHT, playerId));
+            Thread.sleep(100);
+            assertFalse(blockedMove.isDone());
+        } finally {
+            lock.unlock();
+        }
+        assertEquals(new Position(0, 2), blockedMove.get(10, TimeUnit.SECONDS).newPosition);
+    }
+
     @AfterEach
     void tearDown() {
         controller = null;
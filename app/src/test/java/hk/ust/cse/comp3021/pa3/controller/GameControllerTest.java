@@ -12,7 +12,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -1048,6 +1051,133 @@ public class GameControllerTest {
         assertEquals(0, gameState.getNumDeaths());
     }
 
+    // P.*W.
+    // LX.#L
+    // *.W..
+    // Q...*
+    private static GameController createMultiplayerGame(final int numLives) {
+        final var board = GameBoardUtils.createGameBoard(4, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0, 15 -> new EntityCell(pos, new Player());
+            case 2, 10, 19 -> new EntityCell(pos, new Gem());
+            case 3, 12 -> new Wall(pos);
+            case 6 -> new EntityCell(pos, new Mine());
+            case 8 -> new StopCell(pos);
+            case 5, 9 -> new EntityCell(pos, new ExtraLife());
+            default -> new EntityCell(pos);
+        });
+        return new GameController(board.getPlayers().stream()
+                .map(player -> new GameState(board, player, numLives))
+                .toArray(GameState[]::new));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Many Players - Game States Indexed by Player ID")
+    void testManyPlayers() {
+        // P S *, on each row
+        final var numPlayers = 64;
+        final var board = GameBoardUtils.createGameBoard(numPlayers, 3, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 1 -> new StopCell(pos);
+            default -> new EntityCell(pos, new Gem());
+        });
+        final var gameStates = board.getPlayers().stream()
+                .map(player -> new GameState(board, player))
+                .toArray(GameState[]::new);
+        Collections.reverse(Arrays.asList(gameStates));
+        controller = new GameController(gameStates);
+
+        final var players = controller.getPlayers();
+        assertEquals(numPlayers, players.length);
+        for (int id = 0; id < numPlayers; ++id) {
+            assertEquals(id, players[id].getId());
+            assertSame(players[id], controller.getGameState(id).getPlayer());
+        }
+        assertThrows(IllegalArgumentException.class, () -> controller.getGameState(numPlayers));
+        assertThrows(IllegalArgumentException.class, () -> controller.getGameState(-1));
+
+        for (final var direction : List.of(Direction.RIGHT, Direction.RIGHT)) {
+            for (int id = numPlayers - 1; id >= 0; --id) {
+                assertNull(controller.getWinners());
+                assertTrue(controller.processMove(direction, id) instanceof MoveResult.Valid.Alive);
+            }
+        }
+
+        final var winners = controller.getWinners();
+        assertNotNull(winners);
+        assertEquals(numPlayers, winners.length);
+        for (int id = 0; id < numPlayers; ++id) {
+            assertEquals(1, controller.getGameState(id).getNumGotGems());
+            assertEquals(2, controller.getGameState(id).getNumMoves());
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Many Players - Reject Game States of the Same Player")
+    void testDuplicatePlayers() {
+        final var board = createMultiplayerGame(GameState.UNLIMITED_LIVES).getGameBoard();
+        final var gameState = new GameState(board, board.getPlayer(0));
+
+        assertThrows(IllegalArgumentException.class, () -> new GameController(gameState, new GameState(board, board.getPlayer(0))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    @Tag("sanity")
+    @DisplayName("Process Moves - Same as Processing Each Move")
+    void testProcessMovesBatch(final boolean hasUnlimitedLives) {
+        final var numLives = hasUnlimitedLives ? GameState.UNLIMITED_LIVES : 2;
+        final var expectedController = createMultiplayerGame(numLives);
+        controller = createMultiplayerGame(numLives);
+
+        final var random = new Random(3021);
+        final var numMoves = 200;
+        final var playerIDs = new int[numMoves];
+        final var directions = new Direction[numMoves];
+        for (int i = 0; i < numMoves; ++i) {
+            playerIDs[i] = random.nextInt(2);
+            directions[i] = Direction.values()[random.nextInt(Direction.values().length)];
+            expectedController.processMove(directions[i], playerIDs[i]);
+        }
+        controller.processMoves(playerIDs, directions);
+
+        for (final var playerID : new int[]{0, 1}) {
+            final var expected = expectedController.getGameState(playerID);
+            final var actual = controller.getGameState(playerID);
+            assertEquals(expected.getNumMoves(), actual.getNumMoves());
+            assertEquals(expected.getNumGotGems(), actual.getNumGotGems());
+            assertEquals(expected.getNumDeaths(), actual.getNumDeaths());
+            assertEquals(expected.getNumLives(), actual.getNumLives());
+            assertEquals(expected.hasLost(), actual.hasLost());
+            assertEquals(expected.getScore(), actual.getScore());
+        }
+    }
+
+    // P.*W.
+    // LX.#L
+    // *.W..
+    // Q...*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Process Moves - Single Player Batch")
+    void testProcessMovesSinglePlayer() {
+        controller = createMultiplayerGame(1);
+        gameState = controller.getGameState(0);
+
+        // Gem, then below the gem, then the mine, then kicked out
+        controller.processMoves(0, List.of(Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP));
+
+        assertEquals(3, gameState.getNumMoves());
+        assertEquals(1, gameState.getNumGotGems());
+        assertEquals(1, gameState.getNumDeaths());
+        assertEquals(0, gameState.getNumLives());
+        assertTrue(gameState.hasLost());
+        assertEquals(0, controller.processMoves(0, List.of()).length);
+        assertThrows(IllegalArgumentException.class, () -> controller.processMoves(new int[]{0}, new Direction[0]));
+        assertThrows(IllegalArgumentException.class, () -> controller.processMoves(2, List.of(Direction.UP)));
+    }
+
     @AfterEach
     void tearDown() {
         controller = null;
@@ -0,0 +1,190 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveEventLoopTest {
+
+    private GameBoard gameBoard = null;
+    private MoveEventLoop eventLoop = null;
+
+    // P.*.
+    // Q.*.
+    private GameBoard createGameBoard() {
+        return GameBoardUtils.createGameBoard(2, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Submit - Applied in Order on Writer Thread")
+    void testSubmitAppliedInOrder() throws Exception {
+        gameBoard = createGameBoard();
+        final var player = gameBoard.getPlayers().get(0);
+        final var gameState = new GameState(gameBoard, player);
+        final var writerThreads = ConcurrentHashMap.<Thread>newKeySet();
+        final var controller = new GameController(gameState) {
+            @Override
+            public MoveResult processMove(final Direction direction, final int playerID) {
+                writerThreads.add(Thread.currentThread());
+                return super.processMove(direction, playerID);
+            }
+        };
+        eventLoop = new MoveEventLoop(controller);
+
+        final var first = eventLoop.submit(Direction.RIGHT, player.getId());
+        final var second = eventLoop.submit(Direction.LEFT, player.getId());
+        final var third = eventLoop.submit(Direction.RIGHT, player.getId());
+
+        final var firstResult = first.get(10, TimeUnit.SECONDS);
+        assertTrue(firstResult instanceof MoveResult.Valid.Alive);
+        assertEquals(1, ((MoveResult.Valid.Alive) firstResult).collectedGems.size());
+        assertEquals(new Position(0, 0), second.get(10, TimeUnit.SECONDS).newPosition);
+        assertEquals(new Position(0, 3), third.get(10, TimeUnit.SECONDS).newPosition);
+        assertEquals(new Position(0, 3), player.getOwner().getPosition());
+        assertEquals(3, gameState.getNumMoves());
+
+        assertEquals(1, writerThreads.size());
+        assertNotEquals(Set.of(Thread.currentThread()), writerThreads);
+        assertFalse(eventLoop.isWriterThread());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Submit - Concurrent Producers")
+    void testSubmitConcurrentProducers() throws Exception {
+        gameBoard = createGameBoard();
+        final var players = gameBoard.getPlayers();
+        final var gameStates = players.stream().map(p -> new GameState(gameBoard, p)).toArray(GameState[]::new);
+        eventLoop = new MoveEventLoop(new GameController(gameStates));
+
+        final var numMovesPerProducer = 1000;
+        final var numValidMoves = new AtomicInteger[players.size()];
+        final var producers = new ArrayList<CompletableFuture<Void>>();
+        for (int p = 0; p < players.size(); ++p) {
+            final var player = players.get(p);
+            final var numValid = numValidMoves[p] = new AtomicInteger();
+            for (int k = 0; k < 2; ++k) {
+                producers.add(CompletableFuture.runAsync(() -> {
+                    final var results = new ArrayList<CompletableFuture<MoveResult>>();
+                    for (int i = 0; i < numMovesPerProducer; ++i) {
+                        results.add(eventLoop.submit(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT, player.getId()));
+                    }
+                    for (final var result : results) {
+                        if (result.join() instanceof MoveResult.Valid) {
+                            numValid.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+        }
+        CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(0, eventLoop.getNumPendingMoves());
+        for (int p = 0; p < players.size(); ++p) {
+            // Interleaved moves of the same player may be invalid, but every move is processed exactly once
+            assertTrue(numValidMoves[p].get() > 0);
+            assertEquals(numValidMoves[p].get(), gameStates[p].getNumMoves());
+        }
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Submit - Failed Move and Closed Event Loop")
+    void testSubmitFailedAndClosed() throws Exception {
+        gameBoard = createGameBoard();
+        final var player = gameBoard.getPlayers().get(0);
+        eventLoop = new MoveEventLoop(new GameController(new GameState(gameBoard, player)));
+
+        final var failed = eventLoop.submit(Direction.RIGHT, player.getId() + 42);
+        final var exception = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalArgumentException);
+
+        final var pending = eventLoop.submit(Direction.RIGHT, player.getId());
+        eventLoop.close();
+        assertTrue(pending.isDone());
+        assertEquals(new Position(0, 3), pending.get().newPosition);
+        assertThrows(RejectedExecutionException.class, () -> eventLoop.submit(Direction.LEFT, player.getId()));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Submit - Writer Thread Survives an Error but Not a VirtualMachineError")
+    void testSubmitError() throws Exception {
+        gameBoard = createGameBoard();
+        final var player = gameBoard.getPlayers().get(0);
+        final var numErrors = new AtomicInteger();
+        eventLoop = new MoveEventLoop(new GameController(new GameState(gameBoard, player)) {
+            @Override
+            public MoveResult processMove(Direction direction, int playerID) {
+                if (direction == Direction.UP) {
+                    numErrors.incrementAndGet();
+                    throw new AssertionError();
+                }
+                if (direction == Direction.DOWN) {
+                    throw new StackOverflowError();
+                }
+                return super.processMove(direction, playerID);
+            }
+        });
+
+        final var failed = eventLoop.submit(Direction.UP, player.getId());
+        final var next = eventLoop.submit(Direction.RIGHT, player.getId());
+        final var exception = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof AssertionError);
+        assertEquals(new Position(0, 3), next.get(10, TimeUnit.SECONDS).newPosition);
+
+        final var failedAgain = eventLoop.submit(Direction.UP, player.getId());
+        assertEquals(new Position(0, 0), eventLoop.submit(Direction.LEFT, player.getId()).get(10, TimeUnit.SECONDS)
+                .newPosition);
+        assertTrue(failedAgain.isCompletedExceptionally());
+        assertEquals(2, numErrors.get());
+
+        final var fatal = eventLoop.submit(Direction.DOWN, player.getId());
+        final var fatalException = assertThrows(ExecutionException.class, () -> fatal.get(10, TimeUnit.SECONDS));
+        assertTrue(fatalException.getCause() instanceof StackOverflowError);
+
+        // Moves submitted after the fatal one are either rejected or failed once the writer thread stops
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            final CompletableFuture<MoveResult> late;
+            try {
+                late = eventLoop.submit(Direction.RIGHT, player.getId());
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+            final var lateException = assertThrows(ExecutionException.class, () -> late.get(10, TimeUnit.SECONDS));
+            assertTrue(lateException.getCause() instanceof RejectedExecutionException);
+            assertTrue(System.nanoTime() < deadline, "writer thread still accepting moves");
+        }
+        assertEquals(0, eventLoop.getNumPendingMoves());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (eventLoop != null) {
+            eventLoop.close();
+        }
+        eventLoop = null;
+        gameBoard = null;
+    }
+}
@@ -0,0 +1,383 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveJournalTest {
+
+    private Path file = null;
+    private MoveJournal journal = null;
+
+    // P.*..
+    // .L.M.
+    // *.S.*
+    // ....L
+    private GameController createGame() {
+        final var gameBoard = GameBoardUtils.createGameBoard(4, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2, 10, 14 -> new EntityCell(pos, new Gem());
+            case 6, 19 -> new EntityCell(pos, new ExtraLife());
+            case 8 -> new EntityCell(pos, new Mine());
+            case 12 -> new StopCell(pos);
+            default -> new EntityCell(pos);
+        });
+        return new GameController(new GameState(gameBoard, gameBoard.getPlayers().get(0), 3));
+    }
+
+    /**
+     * Plays random moves and undoes until the game is over or the player has lost.
+     *
+     * @param controller The controller of the game.
+     * @param seed       The seed of the moves.
+     * @param numMoves   The maximum number of moves.
+     */
+    private static void play(final GameController controller, final long seed, final int numMoves) {
+        final var random = new Random(seed);
+        final var gameState = controller.getGameState();
+        for (int i = 0; i < numMoves && controller.getWinners() == null && !gameState.hasLost(); ++i) {
+            if (random.nextInt(5) == 0) {
+                controller.processUndo();
+            } else {
+                controller.processMove(Direction.values()[random.nextInt(Direction.values().length)]);
+            }
+        }
+    }
+
+    private static void assertSameGame(final GameController expected, final GameController actual) {
+        final var expectedState = expected.getGameState();
+        final var actualState = actual.getGameState();
+        assertEquals(expectedState.getPlayer().getOwner().getPosition(), actualState.getPlayer().getOwner().getPosition());
+        assertEquals(expectedState.getNumMoves(), actualState.getNumMoves());
+        assertEquals(expectedState.getNumDeaths(), actualState.getNumDeaths());
+        assertEquals(expectedState.getNumLives(), actualState.getNumLives());
+        assertEquals(expectedState.getNumGems(), actualState.getNumGems());
+        assertEquals(expectedState.getMoveStack().isEmpty(), actualState.getMoveStack().isEmpty());
+        assertEquals(expected.getGameBoard().getZobristHash(), actual.getGameBoard().getZobristHash());
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("move-journal", ".journal");
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Replayed Game Same as Journaled Game")
+    void testRecoverSameGame() throws IOException {
+        for (long seed = 0; seed < 20; ++seed) {
+            final var controller = createGame();
+            journal = MoveJournal.create(file, controller, 0);
+            assertSame(journal, controller.getJournal());
+            play(controller, seed, 100);
+            final var numRecords = journal.getNumRecords();
+            journal.close();
+            assertNull(controller.getJournal());
+
+            final var recovered = createGame();
+            journal = MoveJournal.recover(file, recovered, 0);
+            assertSame(journal, recovered.getJournal());
+            assertEquals(numRecords, journal.getNumRecords());
+            assertSameGame(controller, recovered);
+            journal.close();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Appending After Recovery")
+    void testRecoverThenAppend() throws IOException {
+        final var controller = createGame();
+        journal = MoveJournal.create(file, controller, 1);
+        controller.processMove(Direction.RIGHT);
+        journal.close();
+
+        final var recovered = createGame();
+        journal = MoveJournal.recover(file, recovered, 1);
+        recovered.processMove(Direction.DOWN);
+        controller.processMove(Direction.DOWN);
+        journal.close();
+
+        final var twiceRecovered = createGame();
+        journal = MoveJournal.recover(file, twiceRecovered, 0);
+        assertEquals(2, journal.getNumRecords());
+        assertSameGame(controller, twiceRecovered);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Incomplete Record Discarded")
+    void testRecoverIncompleteRecord() throws IOException {
+        final var controller = createGame();
+        journal = MoveJournal.create(file, controller, 0);
+        // Collects a gem, so that the record is longer than a tag and a player id
+        assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+        journal.close();
+
+        // Tear the record after its length, tag and player id, as if the system crashed while writing it
+        final var expected = createGame();
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(16 + 3);
+        }
+
+        final var recovered = createGame();
+        journal = MoveJournal.recover(file, recovered, 0);
+        assertEquals(0, journal.getNumRecords());
+        assertSameGame(expected, recovered);
+
+        // The discarded record is overwritten by the next move
+        recovered.processMove(Direction.DOWN);
+        expected.processMove(Direction.DOWN);
+        journal.close();
+
+        final var twiceRecovered = createGame();
+        journal = MoveJournal.recover(file, twiceRecovered, 0);
+        assertEquals(1, journal.getNumRecords());
+        assertSameGame(expected, twiceRecovered);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Zeroed Record Discarded")
+    void testRecoverZeroedRecord() throws IOException {
+        final var controller = createGame();
+        journal = MoveJournal.create(file, controller, 0);
+        assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+        assertTrue(controller.processMove(Direction.DOWN) instanceof MoveResult.Valid);
+        journal.close();
+
+        // Zero the second record after the first two bytes, as if the system crashed before the rest reached the
+        // storage device. Zeros decode as valid varints, so only the checksum tells the record is torn.
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var length = ByteBuffer.allocate(1);
+            channel.read(length, 16);
+            final var secondRecord = 16 + 1 + length.get(0) + 4;
+            channel.write(ByteBuffer.allocate(32), secondRecord + 2);
+        }
+
+        final var expected = createGame();
+        expected.processMove(Direction.RIGHT);
+
+        final var recovered = createGame();
+        journal = MoveJournal.recover(file, recovered, 0);
+        assertEquals(1, journal.getNumRecords());
+        assertSameGame(expected, recovered);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Process Moves - Batch Journaled")
+    void testProcessMovesJournaled() throws IOException {
+        final var controller = createGame();
+        journal = MoveJournal.create(file, controller, 0);
+        final var playerID = controller.getGameState().getPlayer().getId();
+        controller.processMoves(playerID, List.of(Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP));
+        assertEquals(controller.getGameState().getNumMoves(), journal.getNumRecords());
+        journal.close();
+
+        final var recovered = createGame();
+        journal = MoveJournal.recover(file, recovered, 0);
+        assertSameGame(controller, recovered);
+    }
+
+    // P.*.
+    // Q..M
+    // R..*
+    // S.*L
+    private static GameController createMultiplayerGame() {
+        final var gameBoard = GameBoardUtils.createGameBoard(4, 4, pos -> switch (pos.row() * 4 + pos.col()) {
+            case 0, 4, 8, 12 -> new EntityCell(pos, new Player());
+            case 2, 11, 14 -> new EntityCell(pos, new Gem());
+            case 7 -> new EntityCell(pos, new Mine());
+            case 15 -> new EntityCell(pos, new ExtraLife());
+            default -> new EntityCell(pos);
+        });
+        return new GameController(gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player, 3))
+                .toArray(GameState[]::new));
+    }
+
+    /**
+     * Creates a game with a player near the top-left corner of each region of a game board of 2 by 2 regions, next to a
+     * gem, a mine and an extra life. The stop cells on the right border lead every player to the rows of all gems.
+     */
+    private static GameController createRegionsGame() {
+        final var size = PackedBoard.TILE_SIZE * 2;
+        final var half = PackedBoard.TILE_SIZE;
+        final var gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> {
+            final var row = pos.row() % half;
+            final var col = pos.col() % half;
+            if (row == 1 && col == 1) {
+                return new EntityCell(pos, new Player());
+            } else if (row == 1 && col == 3) {
+                return new EntityCell(pos, new Gem());
+            } else if (row == 3 && col == 1) {
+                return new EntityCell(pos, new Mine());
+            } else if (row == 2 && col == 5) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (row == 1 && pos.col() == size - 1) {
+                return new StopCell(pos);
+            }
+            return new EntityCell(pos);
+        });
+        return new GameController(gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player, 3))
+                .toArray(GameState[]::new));
+    }
+
+    /**
+     * Plays random moves of every player on its own thread, until the game is over or the player has lost.
+     *
+     * @param controller The controller of the game.
+     * @param seed       The seed of the moves.
+     * @param numMoves   The maximum number of moves of each player.
+     */
+    private static void playConcurrently(final GameController controller, final long seed, final int numMoves)
+            throws InterruptedException {
+        final var start = new CountDownLatch(1);
+        final var threads = new ArrayList<Thread>();
+        for (final var gameState : controller.getGameStates()) {
+            final var playerID = gameState.getPlayer().getId();
+            final var random = new Random(seed * 31 + playerID);
+            final var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < numMoves && controller.getWinners() == null && !gameState.hasLost(); ++i) {
+                    controller.processMove(Direction.values()[random.nextInt(Direction.values().length)], playerID);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final var thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void assertSameGameStates(final GameController expected, final GameController actual) {
+        for (final var expectedState : expected.getGameStates()) {
+            final var actualState = actual.getGameState(expectedState.getPlayer().getId());
+            assertEquals(expectedState.getNumMoves(), actualState.getNumMoves());
+            assertEquals(expectedState.getNumDeaths(), actualState.getNumDeaths());
+            assertEquals(expectedState.getNumLives(), actualState.getNumLives());
+            assertEquals(expectedState.getNumGotGems(), actualState.getNumGotGems());
+            assertEquals(expectedState.hasLost(), actualState.hasLost());
+        }
+        assertEquals(expected.getGameBoard().getZobristHash(), actual.getGameBoard().getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Concurrent Moves in Different Regions")
+    void testRecoverConcurrentMovesInRegions() throws Exception {
+        for (long seed = 0; seed < 50; ++seed) {
+            final var controller = createRegionsGame();
+            journal = MoveJournal.create(file, controller, 0);
+            playConcurrently(controller, seed, 100);
+            final var numRecords = journal.getNumRecords();
+            journal.close();
+
+            final var recovered = createRegionsGame();
+            journal = MoveJournal.recover(file, recovered, 0);
+            assertEquals(numRecords, journal.getNumRecords());
+            assertSameGameStates(controller, recovered);
+            journal.close();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Concurrent Moves of Different Players")
+    void testRecoverConcurrentMoves() throws Exception {
+        for (long seed = 0; seed < 200; ++seed) {
+            final var controller = createMultiplayerGame();
+            journal = MoveJournal.create(file, controller, 0);
+
+            final var start = new CountDownLatch(1);
+            final var threads = new ArrayList<Thread>();
+            for (final var playerID : new int[]{0, 1}) {
+                final var random = new Random(seed * 2 + playerID);
+                final var thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    final var gameState = controller.getGameState(playerID);
+                    for (int i = 0; i < 200 && controller.getWinners() == null && !gameState.hasLost(); ++i) {
+                        controller.processMove(Direction.values()[random.nextInt(Direction.values().length)], playerID);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (final var thread : threads) {
+                thread.join();
+            }
+            journal.close();
+
+            final var recovered = createMultiplayerGame();
+            journal = MoveJournal.recover(file, recovered, 0);
+            for (final var expectedState : controller.getGameStates()) {
+                final var actualState = recovered.getGameState(expectedState.getPlayer().getId());
+                assertEquals(expectedState.getNumMoves(), actualState.getNumMoves());
+                assertEquals(expectedState.getNumDeaths(), actualState.getNumDeaths());
+                assertEquals(expectedState.getNumLives(), actualState.getNumLives());
+                assertEquals(expectedState.getNumGotGems(), actualState.getNumGotGems());
+            }
+            assertEquals(controller.getGameBoard().getZobristHash(), recovered.getGameBoard().getZobristHash());
+            journal.close();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Recover - Invalid Journal")
+    void testRecoverInvalidJournal() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.recover(file, createGame(), 0));
+
+        final var other = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        journal = MoveJournal.create(file, new GameController(new GameState(other)), 0);
+        journal.close();
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.recover(file, createGame(), 0));
+
+        final var controller = createGame();
+        journal = MoveJournal.create(file, controller, 0);
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.create(file, controller, 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = null;
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,140 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveKernelTest {
+
+    private GameBoard gameBoard = null;
+
+    // P.*W.
+    // LX.#L
+    // *.W..
+    // Q...*
+    private GameBoard createGameBoard() {
+        return GameBoardUtils.createGameBoard(4, 5, pos -> switch (pos.row() * 5 + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2, 10, 19 -> new EntityCell(pos, new Gem());
+            case 3, 12 -> new Wall(pos);
+            case 6 -> new EntityCell(pos, new Mine());
+            case 8 -> new StopCell(pos);
+            case 5, 9 -> new EntityCell(pos, new ExtraLife());
+            case 15 -> new EntityCell(pos, new Player());
+            default -> new EntityCell(pos);
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Direction.class)
+    @Tag("sanity")
+    @DisplayName("Try Move - Matches Controller")
+    void testTryMoveMatchesController(final Direction dir) {
+        gameBoard = createGameBoard();
+        final var controller = new GameBoardController(gameBoard);
+        final var kernel = new MoveKernel(gameBoard);
+        final var playerId = gameBoard.getPlayers().get(0).getId();
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        for (int i = 0; i < packedBoard.size(); ++i) {
+            if (packedBoard.getCellKind(i) == PackedBoard.CELL_WALL) {
+                continue;
+            }
+            final var position = packedBoard.positionOf(i);
+
+            final var expected = controller.tryMove(position, dir, playerId);
+            final var outcome = kernel.tryMove(i, dir, playerId);
+            final var actual = kernel.toMoveResult();
+
+            final var message = position.toString();
+            assertEquals(expected.getClass(), actual.getClass(), message);
+            assertEquals(expected.newPosition, actual.newPosition, message);
+            if (expected instanceof MoveResult.Valid.Alive alive) {
+                assertEquals(MoveKernel.Outcome.ALIVE, outcome, message);
+                assertEquals(alive.collectedGems, ((MoveResult.Valid.Alive) actual).collectedGems, message);
+                assertEquals(alive.collectedExtraLives, ((MoveResult.Valid.Alive) actual).collectedExtraLives, message);
+                assertEquals(alive.collectedGems.size(), kernel.getNumCollectedGems(), message);
+            } else if (expected instanceof MoveResult.Valid.Dead) {
+                assertEquals(MoveKernel.Outcome.DEAD, outcome, message);
+            } else {
+                assertEquals(MoveKernel.Outcome.INVALID, outcome, message);
+                assertEquals(i, kernel.getResultIndex(), message);
+            }
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Try Move - No Allocation")
+    void testTryMoveNoAllocation() {
+        final var threadBean = ManagementFactory.getThreadMXBean();
+        assertTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        final var allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+
+        gameBoard = createGameBoard();
+        final var kernel = new MoveKernel(gameBoard);
+        final var playerId = gameBoard.getPlayers().get(0).getId();
+        final var directions = Direction.values();
+        final var size = gameBoard.getPackedBoard().size();
+
+        final var numMoves = 100_000;
+        var checksum = 0;
+        for (int i = 0; i < numMoves; ++i) {
+            checksum += kernel.tryMove(i % size, directions[i % directions.length], playerId).ordinal();
+        }
+
+        final var before = allocationBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < numMoves; ++i) {
+            checksum += kernel.tryMove(i % size, directions[i % directions.length], playerId).ordinal();
+        }
+        final var allocated = allocationBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(checksum > 0);
+        assertEquals(0, allocated / numMoves, "bytes allocated per move");
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Try Move - Players Told Apart by Their Cells")
+    void testTryMoveManyPlayers() {
+        // A column of players, each next to a gem
+        final var numPlayers = 64;
+        gameBoard = GameBoardUtils.createGameBoard(numPlayers, 2, pos -> pos.col() == 0
+                ? new EntityCell(pos, new Player())
+                : new EntityCell(pos, new Gem()));
+        final var kernel = new MoveKernel(gameBoard);
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        for (int r = 0; r < numPlayers; ++r) {
+            final var playerId = gameBoard.getPlayerAt(packedBoard.indexOf(r, 0)).getId();
+            final var otherId = gameBoard.getPlayerAt(packedBoard.indexOf((r + 1) % numPlayers, 0)).getId();
+            final var message = "row " + r;
+
+            // Blocked by the next player
+            if (r + 1 < numPlayers) {
+                assertEquals(MoveKernel.Outcome.INVALID, kernel.tryMove(packedBoard.indexOf(r, 0), Direction.DOWN,
+                        playerId), message);
+            }
+            // Only the player itself does not block a slide onto its own cell
+            assertEquals(MoveKernel.Outcome.ALIVE, kernel.tryMove(packedBoard.indexOf(r, 1), Direction.LEFT, playerId),
+                    message);
+            assertEquals(packedBoard.indexOf(r, 0), kernel.getResultIndex(), message);
+            assertEquals(MoveKernel.Outcome.INVALID, kernel.tryMove(packedBoard.indexOf(r, 1), Direction.LEFT, otherId),
+                    message);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameBoard = null;
+    }
+}
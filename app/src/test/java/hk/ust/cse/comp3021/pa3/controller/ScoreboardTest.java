@@ -0,0 +1,139 @@
+package hk.ust.cse.comp3021.pa3.controller;
+
+import hk.ust.cse.comp3021.pa3.model.*;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreboardTest {
+
+    // P.*.
+    // Q..M
+    // R..*
+    // S.*L
+    private static GameController createGame(final int numLives) {
+        final var gameBoard = GameBoardUtils.createGameBoard(4, 4, pos -> switch (pos.row() * 4 + pos.col()) {
+            case 0, 4, 8, 12 -> new EntityCell(pos, new Player());
+            case 2, 11, 14 -> new EntityCell(pos, new Gem());
+            case 7 -> new EntityCell(pos, new Mine());
+            case 15 -> new EntityCell(pos, new ExtraLife());
+            default -> new EntityCell(pos);
+        });
+        return new GameController(gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player, numLives))
+                .toArray(GameState[]::new));
+    }
+
+    /**
+     * Computes the winners by the score of every player, as specified by {@link GameController#getWinners()}.
+     */
+    private static Player[] computeWinners(final GameController controller) {
+        final var alive = Arrays.stream(controller.getGameStates()).filter(gameState -> !gameState.hasLost()).toList();
+        if (alive.isEmpty()) {
+            return new Player[0];
+        }
+        if (!alive.get(0).noGemsLeft()) {
+            return null;
+        }
+        final var maxScore = alive.stream().mapToInt(GameState::getScore).max().orElseThrow();
+        return alive.stream()
+                .filter(gameState -> gameState.getScore() == maxScore)
+                .map(GameState::getPlayer)
+                .sorted(Comparator.comparingInt(Player::getId))
+                .toArray(Player[]::new);
+    }
+
+    /**
+     * Ranks the players by sorting all of them.
+     */
+    private static List<Player> computeStandings(final GameController controller) {
+        return Arrays.stream(controller.getGameStates())
+                .sorted(Comparator.<GameState>comparingInt(gameState -> gameState.hasLost() ? 1 : 0)
+                        .thenComparing(GameState::getScore, Comparator.reverseOrder())
+                        .thenComparingInt(gameState -> gameState.getPlayer().getId()))
+                .map(GameState::getPlayer)
+                .toList();
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Scoreboard - Same as Computed from Game States")
+    void testSameAsComputed() {
+        final var random = new Random(0);
+        for (int game = 0; game < 50; ++game) {
+            final var controller = createGame(game % 2 == 0 ? 1 : -1);
+            final var scoreboard = controller.getScoreboard();
+            final var players = controller.getPlayers();
+
+            for (int i = 0; i < 200 && controller.getWinners() == null; ++i) {
+                final var player = players[random.nextInt(players.length)];
+                if (controller.getGameState(player.getId()).hasLost()) {
+                    continue;
+                }
+                final var direction = Direction.values()[random.nextInt(Direction.values().length)];
+                if (i % 10 == 0) {
+                    controller.processMoves(player.getId(), List.of(direction, Direction.values()[random.nextInt(4)]));
+                } else {
+                    controller.processMove(direction, player.getId());
+                }
+
+                assertArrayEquals(computeWinners(controller), controller.getWinners());
+                final var standings = computeStandings(controller);
+                assertEquals(standings, scoreboard.getTopPlayers(players.length));
+                assertEquals(standings.subList(0, 2), scoreboard.getTopPlayers(2));
+                assertEquals(Arrays.stream(controller.getGameStates()).filter(s -> !s.hasLost()).count(),
+                        scoreboard.getNumAlivePlayers());
+                assertEquals(controller.getGameBoard().getNumGems(), scoreboard.getNumGemsLeft());
+            }
+            assertNotNull(controller.getWinners());
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Scoreboard - All Players Lost")
+    void testAllPlayersLost() {
+        final var controller = createGame(0);
+        final var scoreboard = controller.getScoreboard();
+
+        assertEquals(0, scoreboard.getNumAlivePlayers());
+        assertEquals(Integer.MIN_VALUE, scoreboard.getMaxScore());
+        assertArrayEquals(new Player[0], controller.getWinners());
+        assertEquals(4, scoreboard.getTopPlayers(10).size());
+        assertTrue(scoreboard.getTopPlayers(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> scoreboard.getTopPlayers(-1));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Scoreboard - Updated by Undo")
+    void testUpdatedByUndo() {
+        final var gameBoard = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        final var gameState = new GameState(gameBoard);
+        final var controller = new GameController(gameState);
+        final var scoreboard = controller.getScoreboard();
+
+        assertNull(controller.getWinners());
+        controller.processMove(Direction.RIGHT);
+        assertEquals(gameState.getScore(), scoreboard.getMaxScore());
+        assertArrayEquals(new Player[]{gameState.getPlayer()}, controller.getWinners());
+
+        assertTrue(controller.processUndo());
+        assertEquals(gameState.getScore(), scoreboard.getMaxScore());
+        assertNull(controller.getWinners());
+        assertEquals(new ArrayList<>(List.of(gameState.getPlayer())), scoreboard.getTopPlayers(1));
+    }
+}
@@ -8,6 +8,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -187,6 +191,93 @@ public class GameBoardTest {
         assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(rows, cols, cells));
     }
 
+    // P..#.
+    // WWW.W
+    // ....*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Gem Reachable via Stop Cell")
+    void testGameBoardCreationReachableGemStopCell() {
+        final var rows = 3;
+        final var cols = 5;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, (pos) -> {
+            if (pos.row() == 1 && pos.col() != 3) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(0, 3))) {
+                return new StopCell(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        ((EntityCell) cells[0][0]).setEntity(new Player());
+        ((EntityCell) cells[2][4]).setEntity(new Gem());
+
+        assertDoesNotThrow(() -> gameBoard = new GameBoard(rows, cols, cells));
+    }
+
+    // P.*W.
+    // WWWWQ
+    // ...W.
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Unreachable Gem for One Player")
+    void testGameBoardCreationUnreachableGemOnePlayer() {
+        final var rows = 3;
+        final var cols = 5;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, (pos) -> {
+            if (pos.col() == 3 || (pos.row() == 1 && pos.col() != 4)) {
+                return new Wall(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        ((EntityCell) cells[0][0]).setEntity(new Player());
+        ((EntityCell) cells[1][4]).setEntity(new Player());
+        ((EntityCell) cells[0][2]).setEntity(new Gem());
+
+        assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(rows, cols, cells));
+    }
+
+    // P.P.*
+    // .WWW.
+    // P....
+    @Test
+    @Tag("sanity")
+    @DisplayName("Instance Creation - Reachability of Player Groups on Executor")
+    void testGameBoardCreationExecutor() {
+        final var rows = 3;
+        final var cols = 5;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, (pos) -> {
+            if (pos.row() == 1 && pos.col() >= 1 && pos.col() <= 3) {
+                return new Wall(pos);
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+
+        ((EntityCell) cells[0][0]).setEntity(new Player());
+        ((EntityCell) cells[0][2]).setEntity(new Player());
+        ((EntityCell) cells[2][0]).setEntity(new Player());
+        ((EntityCell) cells[0][4]).setEntity(new Gem());
+
+        final var executor = Executors.newFixedThreadPool(2);
+        try {
+            gameBoard = new GameBoard(rows, cols, cells, executor);
+            assertEquals(3, gameBoard.getPlayers().size());
+
+            // P.PW*
+            // .WWWW
+            // P....
+            cells[0][3] = new Wall(new Position(0, 3));
+            cells[1][4] = new Wall(new Position(1, 4));
+            assertThrows(IllegalArgumentException.class, () -> new GameBoard(rows, cols, cells, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     // *P*
     // *.X
     // *LX
@@ -423,6 +514,46 @@ public class GameBoardTest {
         assertEquals(player, gameBoard.getPlayer());
     }
 
+    // P.Q
+    // ...
+    // ..*
+    @Test
+    @Tag("sanity")
+    @DisplayName("Get Player Instances - Registry")
+    void testGetPlayersRegistry() {
+        final var rows = 3;
+        final var cols = 3;
+        final var cells = GameBoardUtils.createEmptyCellArray(rows, cols, EntityCell::new);
+
+        final var player1 = new Player();
+        final var player2 = new Player();
+        ((EntityCell) cells[0][0]).setEntity(player1);
+        ((EntityCell) cells[0][2]).setEntity(player2);
+        ((EntityCell) cells[2][2]).setEntity(new Gem());
+
+        gameBoard = new GameBoard(rows, cols, cells);
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        assertEquals(List.of(player1, player2), gameBoard.getPlayers());
+        assertSame(gameBoard.getPlayers(), gameBoard.getPlayers());
+        assertSame(player2, gameBoard.getPlayer(player2.getId()));
+        assertSame(player1, gameBoard.getPlayerAt(packedBoard.indexOf(0, 0)));
+
+        gameBoard.getEntityCell(1, 0).setEntity(player1);
+
+        assertNull(gameBoard.getPlayerAt(packedBoard.indexOf(0, 0)));
+        assertSame(player1, gameBoard.getPlayerAt(packedBoard.indexOf(1, 0)));
+
+        assertTrue(gameBoard.removePlayer(player1.getId()));
+        assertFalse(gameBoard.removePlayer(player1.getId()));
+
+        assertEquals(List.of(player2), gameBoard.getPlayers());
+        assertNull(gameBoard.getEntityCell(1, 0).getEntity());
+        assertNull(gameBoard.getPlayerAt(packedBoard.indexOf(1, 0)));
+        assertSame(player1, gameBoard.getPlayer(player1.getId()));
+        assertTrue(gameBoard.hasPlayer(player1));
+    }
+
     // P..
     // ...
     // ...
@@ -486,6 +617,219 @@ public class GameBoardTest {
         assertEquals(7, gameBoard.getNumGems());
     }
 
+    // P*L
+    @Test
+    @Tag("sanity")
+    @DisplayName("Pooled Entities - Restored Without Allocation")
+    void testPooledEntities() {
+        final var gem = new Gem();
+        final var extraLife = new ExtraLife();
+        gameBoard = GameBoardUtils.createGameBoard(1, 3, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 1 -> new EntityCell(pos, gem);
+            default -> new EntityCell(pos, extraLife);
+        });
+        final var gemPos = new Position(0, 1);
+        final var gemCell = gameBoard.getEntityCell(gemPos);
+
+        assertSame(gem, gameBoard.getPooledEntity(gemPos, PackedBoard.ENTITY_GEM));
+        assertSame(extraLife, gameBoard.getPooledEntity(new Position(0, 2), PackedBoard.ENTITY_EXTRA_LIFE));
+        assertNotSame(gem, gameBoard.getPooledEntity(new Position(0, 2), PackedBoard.ENTITY_GEM));
+        assertThrows(IllegalArgumentException.class, () -> gameBoard.getPooledEntity(gemPos, PackedBoard.ENTITY_MINE));
+
+        final var allocationBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final var numRestores = 1_000_000;
+        final var before = allocationBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < numRestores; ++i) {
+            gemCell.setEntity(null);
+            gemCell.setEntity(gameBoard.getPooledEntity(gemPos, PackedBoard.ENTITY_GEM));
+        }
+        final var allocated = allocationBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertSame(gem, gemCell.getEntity());
+        assertSame(gemCell, gem.getOwner());
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+        assertEquals(0, allocated / numRestores, "bytes allocated per restore");
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Collectibles - Restored Without Allocation on Packed Boards")
+    void testSetCollectiblePacked() {
+        final var builder = new PackedBoard.Builder(3, 3);
+        builder.set(0, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        builder.set(0, 1, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        builder.set(0, 2, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+        gameBoard = new GameBoard(builder.build());
+        final var gemPos = new Position(0, 1);
+        final var extraLifePos = new Position(0, 2);
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        assertThrows(IllegalArgumentException.class, () -> gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_MINE));
+        assertThrows(IllegalArgumentException.class, () -> gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_PLAYER));
+
+        // The first write after the snapshot taken by the constructor copies a tile
+        gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_NONE);
+        gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_EXTRA_LIFE);
+
+        final var allocationBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final var numRestores = 1_000_000;
+        final var before = allocationBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < numRestores; ++i) {
+            gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_NONE);
+            gameBoard.setCollectible(gemPos, PackedBoard.ENTITY_GEM);
+            gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_NONE);
+            gameBoard.setCollectible(extraLifePos, PackedBoard.ENTITY_EXTRA_LIFE);
+        }
+        final var allocated = allocationBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(PackedBoard.ENTITY_GEM, packedBoard.getEntityKind(packedBoard.indexOf(gemPos)));
+        assertTrue(gameBoard.getEntityCell(gemPos).getEntity() instanceof Gem);
+        assertTrue(gameBoard.getEntityCell(extraLifePos).getEntity() instanceof ExtraLife);
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(gameBoard.computeZobristHash(), gameBoard.getZobristHash());
+        assertEquals(0, allocated / numRestores, "bytes allocated per restore");
+    }
+
+    // P*.P
+    @Test
+    @Tag("sanity")
+    @DisplayName("Player IDs - Allocated Per Game")
+    void testPlayerIdsPerGame() {
+        final var unregistered = new Player();
+        assertTrue(unregistered.getId() < 0);
+
+        final var otherGameBoard = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 0, 3 -> new EntityCell(pos, new Player());
+            case 1 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        gameBoard = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 0, 3 -> new EntityCell(pos, new Player());
+            case 1 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+
+        for (final var board : List.of(otherGameBoard, gameBoard)) {
+            final var players = board.getPlayers();
+            assertEquals(0, players.get(0).getId());
+            assertEquals(1, players.get(1).getId());
+            assertSame(players.get(1), board.getPlayer(1));
+        }
+        assertFalse(gameBoard.hasPlayer(otherGameBoard.getPlayer(0)));
+        assertNotSame(gameBoard.getLock(), otherGameBoard.getLock());
+
+        gameBoard.getEntityCell(0, 2).setEntity(unregistered);
+        assertEquals(2, unregistered.getId());
+        assertSame(unregistered, gameBoard.getPlayer(2));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Region Locks - Masks of Segments")
+    void testRegionLockMasks() {
+        final var size = PackedBoard.TILE_SIZE * 2;
+        gameBoard = GameBoardUtils.createGameBoard(size, size, pos -> switch (pos.row() * size + pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 1 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        final var regionLocks = gameBoard.getRegionLocks();
+        final var packedBoard = gameBoard.getPackedBoard();
+        assertEquals(4, regionLocks.getNumStripes());
+        assertEquals(0b1111, regionLocks.allMask());
+
+        final var topLeft = packedBoard.indexOf(new Position(0, 0));
+        final var topRight = packedBoard.indexOf(new Position(0, size - 1));
+        final var bottomRight = packedBoard.indexOf(new Position(size - 1, size - 1));
+        assertEquals(0b0001, regionLocks.maskOf(topLeft, topLeft));
+        assertEquals(0b0011, regionLocks.maskOf(topLeft, topRight));
+        assertEquals(0b0011, regionLocks.maskOf(topRight, topLeft));
+        assertEquals(0b1010, regionLocks.maskOf(topRight, bottomRight));
+        assertThrows(IllegalArgumentException.class, () -> regionLocks.maskOf(topLeft, bottomRight));
+
+        regionLocks.lock(0b0101);
+        try {
+            assertTrue(regionLocks.isHeldByCurrentThread(0b0101));
+            assertFalse(regionLocks.isHeldByCurrentThread(0b0011));
+        } finally {
+            regionLocks.unlock(0b0101);
+        }
+        assertFalse(regionLocks.isHeldByCurrentThread(0b0001));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Region Locks - Bands of Rows and Columns Spread over Stripes")
+    void testRegionLockStripes() {
+        final var numRegions = 16;
+        final var size = PackedBoard.TILE_SIZE * numRegions;
+        final var builder = new PackedBoard.Builder(size, size);
+        builder.set(0, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER);
+        builder.set(0, 1, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        gameBoard = new GameBoard(builder.build());
+        final var regionLocks = gameBoard.getRegionLocks();
+        final var packedBoard = gameBoard.getPackedBoard();
+        assertEquals(RegionLocks.MAX_STRIPES, regionLocks.getNumStripes());
+
+        final var rowMasks = new long[numRegions];
+        final var colMasks = new long[numRegions];
+        for (int i = 0; i < numRegions; ++i) {
+            final var line = i * PackedBoard.TILE_SIZE;
+            rowMasks[i] = regionLocks.maskOf(packedBoard.indexOf(line, 0), packedBoard.indexOf(line, size - 1));
+            colMasks[i] = regionLocks.maskOf(packedBoard.indexOf(0, line), packedBoard.indexOf(size - 1, line));
+        }
+        for (int i = 0; i < numRegions; ++i) {
+            assertEquals(8, Long.bitCount(rowMasks[i]));
+            assertEquals(8, Long.bitCount(colMasks[i]));
+            for (int j = i + 1; j < Math.min(numRegions, i + 8); ++j) {
+                assertEquals(0, rowMasks[i] & rowMasks[j]);
+                assertEquals(0, colMasks[i] & colMasks[j]);
+            }
+            for (int j = 0; j < numRegions; ++j) {
+                assertEquals(1, Long.bitCount(rowMasks[i] & colMasks[j]));
+            }
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Robot Lock - Owned by Each Game Board")
+    void testRobotLock() throws Exception {
+        final var boards = new GameBoard[2];
+        for (int i = 0; i < boards.length; ++i) {
+            boards[i] = GameBoardUtils.createGameBoard(1, 3, pos -> switch (pos.col()) {
+                case 0 -> new EntityCell(pos, new Player());
+                case 2 -> new EntityCell(pos, new Gem());
+                default -> new EntityCell(pos);
+            });
+        }
+        assertSame(boards[0].getRobotLock(), boards[0].getRobotLock());
+        assertNotSame(boards[0].getRobotLock(), boards[1].getRobotLock());
+
+        // Robots on the other game board are not blocked while the lock of one game board is held
+        boards[0].getRobotLock().lock();
+        try {
+            final var executor = Executors.newSingleThreadExecutor();
+            try {
+                assertFalse(executor.submit(() -> boards[0].getRobotLock().tryLock()).get());
+                assertTrue(executor.submit(() -> {
+                    final var robotLock = boards[1].getRobotLock();
+                    if (!robotLock.tryLock()) {
+                        return false;
+                    }
+                    robotLock.unlock();
+                    return true;
+                }).get());
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            boards[0].getRobotLock().unlock();
+        }
+    }
+
     @AfterEach
     void tearDown() {
         gameBoard = null;
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.function.ThrowingSupplier;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -131,6 +134,93 @@ public class MoveStackTest {
         assertTrue(moveStack.isEmpty());
     }
 
+    @Test
+    @Tag("sanity")
+    @DisplayName("Push-Pop Moves Beyond Recent Moves")
+    void testPushPopBeyondRecentMoves() {
+        moveStack = new MoveStack(5);
+        final var moves = new ArrayList<MoveResult.Valid.Alive>();
+        for (int i = 0; i < 40; ++i) {
+            final var move = new MoveResult.Valid.Alive(
+                    new Position(i + 1, i % 5),
+                    new Position(i, 4 - i % 5),
+                    i % 3 == 0 ? List.of(new Position(i, 1), new Position(i, 2)) : List.of(),
+                    i % 4 == 0 ? List.of(new Position(i, 3)) : List.of()
+            );
+            moves.add(move);
+            moveStack.push(move);
+        }
+
+        for (int i = moves.size() - 1; i >= 0; --i) {
+            final var expected = moves.get(i);
+            final var move = moveStack.pop();
+            assertTrue(move instanceof MoveResult.Valid.Alive);
+            final var popped = (MoveResult.Valid.Alive) move;
+            assertEquals(expected.newPosition, popped.newPosition);
+            assertEquals(expected.origPosition, popped.origPosition);
+            assertEquals(expected.collectedGems, popped.collectedGems);
+            assertEquals(expected.collectedExtraLives, popped.collectedExtraLives);
+        }
+        assertEquals(moves.size(), moveStack.getPopCount());
+        assertTrue(moveStack.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moveStack.pop());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Push-Pop Moves Beyond In-Memory Moves")
+    void testPushPopBeyondInMemoryMoves() {
+        moveStack = new MoveStack(5, 3);
+        final var moves = new ArrayList<MoveResult.Valid.Alive>();
+        final var random = new Random(0);
+        for (int i = 0; i < 2000; ++i) {
+            // Push more than pop, so that blocks are both spilled and paged back in
+            if (moves.isEmpty() || random.nextInt(5) < 3) {
+                final var move = new MoveResult.Valid.Alive(
+                        new Position(i + 1, i % 5),
+                        new Position(i, 4 - i % 5),
+                        i % 3 == 0 ? List.of(new Position(i, 1), new Position(i, 2)) : List.of(),
+                        i % 4 == 0 ? List.of(new Position(i, 3)) : List.of()
+                );
+                moves.add(move);
+                moveStack.push(move);
+            } else {
+                assertAliveEquals(moves.remove(moves.size() - 1), moveStack.pop());
+            }
+        }
+
+        final var popCount = moveStack.getPopCount();
+        for (int i = moves.size() - 1; i >= 0; --i) {
+            assertAliveEquals(moves.get(i), moveStack.peek());
+            assertAliveEquals(moves.get(i), moveStack.pop());
+        }
+        assertEquals(popCount + moves.size(), moveStack.getPopCount());
+        assertTrue(moveStack.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moveStack.pop());
+        assertThrows(IllegalArgumentException.class, () -> new MoveStack(5, 0));
+    }
+
+    private static void assertAliveEquals(final MoveResult.Valid.Alive expected, final MoveResult actual) {
+        assertTrue(actual instanceof MoveResult.Valid.Alive);
+        final var alive = (MoveResult.Valid.Alive) actual;
+        assertEquals(expected.newPosition, alive.newPosition);
+        assertEquals(expected.origPosition, alive.origPosition);
+        assertEquals(expected.collectedGems, alive.collectedGems);
+        assertEquals(expected.collectedExtraLives, alive.collectedExtraLives);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Push Move - Position Beyond Columns")
+    void testPushBeyondColumns() {
+        moveStack = new MoveStack(2);
+        assertThrows(IllegalArgumentException.class, () -> moveStack.push(
+                new MoveResult.Valid.Alive(new Position(0, 2), new Position(0, 0))
+        ));
+        assertTrue(moveStack.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new MoveStack(0));
+    }
+
     @AfterEach
     void tearDown() {
         moveStack = null;
@@ -0,0 +1,332 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import hk.ust.cse.comp3021.pa3.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa3.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBoardTest {
+
+    private GameBoard gameBoard;
+
+    // P*L
+    // XW#
+    // ...
+    private static Cell createCell(final Position pos) {
+        if (pos.equals(new Position(0, 0))) {
+            return new EntityCell(pos, new Player());
+        } else if (pos.equals(new Position(0, 1))) {
+            return new EntityCell(pos, new Gem());
+        } else if (pos.equals(new Position(0, 2))) {
+            return new EntityCell(pos, new ExtraLife());
+        } else if (pos.equals(new Position(1, 0))) {
+            return new EntityCell(pos, new Mine());
+        } else if (pos.equals(new Position(1, 1))) {
+            return new Wall(pos);
+        } else if (pos.equals(new Position(1, 2))) {
+            return new StopCell(pos);
+        } else {
+            return new EntityCell(pos);
+        }
+    }
+
+    // P*L
+    // XW#
+    // ...
+    private static GameBoard createPackedGameBoard() {
+        final var cellKinds = new byte[]{
+                PackedBoard.CELL_STOP, PackedBoard.CELL_EMPTY, PackedBoard.CELL_EMPTY,
+                PackedBoard.CELL_EMPTY, PackedBoard.CELL_WALL, PackedBoard.CELL_STOP,
+                PackedBoard.CELL_EMPTY, PackedBoard.CELL_EMPTY, PackedBoard.CELL_EMPTY,
+        };
+        final var entityKinds = new byte[]{
+                PackedBoard.ENTITY_PLAYER, PackedBoard.ENTITY_GEM, PackedBoard.ENTITY_EXTRA_LIFE,
+                PackedBoard.ENTITY_MINE, PackedBoard.ENTITY_NONE, PackedBoard.ENTITY_NONE,
+                PackedBoard.ENTITY_NONE, PackedBoard.ENTITY_NONE, PackedBoard.ENTITY_NONE,
+        };
+        return new GameBoard(3, 3, cellKinds, entityKinds);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Mirror Cells")
+    void testMirrorCells() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 3, PackedBoardTest::createCell);
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        assertEquals(PackedBoard.ENTITY_PLAYER, packedBoard.getEntityKind(packedBoard.indexOf(0, 0)));
+        assertEquals(PackedBoard.ENTITY_GEM, packedBoard.getEntityKind(packedBoard.indexOf(0, 1)));
+        assertEquals(PackedBoard.ENTITY_EXTRA_LIFE, packedBoard.getEntityKind(packedBoard.indexOf(0, 2)));
+        assertEquals(PackedBoard.ENTITY_MINE, packedBoard.getEntityKind(packedBoard.indexOf(1, 0)));
+        assertEquals(PackedBoard.CELL_WALL, packedBoard.getCellKind(packedBoard.indexOf(1, 1)));
+        assertEquals(PackedBoard.CELL_STOP, packedBoard.getCellKind(packedBoard.indexOf(1, 2)));
+        assertEquals(PackedBoard.CELL_EMPTY, packedBoard.getCellKind(packedBoard.indexOf(2, 2)));
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(2, 2)));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Mirror Cells - Set Entity")
+    void testMirrorSetEntity() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 3, PackedBoardTest::createCell);
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        gameBoard.getEntityCell(0, 1).setEntity(null);
+        gameBoard.getEntityCell(2, 2).setEntity(gameBoard.getPlayer());
+
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(0, 1)));
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(0, 0)));
+        assertEquals(PackedBoard.ENTITY_PLAYER, packedBoard.getEntityKind(packedBoard.indexOf(2, 2)));
+        assertSame(gameBoard.getPlayer(), gameBoard.getPlayerAt(packedBoard.indexOf(2, 2)));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Packed Game Board - Cells")
+    void testPackedCells() {
+        gameBoard = createPackedGameBoard();
+
+        assertTrue(gameBoard.getCell(0, 0) instanceof StopCell);
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(0, 0).getEntity());
+        assertSame(gameBoard.getPlayer().getOwner(), gameBoard.getCell(0, 0));
+        assertTrue(gameBoard.getEntityCell(0, 1).getEntity() instanceof Gem);
+        assertTrue(gameBoard.getEntityCell(0, 2).getEntity() instanceof ExtraLife);
+        assertTrue(gameBoard.getEntityCell(1, 0).getEntity() instanceof Mine);
+        assertTrue(gameBoard.getCell(1, 1) instanceof Wall);
+        assertTrue(gameBoard.getCell(1, 2) instanceof StopCell);
+        assertNull(gameBoard.getEntityCell(2, 2).getEntity());
+        assertEquals(1, gameBoard.getNumGems());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Packed Game Board - Invalid Entity on Wall")
+    void testPackedEntityOnWall() {
+        final var cellKinds = new byte[]{PackedBoard.CELL_EMPTY, PackedBoard.CELL_WALL, PackedBoard.CELL_EMPTY};
+        final var entityKinds = new byte[]{PackedBoard.ENTITY_PLAYER, PackedBoard.ENTITY_GEM, PackedBoard.ENTITY_GEM};
+
+        assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(1, 3, cellKinds, entityKinds));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Packed Game Board - Set Entity Writes Back")
+    void testPackedSetEntity() {
+        gameBoard = createPackedGameBoard();
+
+        gameBoard.getEntityCell(0, 1).setEntity(null);
+
+        assertNull(gameBoard.getEntityCell(0, 1).getEntity());
+        assertEquals(0, gameBoard.getNumGems());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Packed Game Board - Make and Undo Move")
+    void testPackedMakeAndUndoMove() {
+        gameBoard = createPackedGameBoard();
+        final var controller = new GameBoardController(gameBoard);
+
+        final var result = controller.makeMove(Direction.RIGHT);
+
+        assertTrue(result instanceof MoveResult.Valid.Alive);
+        final var alive = (MoveResult.Valid.Alive) result;
+        assertEquals(new Position(0, 2), alive.newPosition);
+        assertEquals(1, alive.collectedGems.size());
+        assertEquals(1, alive.collectedExtraLives.size());
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(0, 2).getEntity());
+        assertNull(gameBoard.getEntityCell(0, 0).getEntity());
+        assertEquals(0, gameBoard.getNumGems());
+
+        controller.undoMove(alive);
+
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(0, 0).getEntity());
+        assertTrue(gameBoard.getEntityCell(0, 1).getEntity() instanceof Gem);
+        assertTrue(gameBoard.getEntityCell(0, 2).getEntity() instanceof ExtraLife);
+        assertEquals(1, gameBoard.getNumGems());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Entity Counts - Set Entity")
+    void testEntityCounts() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 3, PackedBoardTest::createCell);
+
+        assertEquals(1, gameBoard.getNumGems());
+        assertEquals(1, gameBoard.getNumExtraLives());
+        assertEquals(1, gameBoard.getNumMines());
+
+        gameBoard.getEntityCell(0, 2).setEntity(new Gem());
+        gameBoard.getEntityCell(2, 2).setEntity(new Gem());
+        gameBoard.getEntityCell(1, 0).setEntity(null);
+
+        assertEquals(3, gameBoard.getNumGems());
+        assertEquals(0, gameBoard.getNumExtraLives());
+        assertEquals(0, gameBoard.getNumMines());
+        assertEquals(1, gameBoard.getPackedBoard().getEntityCount(PackedBoard.ENTITY_PLAYER));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Snapshot - Unaffected by Later Moves")
+    void testSnapshot() {
+        final var numCols = PackedBoard.TILE_SIZE + 8;
+        final var cellKinds = new byte[numCols];
+        final var entityKinds = new byte[numCols];
+        entityKinds[0] = PackedBoard.ENTITY_PLAYER;
+        entityKinds[1] = PackedBoard.ENTITY_GEM;
+        entityKinds[numCols - 1] = PackedBoard.ENTITY_GEM;
+        gameBoard = new GameBoard(1, numCols, cellKinds, entityKinds);
+        final var controller = new GameBoardController(gameBoard);
+
+        final var snapshot = gameBoard.snapshot();
+        assertSame(snapshot, gameBoard.getLatestSnapshot());
+
+        final var result = controller.makeMove(Direction.RIGHT);
+        assertTrue(result instanceof MoveResult.Valid.Alive);
+
+        assertEquals(PackedBoard.ENTITY_PLAYER, snapshot.getEntityKind(0));
+        assertEquals(PackedBoard.ENTITY_GEM, snapshot.getEntityKind(1));
+        assertEquals(PackedBoard.ENTITY_GEM, snapshot.getEntityKind(numCols - 1));
+        assertEquals(2, snapshot.getEntityCount(PackedBoard.ENTITY_GEM));
+        assertSame(gameBoard.getPlayer(), snapshot.getPlayerAt(0));
+        assertEquals(0, snapshot.getPlayerCell(gameBoard.getPlayer().getId()));
+
+        final var latest = gameBoard.getLatestSnapshot();
+        assertNotSame(snapshot, latest);
+        assertEquals(PackedBoard.ENTITY_NONE, latest.getEntityKind(1));
+        assertEquals(PackedBoard.ENTITY_PLAYER, latest.getEntityKind(numCols - 1));
+        assertEquals(0, latest.getEntityCount(PackedBoard.ENTITY_GEM));
+        assertNull(latest.getPlayerAt(0));
+        assertSame(gameBoard.getPlayer(), latest.getPlayerAt(numCols - 1));
+        assertEquals(numCols - 1, latest.getPlayerCell(gameBoard.getPlayer().getId()));
+        assertThrows(IllegalArgumentException.class, () -> latest.getPlayerCell(1));
+        assertEquals(gameBoard.getZobristHash(), latest.getZobristHash());
+
+        controller.undoMove(result);
+        assertEquals(PackedBoard.ENTITY_PLAYER, gameBoard.getLatestSnapshot().getEntityKind(0));
+        assertEquals(PackedBoard.ENTITY_NONE, latest.getEntityKind(0));
+        assertEquals(snapshot.getZobristHash(), gameBoard.getLatestSnapshot().getZobristHash());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Snapshot - Players Looked Up by Cell")
+    void testSnapshotPlayerAt() {
+        // Each row is P......SG, spanning two tiles of columns
+        final var numRows = PackedBoard.TILE_SIZE + 36;
+        final var numCols = PackedBoard.TILE_SIZE + 8;
+        final var cellKinds = new byte[numRows * numCols];
+        final var entityKinds = new byte[numRows * numCols];
+        for (int r = 0; r < numRows; ++r) {
+            entityKinds[r * numCols] = PackedBoard.ENTITY_PLAYER;
+            cellKinds[r * numCols + numCols - 2] = PackedBoard.CELL_STOP;
+            entityKinds[r * numCols + numCols - 1] = PackedBoard.ENTITY_GEM;
+        }
+        gameBoard = new GameBoard(numRows, numCols, cellKinds, entityKinds);
+        final var controller = new GameBoardController(gameBoard);
+
+        final var snapshot = gameBoard.getLatestSnapshot();
+        assertEquals(numRows, snapshot.getNumPlayers());
+        for (final var player : gameBoard.getPlayers()) {
+            final var position = player.getOwner().getPosition();
+            final var move = controller.tryMove(snapshot, position, Direction.RIGHT, player.getId());
+            assertEquals(new Position(position.row(), numCols - 2), move.newPosition);
+            assertTrue(controller.makeMove(Direction.RIGHT, player.getId()) instanceof MoveResult.Valid.Alive);
+        }
+
+        final var latest = gameBoard.getLatestSnapshot();
+        for (int r = 0; r < numRows; ++r) {
+            final var player = gameBoard.getPlayerAt(r * numCols + numCols - 2);
+            assertNotNull(player);
+            assertSame(player, snapshot.getPlayerAt(r * numCols));
+            assertNull(snapshot.getPlayerAt(r * numCols + numCols - 2));
+            assertSame(player, latest.getPlayerAt(r * numCols + numCols - 2));
+            assertNull(latest.getPlayerAt(r * numCols));
+            assertEquals(r * numCols + numCols - 2, latest.getPlayerCell(player.getId()));
+        }
+
+        // Other players block the slide on the snapshot as on the game board
+        final var player = gameBoard.getPlayerAt(numCols - 2);
+        final var move = controller.tryMove(latest, new Position(0, numCols - 2), Direction.DOWN, player.getId());
+        assertTrue(move instanceof MoveResult.Invalid);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Snapshot - Write Copies Only the Written Tile and Band")
+    void testSnapshotCopyOnWrite() {
+        final var size = PackedBoard.TILE_SIZE * 4;
+        final var packedBoard = new PackedBoard.Builder(size, size)
+                .set(0, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER)
+                .set(size - 1, size - 1, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM)
+                .build();
+        packedBoard.setPlayerId(0, 7);
+
+        final var sharedEntityTiles = packedBoard.shareEntityTiles();
+        final var sharedPlayerTiles = packedBoard.getPlayerTiles();
+
+        // Move the player from tile (0, 0) to tile (0, 1)
+        final var index = packedBoard.indexOf(1, PackedBoard.TILE_SIZE);
+        packedBoard.setPlayerId(index, 7);
+        packedBoard.setEntityKind(index, PackedBoard.ENTITY_PLAYER);
+        packedBoard.setEntityKind(0, PackedBoard.ENTITY_NONE);
+
+        final var entityTiles = packedBoard.shareEntityTiles();
+        final var playerTiles = packedBoard.getPlayerTiles();
+        assertNotSame(sharedEntityTiles[0], entityTiles[0]);
+        assertNotSame(sharedPlayerTiles[0], playerTiles[0]);
+        for (int tileCol = 2; tileCol < 4; ++tileCol) {
+            assertSame(sharedEntityTiles[0][tileCol], entityTiles[0][tileCol]);
+        }
+        for (int tileRow = 1; tileRow < 4; ++tileRow) {
+            assertSame(sharedEntityTiles[tileRow], entityTiles[tileRow]);
+            assertSame(sharedPlayerTiles[tileRow], playerTiles[tileRow]);
+        }
+
+        // The shared tiles still hold the player where it was
+        assertEquals(PackedBoard.ENTITY_PLAYER, sharedEntityTiles[0][0][0]);
+        assertEquals(7, PackedBoard.findPlayerId(sharedPlayerTiles[0][0], 0));
+        assertNull(sharedPlayerTiles[0][1]);
+        assertEquals(-1, PackedBoard.findPlayerId(playerTiles[0][0], 0));
+        assertEquals(7, packedBoard.getPlayerId(index));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Tiled Storage - Only Populated Tiles Materialized")
+    void testTiledStorage() {
+        final var size = PackedBoard.TILE_SIZE * 16;
+        final var packedBoard = new PackedBoard.Builder(size, size)
+                .set(0, 0, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER)
+                .set(0, size - 1, PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM)
+                .set(size - 1, 0, PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE)
+                .build();
+        gameBoard = new GameBoard(packedBoard);
+        final var controller = new GameBoardController(gameBoard);
+
+        assertSame(packedBoard, gameBoard.getPackedBoard());
+        assertEquals(2, packedBoard.getNumMaterializedTiles());
+        assertEquals(PackedBoard.CELL_WALL, packedBoard.getCellKind(packedBoard.indexOf(size - 1, 0)));
+        assertEquals(PackedBoard.CELL_EMPTY, packedBoard.getCellKind(packedBoard.indexOf(size - 1, 1)));
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(size / 2, size / 2)));
+        assertEquals(size * size - 2, packedBoard.getEntityCount(PackedBoard.ENTITY_NONE));
+
+        assertTrue(controller.makeMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+        assertTrue(controller.makeMove(Direction.DOWN) instanceof MoveResult.Valid.Alive);
+
+        assertEquals(3, packedBoard.getNumMaterializedTiles());
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(size - 1, size - 1).getEntity());
+        assertEquals(0, gameBoard.getNumGems());
+        assertThrows(IllegalArgumentException.class, () -> new GameBoard(packedBoard));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameBoard = null;
+    }
+}
@@ -0,0 +1,93 @@
+package hk.ust.cse.comp3021.pa3.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlideTableTest {
+
+    /**
+     * Finds the stop of a slide by walking the board cell by cell.
+     */
+    private static int scanStopIndex(final PackedBoard packedBoard, final Direction direction, final int index) {
+        final var numCols = packedBoard.getNumCols();
+        if (packedBoard.getCellKind(index) == PackedBoard.CELL_WALL) {
+            return index;
+        }
+        var row = index / numCols;
+        var col = index % numCols;
+        while (true) {
+            final var nextRow = row + direction.getRowOffset();
+            final var nextCol = col + direction.getColOffset();
+            if (nextRow < 0 || nextRow >= packedBoard.getNumRows() || nextCol < 0 || nextCol >= numCols) {
+                break;
+            }
+            final var nextKind = packedBoard.getCellKind(nextRow * numCols + nextCol);
+            if (nextKind == PackedBoard.CELL_WALL) {
+                break;
+            }
+            row = nextRow;
+            col = nextCol;
+            if (nextKind == PackedBoard.CELL_STOP) {
+                break;
+            }
+        }
+        return row * numCols + col;
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Slide Table - Same Stops as Scanning, Including Slides Longer Than a Byte")
+    void testStopIndices() {
+        final var random = new Random(0);
+        for (final var dimensions : new int[][]{{1, 700}, {700, 1}, {40, 600}, {600, 40}}) {
+            final var numRows = dimensions[0];
+            final var numCols = dimensions[1];
+            final var cellKinds = new byte[numRows * numCols];
+            for (int i = 0; i < cellKinds.length; ++i) {
+                // Sparse walls and stop cells, so that many slides are longer than 255 cells
+                final var r = random.nextInt(1000);
+                cellKinds[i] = r < 2 ? PackedBoard.CELL_WALL : r < 4 ? PackedBoard.CELL_STOP : PackedBoard.CELL_EMPTY;
+            }
+            // Cells 0, 1 and 2 are exactly 256, 255 and 254 cells away from the stop cell on their right
+            if (numRows == 1) {
+                Arrays.fill(cellKinds, 0, 512, PackedBoard.CELL_EMPTY);
+                cellKinds[256] = PackedBoard.CELL_STOP;
+                cellKinds[512] = PackedBoard.CELL_STOP;
+            }
+            final var packedBoard = PackedBoard.of(numRows, numCols, cellKinds, new byte[cellKinds.length]);
+            final var table = SlideTable.of(packedBoard);
+
+            for (final var direction : Direction.values()) {
+                final var message = direction + " on " + numRows + "x" + numCols;
+                for (int index = 0; index < cellKinds.length; ++index) {
+                    assertEquals(scanStopIndex(packedBoard, direction, index), table.getStopIndex(direction, index),
+                            message);
+                    assertEquals(scanStopIndex(packedBoard, direction, index),
+                            packedBoard.scanStopIndex(direction, index), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Slide Resolver - Scan by Default")
+    void testDefaultSlideResolver() {
+        final var cellKinds = new byte[4];
+        final var entityKinds = new byte[]{PackedBoard.ENTITY_PLAYER, PackedBoard.ENTITY_NONE, PackedBoard.ENTITY_GEM,
+                PackedBoard.ENTITY_NONE};
+        final var gameBoard = new GameBoard(1, 4, cellKinds, entityKinds);
+        assertEquals(SlideResolver.SCAN, gameBoard.getSlideResolver());
+
+        gameBoard.setSlideResolver(SlideResolver.JUMP_TABLE);
+        assertEquals(SlideResolver.JUMP_TABLE, gameBoard.getSlideResolver());
+        assertSame(gameBoard.getSlideTable(), gameBoard.getSlideTable());
+        assertEquals(3, gameBoard.getSlideTable().getStopIndex(Direction.RIGHT, 0));
+    }
+}
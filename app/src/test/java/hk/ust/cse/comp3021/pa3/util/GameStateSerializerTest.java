@@ -229,6 +229,36 @@ public class GameStateSerializerTest {
         assertNull(((StopCell) gameBoard.getCell(2, 2)).getEntity());
     }
 
+    @Test
+    @Tag("sanity")
+    @DisplayName("Deserialization Test - Packed Game Board")
+    void testDeserializePacked() {
+        final var source = String.join(System.lineSeparator(), "3", "3", "10", "P..", "MWL", ".GS");
+
+        final GameState[] gameStates;
+        final GameState[] packedGameStates;
+        try (final var reader = new BufferedReader(new StringReader(source));
+             final var packedReader = new BufferedReader(new StringReader(source))) {
+            gameStates = GameStateSerializer.loadFrom(reader);
+            packedGameStates = GameStateSerializer.loadFrom(packedReader, 0);
+        } catch (IOException e) {
+            fail(e);
+            throw new AssertionError();
+        }
+
+        assertEquals(1, packedGameStates.length);
+        assertEquals(10, packedGameStates[0].getNumLives());
+
+        final var gameBoard = gameStates[0].getGameBoard();
+        final var packedGameBoard = packedGameStates[0].getGameBoard();
+        for (int r = 0; r < gameBoard.getNumRows(); ++r) {
+            for (int c = 0; c < gameBoard.getNumCols(); ++c) {
+                assertEquals(gameBoard.getCell(r, c).toASCIIChar(), packedGameBoard.getCell(r, c).toASCIIChar());
+                assertEquals(gameBoard.getCell(r, c).getClass(), packedGameBoard.getCell(r, c).getClass());
+            }
+        }
+    }
+
     @AfterEach
     void tearDown() throws IOException {
         if (reader != null) {
@@ -0,0 +1,215 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionManagerTest {
+
+    private SessionManager sessionManager = null;
+
+    // P.*.
+    // Q.*.
+    private GameController createGame() {
+        final var gameBoard = GameBoardUtils.createGameBoard(2, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+        return new GameController(gameBoard.getPlayers().stream()
+                .map(player -> new GameState(gameBoard, player))
+                .toArray(GameState[]::new));
+    }
+
+    /**
+     * @return The number of live carrier threads of all instances of {@link SessionManager}.
+     */
+    private static long countCarrierThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("session-manager-"))
+                .count();
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Open - Sessions Played Until Game Over and Evicted")
+    void testOpenPlayedUntilGameOver() throws Exception {
+        final var numCarrierThreads = 2;
+        final var numSessions = 500;
+        final var numThreadsBefore = countCarrierThreads();
+        sessionManager = new SessionManager(numCarrierThreads);
+
+        final var sessions = new ArrayList<SessionManager.Session>();
+        for (int i = 0; i < numSessions; ++i) {
+            sessions.add(sessionManager.open(createGame(), Robot.Strategy.Smart, Robot.Strategy.Random));
+        }
+        CompletableFuture.allOf(sessions.stream().map(SessionManager.Session::getWinners)
+                .toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Thread count stays flat regardless of the number of sessions
+        assertTrue(countCarrierThreads() - numThreadsBefore <= numCarrierThreads);
+
+        long numMoves = 0;
+        for (final var session : sessions) {
+            assertTrue(session.isFinished());
+            assertNotNull(session.getWinners().get());
+            assertNotNull(session.getController().getWinners());
+            assertTrue(session.getNumMoves() > 0);
+            assertTrue(session.getMovesPerSecond() > 0);
+            numMoves += session.getNumMoves();
+        }
+        assertEquals(0, sessionManager.getNumSessions());
+        assertTrue(sessionManager.getSessions().isEmpty());
+        assertEquals(numSessions, sessionManager.getNumEvictedSessions());
+        assertEquals(numMoves, sessionManager.getNumMoves());
+        assertTrue(sessionManager.getMovesPerSecond() > 0);
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Open - Session Evicted Once No Robot Can Move")
+    void testOpenStalledGame() throws Exception {
+        // PQRG, where R is not played by any robot, so neither P nor Q can ever move
+        final var gameBoard = GameBoardUtils.createGameBoard(1, 4, pos -> switch (pos.col()) {
+            case 3 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos, new Player());
+        });
+        final var players = gameBoard.getPlayers();
+        final var controller = new GameController(new GameState(gameBoard, players.get(0)),
+                new GameState(gameBoard, players.get(1)));
+        sessionManager = new SessionManager(1);
+
+        final var session = sessionManager.open(controller, Robot.Strategy.Smart, Robot.Strategy.Random);
+        assertArrayEquals(new Player[0], session.getWinners().get(10, TimeUnit.SECONDS));
+        assertTrue(session.isFinished());
+        assertNull(controller.getWinners());
+        assertEquals(0, session.getNumMoves());
+        assertEquals(0, sessionManager.getNumSessions());
+        assertEquals(1, sessionManager.getNumEvictedSessions());
+    }
+
+    /**
+     * Creates a game like {@link SessionManagerTest#createGame()}, whose moves run an action instead of moving.
+     *
+     * @param action The action to run on each move.
+     */
+    private GameController createGame(final Runnable action) {
+        final var gameStates = createGame().getGameStates();
+        return new GameController(gameStates) {
+            @Override
+            public MoveResult processMove(Direction direction, int playerID) {
+                action.run();
+                return super.processMove(direction, playerID);
+            }
+        };
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Open - Carrier Threads Not Held by a Blocked Session")
+    void testOpenBlockedSession() throws Exception {
+        sessionManager = new SessionManager(2);
+        final var blocked = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        try {
+            // Both robots of the session would otherwise occupy a carrier thread each, one of them waiting for the
+            // other to release the lock of their game board
+            final var blockedSession = sessionManager.open(createGame(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }), Robot.Strategy.Smart);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+            final var session = sessionManager.open(createGame(), Robot.Strategy.Smart);
+            assertNotNull(session.getWinners().get(10, TimeUnit.SECONDS));
+            assertFalse(blockedSession.isFinished());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Open - Session Evicted Once a Robot Throws an Error")
+    void testOpenRobotError() throws Exception {
+        sessionManager = new SessionManager(1);
+
+        final var session = sessionManager.open(createGame(() -> {
+            throw new AssertionError();
+        }), Robot.Strategy.Smart);
+        final var exception = assertThrows(ExecutionException.class, () -> session.getWinners().get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof AssertionError);
+        assertTrue(session.isFinished());
+        assertEquals(0, sessionManager.getNumSessions());
+        assertEquals(1, sessionManager.getNumEvictedSessions());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Close - Session Evicted Before Game Over")
+    void testCloseSession() {
+        sessionManager = new SessionManager(1, () -> TimeUnit.MINUTES.toMillis(1));
+
+        final var session = sessionManager.open(createGame(), Robot.Strategy.Random);
+        final var other = sessionManager.open(createGame(), Robot.Strategy.Random);
+        assertEquals(2, sessionManager.getNumSessions());
+        assertNotEquals(session.getId(), other.getId());
+
+        session.close();
+        assertTrue(session.isFinished());
+        assertThrows(CancellationException.class, () -> session.getWinners().join());
+        assertEquals(0, session.getNumMoves());
+        assertEquals(1, sessionManager.getNumSessions());
+        assertSame(other, sessionManager.getSessions().get(0));
+        assertEquals(1, sessionManager.getNumEvictedSessions());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Close - Session Manager")
+    void testCloseSessionManager() {
+        sessionManager = new SessionManager(1, () -> TimeUnit.MINUTES.toMillis(1));
+
+        final var session = sessionManager.open(createGame(), Robot.Strategy.Smart);
+        sessionManager.close();
+
+        assertTrue(session.isFinished());
+        assertTrue(session.getWinners().isCancelled());
+        assertEquals(0, sessionManager.getNumSessions());
+        assertThrows(RejectedExecutionException.class, () -> sessionManager.open(createGame(), Robot.Strategy.Smart));
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Constructor - Invalid Arguments")
+    void testConstructorInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionManager(0));
+        sessionManager = new SessionManager(1);
+        assertThrows(IllegalArgumentException.class, () -> sessionManager.open(createGame()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sessionManager != null) {
+            sessionManager.close();
+        }
+        sessionManager = null;
+    }
+}
@@ -0,0 +1,138 @@
+package hk.ust.cse.comp3021.pa3.util;
+
+import hk.ust.cse.comp3021.pa3.controller.GameController;
+import hk.ust.cse.comp3021.pa3.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    private final ConcurrentLinkedQueue<GameController> games = new ConcurrentLinkedQueue<>();
+    private ExecutorService executor = null;
+
+    /**
+     * @param gameBoard The supplier of the game board of each game.
+     * @return The factory of games on the game boards, which records every created game in {@link #games}.
+     */
+    private Supplier<GameController> gameFactory(final Supplier<GameBoard> gameBoard) {
+        return () -> {
+            final var board = gameBoard.get();
+            final var gameStates = board.getPlayers().stream()
+                    .map(player -> new GameState(board, player))
+                    .toArray(GameState[]::new);
+            final var controller = new GameController(gameStates);
+            games.add(controller);
+            return controller;
+        };
+    }
+
+    // P.
+    // .*
+    private GameBoard createSinglePlayerGameBoard() {
+        return GameBoardUtils.createGameBoard(2, 2, pos -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(1, 1))) {
+                return new EntityCell(pos, new Gem());
+            }
+            return new EntityCell(pos);
+        });
+    }
+
+    // P.*.
+    // Q.*.
+    private GameBoard createMultiplayerGameBoard() {
+        return GameBoardUtils.createGameBoard(2, 4, pos -> switch (pos.col()) {
+            case 0 -> new EntityCell(pos, new Player());
+            case 2 -> new EntityCell(pos, new Gem());
+            default -> new EntityCell(pos);
+        });
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Run - Synchronously Until Game Over")
+    void testRunSynchronously() {
+        final var simulator = new Simulator(gameFactory(this::createSinglePlayerGameBoard), 1000, Robot.Strategy.Smart);
+
+        final var report = simulator.run(50);
+
+        assertEquals(50, report.numGames());
+        assertEquals(50, games.size());
+        // The gem is two moves away from the player
+        assertEquals(2 * 50, report.numMoves());
+        assertTrue(report.getMovesPerSecond() > 0);
+        for (final var game : games) {
+            final var winners = game.getWinners();
+            assertNotNull(winners);
+            assertEquals(1, winners.length);
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Run - Maximum Moves per Game")
+    void testRunMaxMovesPerGame() {
+        final var simulator = new Simulator(gameFactory(this::createSinglePlayerGameBoard), 1, Robot.Strategy.Random);
+
+        final var report = simulator.run(10);
+
+        assertEquals(10, report.numMoves());
+        for (final var game : games) {
+            assertNull(game.getWinners());
+            assertEquals(1, game.getGameState().getNumMoves());
+        }
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Run - Games in Parallel on Worker Pool")
+    void testRunOnWorkerPool() {
+        executor = Executors.newFixedThreadPool(4);
+        final var simulator = new Simulator(gameFactory(this::createMultiplayerGameBoard), 1000,
+                Robot.Strategy.Smart, Robot.Strategy.Random);
+
+        final var report = simulator.run(100, executor);
+
+        assertEquals(100, report.numGames());
+        assertEquals(100, games.size());
+        long numMoves = 0;
+        for (final var game : games) {
+            assertNotNull(game.getWinners());
+            for (final var gameState : game.getGameStates()) {
+                numMoves += gameState.getNumMoves();
+            }
+            assertEquals(game.getGameBoard().computeZobristHash(), game.getGameBoard().getZobristHash());
+        }
+        // Robots only make valid moves, so every processed move is counted by the game state of its player
+        assertEquals(numMoves, report.numMoves());
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Constructor - Invalid Arguments")
+    void testConstructorInvalidArguments() {
+        final var factory = gameFactory(this::createSinglePlayerGameBoard);
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(factory, 0, Robot.Strategy.Random));
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(factory, 1));
+        assertTrue(games.isEmpty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        executor = null;
+        games.clear();
+    }
+}